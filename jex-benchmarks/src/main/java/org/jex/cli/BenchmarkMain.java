@@ -0,0 +1,49 @@
+package org.jex.cli;
+
+import org.openjdk.jmh.Main;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Entry point of jex-benchmarks.jar: the standard JMH command line, with the GC profiler
+ * always attached so every result carries its allocation rate (gc.alloc.rate.norm).
+ *
+ * Examples:
+ *   java -jar jex-benchmarks/target/jex-benchmarks.jar
+ *   java -jar jex-benchmarks/target/jex-benchmarks.jar RegistryBenchmark -p entries=10000
+ */
+public final class BenchmarkMain {
+
+    // Prevent instantiation
+    private BenchmarkMain() {
+        throw new AssertionError("BenchmarkMain is a utility class and should not be instantiated");
+    }
+
+    public static void main(String[] args) throws Exception {
+        CommandLineOptions commandLine;
+        try {
+            commandLine = new CommandLineOptions(args);
+        } catch (CommandLineOptionException e) {
+            System.err.println("Error: " + e.getMessage());
+            System.exit(1);
+            return;
+        }
+
+        // -h, -l, -lp, ... : nothing to run, plain JMH handles them
+        if (commandLine.shouldHelp() || commandLine.shouldList() || commandLine.shouldListWithParams()
+                || commandLine.shouldListProfilers() || commandLine.shouldListResultFormats()) {
+            Main.main(args);
+            return;
+        }
+
+        Options options = new OptionsBuilder()
+                .parent(commandLine)
+                .addProfiler(GCProfiler.class)
+                .build();
+        new Runner(options).run();
+    }
+}
@@ -0,0 +1,173 @@
+package org.jex.cli;
+
+import java.io.IOException;
+import java.lang.reflect.Field;
+import java.net.URLClassLoader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.jar.Attributes;
+import java.util.jar.JarEntry;
+import java.util.jar.JarOutputStream;
+import java.util.jar.Manifest;
+import java.util.stream.Stream;
+import javax.tools.JavaCompiler;
+import javax.tools.ToolProvider;
+
+/**
+ * Fixtures shared by the benchmarks: synthetic registries and plugin JARs, and access to the
+ * in-JVM caches so a benchmark can measure the uncached path.
+ */
+final class BenchmarkSupport {
+
+    // Class name of the plugin in the JARs built by writePluginJar
+    static final String PLUGIN_CLASS = "bench.plugin.BenchPlugin";
+
+    // Prevent instantiation
+    private BenchmarkSupport() {
+        throw new AssertionError("BenchmarkSupport is a utility class and should not be instantiated");
+    }
+
+    /**
+     * Write a plugin.yaml with the given number of entries (bench-0 ... bench-N-1).
+     */
+    static Path writeRegistry(Path dir, int entries) throws IOException {
+        StringBuilder yaml = new StringBuilder("# Synthetic registry\n");
+        for (int i = 0; i < entries; i++) {
+            yaml.append("bench-").append(i).append(":\n")
+                .append("  jar: bench-").append(i).append(".jar\n")
+                .append("  class: com.example.bench").append(i).append(".BenchPlugin\n")
+                .append("  version: 1.0.").append(i).append('\n')
+                .append("  description: Synthetic plugin number ").append(i).append('\n');
+        }
+        Path file = dir.resolve("plugin.yaml");
+        Files.writeString(file, yaml);
+        return file;
+    }
+
+    /**
+     * Build a plugin JAR: a JexPlugin implementation plus, for a large JAR, filler classes
+     * (loaded by a JAR scan before the plugin is found) and filler resources.
+     *
+     * @param fillerClasses Number of additional classes, stored before the plugin class
+     * @param fillerResources Number of 8KB resource entries
+     */
+    static Path writePluginJar(Path jar, int fillerClasses, int fillerResources) throws IOException {
+        Path work = Files.createTempDirectory("jex-bench-src");
+        try {
+            Path src = work.resolve("src/bench/plugin");
+            Files.createDirectories(src);
+            List<String> sources = new ArrayList<>();
+            for (int i = 0; i < fillerClasses; i++) {
+                Path file = src.resolve("Filler" + i + ".java");
+                Files.writeString(file, "package bench.plugin;\n"
+                        + "public class Filler" + i + " {\n"
+                        + "    public int value(int x) { return x * " + (i + 1) + " + " + i + "; }\n"
+                        + "}\n");
+                sources.add(file.toString());
+            }
+            Path plugin = src.resolve("BenchPlugin.java");
+            Files.writeString(plugin, "package bench.plugin;\n"
+                    + "public class BenchPlugin implements org.jex.cli.JexPlugin {\n"
+                    + "    public String getName() { return \"bench\"; }\n"
+                    + "    public void execute(String[] args) { }\n"
+                    + "}\n");
+            sources.add(plugin.toString());
+
+            Path classes = work.resolve("classes");
+            Files.createDirectories(classes);
+            compile(classes, sources);
+
+            Manifest manifest = new Manifest();
+            manifest.getMainAttributes().put(Attributes.Name.MANIFEST_VERSION, "1.0");
+            Random random = new Random(42);
+            byte[] filler = new byte[8192];
+            try (JarOutputStream out = new JarOutputStream(Files.newOutputStream(jar), manifest)) {
+                for (int i = 0; i < fillerClasses; i++) {
+                    addEntry(out, "bench/plugin/Filler" + i + ".class", Files.readAllBytes(classes.resolve("bench/plugin/Filler" + i + ".class")));
+                }
+                addEntry(out, "bench/plugin/BenchPlugin.class", Files.readAllBytes(classes.resolve("bench/plugin/BenchPlugin.class")));
+                for (int i = 0; i < fillerResources; i++) {
+                    random.nextBytes(filler);
+                    addEntry(out, "bench/data/blob" + i + ".bin", filler);
+                }
+            }
+            return jar;
+        } finally {
+            deleteTree(work);
+        }
+    }
+
+    private static void compile(Path classes, List<String> sources) throws IOException {
+        JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        if (compiler == null) {
+            throw new IOException("A JDK (with javac) is required to build the benchmark plugin JARs");
+        }
+        List<String> args = new ArrayList<>(List.of(
+                "-d", classes.toString(),
+                "-cp", System.getProperty("java.class.path"),
+                "-proc:none", "-nowarn"));
+        args.addAll(sources);
+        if (compiler.run(null, null, null, args.toArray(new String[0])) != 0) {
+            throw new IOException("Compiling the benchmark plugin failed");
+        }
+    }
+
+    private static void addEntry(JarOutputStream out, String name, byte[] data) throws IOException {
+        out.putNextEntry(new JarEntry(name));
+        out.write(data);
+        out.closeEntry();
+    }
+
+    /**
+     * A private static Map field of a Jex class (one of the in-JVM caches).
+     */
+    @SuppressWarnings("unchecked")
+    static Map<Object, Object> staticMap(Class<?> owner, String field) {
+        try {
+            Field f = owner.getDeclaredField(field);
+            f.setAccessible(true);
+            return (Map<Object, Object>) f.get(null);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Cannot access " + owner.getSimpleName() + "." + field, e);
+        }
+    }
+
+    /**
+     * The per-class resource cache of ArgumentParser (a ClassValue).
+     */
+    @SuppressWarnings("unchecked")
+    static Map<Object, Object> resourceCache(Class<?> contextClass) {
+        try {
+            Field f = ArgumentParser.class.getDeclaredField("RESOURCE_DEFINITIONS");
+            f.setAccessible(true);
+            return (Map<Object, Object>) ((ClassValue<?>) f.get(null)).get(contextClass);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Cannot access ArgumentParser.RESOURCE_DEFINITIONS", e);
+        }
+    }
+
+    /**
+     * Close the class loader a plugin instance was loaded by (if it is a JAR loader).
+     */
+    static void closeLoader(Object plugin) throws IOException {
+        if (plugin != null && plugin.getClass().getClassLoader() instanceof URLClassLoader loader) {
+            loader.close();
+        }
+    }
+
+    static void deleteTree(Path root) throws IOException {
+        if (root == null || !Files.exists(root)) {
+            return;
+        }
+        try (Stream<Path> paths = Files.walk(root)) {
+            for (Path path : paths.sorted(Comparator.reverseOrder()).toList()) {
+                Files.deleteIfExists(path);
+            }
+        }
+    }
+}
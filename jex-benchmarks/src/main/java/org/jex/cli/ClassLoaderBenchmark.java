@@ -0,0 +1,120 @@
+package org.jex.cli;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Loading every class of a class-heavy plugin JAR from a fresh loader: a plain
+ * URLClassLoader against PluginClassLoader (memory-mapped JAR, package index). The
+ * Jex loader also runs each class through ExitTrap, which URLClassLoader does not.
+ * readAllClassFiles isolates the JAR access: class file bytes through URLClassLoader's
+ * resource streams against MappedJar, without defining anything. The repacked layout is
+ * the JAR after JarRepacker: class files stored, in load order.
+ *
+ * Every invocation starts from a cold loader, so these run in single-shot batches.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 30, batchSize = 1)
+@Measurement(iterations = 100, batchSize = 1)
+@Fork(1)
+public class ClassLoaderBenchmark {
+
+    @Param({"url", "jex"})
+    public String loader;
+
+    @Param({"200", "2000"})
+    public int classes;
+
+    @Param({"original", "repacked"})
+    public String layout;
+
+    private Path dir;
+    private Path jar;
+    private List<String> classNames;
+    private URLClassLoader current;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        dir = Files.createTempDirectory("jex-bench-loader");
+        jar = BenchmarkSupport.writePluginJar(dir.resolve("classes.jar"), classes, 0);
+        classNames = new ArrayList<>();
+        for (int i = 0; i < classes; i++) {
+            classNames.add("bench.plugin.Filler" + i);
+        }
+        classNames.add(BenchmarkSupport.PLUGIN_CLASS);
+        if (layout.equals("repacked")) {
+            Path repacked = dir.resolve("repacked.jar");
+            JarRepacker.repack(jar, repacked, classNames);
+            jar = repacked;
+        }
+    }
+
+    @TearDown(Level.Invocation)
+    public void closeLoader() throws IOException {
+        if (current != null) {
+            current.close();
+            current = null;
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        BenchmarkSupport.deleteTree(dir);
+    }
+
+    @Benchmark
+    public int loadAllClasses() throws Exception {
+        ClassLoader parent = ClassLoaderBenchmark.class.getClassLoader();
+        current = loader.equals("url")
+                ? new URLClassLoader(new URL[]{jar.toUri().toURL()}, parent)
+                : new PluginClassLoader(jar, parent);
+
+        int loaded = 0;
+        for (String name : classNames) {
+            loaded += current.loadClass(name).getModifiers();
+        }
+        return loaded;
+    }
+
+    @Benchmark
+    public long readAllClassFiles() throws Exception {
+        long bytes = 0;
+        if (loader.equals("url")) {
+            current = new URLClassLoader(new URL[]{jar.toUri().toURL()}, null);
+            for (String name : classNames) {
+                try (InputStream in = current.getResourceAsStream(name.replace('.', '/') + ".class")) {
+                    bytes += in.readAllBytes().length;
+                }
+            }
+        } else {
+            MappedJar mapped = MappedJar.open(jar);
+            for (String name : classNames) {
+                bytes += mapped.readClass(name.replace('.', '/') + ".class").length;
+            }
+        }
+        return bytes;
+    }
+}
@@ -0,0 +1,374 @@
+package org.jex.cli;
+
+import org.yaml.snakeyaml.Yaml;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * End-to-end cold start benchmark: launches a new JVM running Jex for each sample and reports
+ * wall time percentiles and peak RSS per scenario. JMH measures warm code; most of a jex call
+ * is JVM startup, class loading and the first run of everything, which only this sees.
+ *
+ * Usage:
+ *   java -cp jex-benchmarks/target/jex-benchmarks.jar org.jex.cli.ColdStartHarness [options]
+ *
+ * Options:
+ *   --jar FILE          Jex JAR to launch (default: target/Jex-*.jar)
+ *   --devtools FILE     jex-devtools JAR for the internal scenario (default: target/jex-devtools-*.jar)
+ *   --java FILE         java launcher (default: the one running the harness)
+ *   --java-opt OPT      Extra JVM option for every launch (repeatable), e.g. -XX:SharedArchiveFile=...
+ *   --runs N            Measured launches per scenario (default 30)
+ *   --warmup N          Unmeasured launches per scenario first, to warm the OS caches (default 3)
+ *   --scenarios A,B     Subset of: version, list, internal, external, large-jar
+ *   --registry-size N   Synthetic plugin.yaml entries (default 1000)
+ *   --save FILE         Write the results as a JSON baseline
+ *   --baseline FILE     Compare with a saved baseline; exit 1 if p50 or p90 regressed
+ *   --threshold PCT     Allowed regression in percent (default 10)
+ *
+ * Peak RSS is VmHWM from /proc (Linux only, sampled while the process runs; -1 elsewhere).
+ */
+public final class ColdStartHarness {
+
+    private static final List<String> ALL_SCENARIOS = List.of("version", "list", "internal", "external", "large-jar");
+
+    private record Scenario(String name, List<String> command) {
+    }
+
+    private record Sample(long nanos, long peakRssKb) {
+    }
+
+    record Result(String name, int runs, double p50Ms, double p90Ms, double p99Ms, double maxMs, long peakRssKb) {
+    }
+
+    // Prevent instantiation
+    private ColdStartHarness() {
+        throw new AssertionError("ColdStartHarness is a utility class and should not be instantiated");
+    }
+
+    public static void main(String[] args) throws Exception {
+        System.exit(run(args));
+    }
+
+    static int run(String[] args) throws Exception {
+        Path jar = null;
+        Path devtools = null;
+        String java = Paths.get(System.getProperty("java.home"), "bin", "java").toString();
+        List<String> javaOpts = new ArrayList<>();
+        int runs = 30;
+        int warmup = 3;
+        List<String> scenarios = ALL_SCENARIOS;
+        int registrySize = 1000;
+        Path save = null;
+        Path baseline = null;
+        double threshold = 10;
+
+        try {
+            for (int i = 0; i < args.length; i++) {
+                String arg = args[i];
+                if (i + 1 >= args.length) {
+                    System.err.println("Error: Missing value for " + arg);
+                    return 2;
+                }
+                String value = args[++i];
+                switch (arg) {
+                    case "--jar" -> jar = Paths.get(value);
+                    case "--devtools" -> devtools = Paths.get(value);
+                    case "--java" -> java = value;
+                    case "--java-opt" -> javaOpts.add(value);
+                    case "--runs" -> runs = Integer.parseInt(value);
+                    case "--warmup" -> warmup = Integer.parseInt(value);
+                    case "--scenarios" -> scenarios = Arrays.asList(value.split(","));
+                    case "--registry-size" -> registrySize = Integer.parseInt(value);
+                    case "--save" -> save = Paths.get(value);
+                    case "--baseline" -> baseline = Paths.get(value);
+                    case "--threshold" -> threshold = Double.parseDouble(value);
+                    default -> {
+                        System.err.println("Error: Unknown option: " + arg);
+                        return 2;
+                    }
+                }
+            }
+        } catch (NumberFormatException e) {
+            System.err.println("Error: Invalid number: " + e.getMessage());
+            return 2;
+        }
+
+        for (String name : scenarios) {
+            if (!ALL_SCENARIOS.contains(name)) {
+                System.err.println("Error: Unknown scenario: " + name + " (expected one of " + ALL_SCENARIOS + ")");
+                return 2;
+            }
+        }
+        if (runs < 1 || warmup < 0) {
+            System.err.println("Error: --runs must be at least 1 and --warmup not negative");
+            return 2;
+        }
+        if (jar == null) {
+            jar = findJar(Paths.get("target"), "Jex-*.jar");
+        }
+        if (jar == null || !Files.isRegularFile(jar)) {
+            System.err.println("Error: Jex JAR not found (build it with 'mvn package' or pass --jar)");
+            return 2;
+        }
+        if (devtools == null) {
+            devtools = findJar(jar.toAbsolutePath().getParent(), "jex-devtools-*.jar");
+        }
+
+        Path home = Files.createTempDirectory("jex-coldstart");
+        try {
+            List<Scenario> matrix = prepare(home, jar, devtools, java, javaOpts, scenarios, registrySize);
+            List<Result> results = new ArrayList<>();
+
+            System.out.println("Jex JAR: " + jar + "  java: " + java + "  runs: " + runs + " (+" + warmup + " warmup)");
+            System.out.println(String.format("%-12s %5s %9s %9s %9s %9s %9s", "scenario", "runs", "p50 ms", "p90 ms", "p99 ms", "max ms", "rss MB"));
+            for (Scenario scenario : matrix) {
+                Result result = measure(scenario, home, runs, warmup);
+                if (result == null) {
+                    return 1;
+                }
+                results.add(result);
+                System.out.println(String.format(Locale.ROOT, "%-12s %5d %9.1f %9.1f %9.1f %9.1f %9s",
+                        result.name(), result.runs(), result.p50Ms(), result.p90Ms(), result.p99Ms(), result.maxMs(),
+                        result.peakRssKb() < 0 ? "n/a" : String.format(Locale.ROOT, "%.1f", result.peakRssKb() / 1024.0)));
+            }
+
+            if (save != null) {
+                Files.writeString(save, toJson(jar, java, results));
+                System.out.println("Saved baseline: " + save);
+            }
+            if (baseline != null) {
+                return compare(readBaseline(baseline), results, threshold) ? 0 : 1;
+            }
+            return 0;
+        } finally {
+            BenchmarkSupport.deleteTree(home);
+        }
+    }
+
+    /**
+     * Build the fixture home (synthetic registry plus a small and a large plugin JAR) and the
+     * command line of every requested scenario.
+     */
+    private static List<Scenario> prepare(Path home, Path jar, Path devtools, String java, List<String> javaOpts,
+                                          List<String> names, int registrySize) throws IOException {
+        Path config = configDirectory(home);
+        Path plugins = config.resolve("plugins");
+        Files.createDirectories(plugins);
+
+        Path registry = BenchmarkSupport.writeRegistry(config, registrySize);
+        if (names.contains("external")) {
+            BenchmarkSupport.writePluginJar(plugins.resolve("cold-small.jar"), 0, 0);
+        }
+        if (names.contains("large-jar")) {
+            BenchmarkSupport.writePluginJar(plugins.resolve("cold-large.jar"), 500, 1000);
+        }
+        Files.writeString(registry, Files.readString(registry)
+                + "cold-small:\n  jar: cold-small.jar\n  class: " + BenchmarkSupport.PLUGIN_CLASS + "\n"
+                + "cold-large:\n  jar: cold-large.jar\n  class: " + BenchmarkSupport.PLUGIN_CLASS + "\n");
+
+        List<String> base = new ArrayList<>();
+        base.add(java);
+        base.addAll(javaOpts);
+        base.add("-Duser.home=" + home);
+
+        List<Scenario> matrix = new ArrayList<>();
+        for (String name : names) {
+            List<String> command = new ArrayList<>(base);
+            switch (name) {
+                case "version" -> command.addAll(List.of("-jar", jar.toString(), "--version"));
+                case "list" -> command.addAll(List.of("-jar", jar.toString(), "--list"));
+                case "internal" -> {
+                    if (devtools == null || !Files.isRegularFile(devtools)) {
+                        System.err.println("Warning: jex-devtools JAR not found, skipping the internal scenario (pass --devtools)");
+                        continue;
+                    }
+                    command.addAll(List.of("-cp", jar + File.pathSeparator + devtools, "org.jex.cli.Jex", "new-plugin", "--help"));
+                }
+                case "external" -> command.addAll(List.of("-jar", jar.toString(), "cold-small"));
+                case "large-jar" -> command.addAll(List.of("-jar", jar.toString(), "cold-large"));
+                default -> throw new IllegalArgumentException(name);
+            }
+            matrix.add(new Scenario(name, command));
+        }
+        return matrix;
+    }
+
+    private static Result measure(Scenario scenario, Path home, int runs, int warmup) throws IOException, InterruptedException {
+        long[] nanos = new long[runs];
+        long peakRssKb = -1;
+
+        for (int i = -warmup; i < runs; i++) {
+            Sample sample = launch(scenario, home);
+            if (sample == null) {
+                return null;
+            }
+            if (i >= 0) {
+                nanos[i] = sample.nanos();
+                peakRssKb = Math.max(peakRssKb, sample.peakRssKb());
+            }
+        }
+
+        Arrays.sort(nanos);
+        return new Result(scenario.name(), runs, percentile(nanos, 50), percentile(nanos, 90), percentile(nanos, 99),
+                nanos[runs - 1] / 1e6, peakRssKb);
+    }
+
+    private static Sample launch(Scenario scenario, Path home) throws IOException, InterruptedException {
+        Path errors = home.resolve("stderr.txt");
+        ProcessBuilder builder = new ProcessBuilder(scenario.command())
+                .redirectOutput(ProcessBuilder.Redirect.DISCARD)
+                .redirectError(errors.toFile())
+                .redirectInput(ProcessBuilder.Redirect.from(new File(PathConfig.isWindows() ? "NUL" : "/dev/null")));
+        // Windows resolves the Jex directories from these instead of user.home
+        builder.environment().put("APPDATA", home.toString());
+        builder.environment().put("LOCALAPPDATA", home.toString());
+        builder.environment().remove("JEX_TRACE");
+
+        long start = System.nanoTime();
+        Process process = builder.start();
+        RssSampler sampler = new RssSampler(process.pid());
+        Thread samplerThread = Thread.ofPlatform().daemon().start(sampler);
+        int exitCode = process.waitFor();
+        long elapsed = System.nanoTime() - start;
+        samplerThread.interrupt();
+        samplerThread.join();
+
+        if (exitCode != 0) {
+            System.err.println("Error: Scenario '" + scenario.name() + "' exited with status " + exitCode + ": "
+                    + String.join(" ", scenario.command()));
+            System.err.print(Files.readString(errors));
+            return null;
+        }
+        return new Sample(elapsed, sampler.peakKb);
+    }
+
+    /**
+     * Polls VmHWM (the kernel's RSS high-water mark) until the process is gone.
+     */
+    private static final class RssSampler implements Runnable {
+        private final Path status;
+        private volatile long peakKb = -1;
+
+        RssSampler(long pid) {
+            this.status = Paths.get("/proc", Long.toString(pid), "status");
+        }
+
+        public void run() {
+            while (!Thread.currentThread().isInterrupted()) {
+                try {
+                    for (String line : Files.readAllLines(status)) {
+                        if (line.startsWith("VmHWM:")) {
+                            peakKb = Math.max(peakKb, Long.parseLong(line.substring(6).replace("kB", "").trim()));
+                            break;
+                        }
+                    }
+                    Thread.sleep(1);
+                } catch (IOException | RuntimeException e) {
+                    return; // exited, or no /proc
+                } catch (InterruptedException e) {
+                    return;
+                }
+            }
+        }
+    }
+
+    // Nearest-rank percentile of sorted samples, in milliseconds
+    static double percentile(long[] sorted, int percent) {
+        int rank = (int) Math.ceil(percent / 100.0 * sorted.length);
+        return sorted[Math.max(0, rank - 1)] / 1e6;
+    }
+
+    /**
+     * Compare p50 and p90 of each scenario against the baseline.
+     *
+     * @return true if nothing regressed by more than the threshold
+     */
+    static boolean compare(Map<String, Map<String, Object>> baseline, List<Result> results, double threshold) {
+        boolean ok = true;
+        System.out.println("\nAgainst baseline (threshold " + threshold + "%):");
+        for (Result result : results) {
+            Map<String, Object> base = baseline.get(result.name());
+            if (base == null) {
+                System.out.println("  " + result.name() + ": not in baseline");
+                continue;
+            }
+            ok &= check(result.name(), "p50", ((Number) base.get("p50Ms")).doubleValue(), result.p50Ms(), threshold);
+            ok &= check(result.name(), "p90", ((Number) base.get("p90Ms")).doubleValue(), result.p90Ms(), threshold);
+        }
+        if (!ok) {
+            System.err.println("Error: Cold start latency regressed past " + threshold + "%");
+        }
+        return ok;
+    }
+
+    private static boolean check(String scenario, String metric, double before, double after, double threshold) {
+        double change = before > 0 ? (after - before) / before * 100 : 0;
+        boolean ok = change <= threshold;
+        System.out.println(String.format(Locale.ROOT, "  %-12s %s %8.1f ms -> %8.1f ms  %+6.1f%%%s",
+                scenario, metric, before, after, change, ok ? "" : "  REGRESSION"));
+        return ok;
+    }
+
+    static String toJson(Path jar, String java, List<Result> results) {
+        StringBuilder sb = new StringBuilder("{\n");
+        sb.append("  \"jar\": \"").append(escape(jar.toString())).append("\",\n");
+        sb.append("  \"java\": \"").append(escape(java)).append("\",\n");
+        sb.append("  \"javaVersion\": \"").append(escape(System.getProperty("java.version"))).append("\",\n");
+        sb.append("  \"scenarios\": {");
+        for (int i = 0; i < results.size(); i++) {
+            Result r = results.get(i);
+            sb.append(i > 0 ? ",\n" : "\n");
+            sb.append(String.format(Locale.ROOT,
+                    "    \"%s\": {\"runs\": %d, \"p50Ms\": %.3f, \"p90Ms\": %.3f, \"p99Ms\": %.3f, \"maxMs\": %.3f, \"peakRssKb\": %d}",
+                    r.name(), r.runs(), r.p50Ms(), r.p90Ms(), r.p99Ms(), r.maxMs(), r.peakRssKb()));
+        }
+        return sb.append("\n  }\n}\n").toString();
+    }
+
+    private static String escape(String value) {
+        return value.replace("\\", "\\\\").replace("\"", "\\\"");
+    }
+
+    // JSON is a subset of YAML, so SnakeYAML reads the baseline
+    @SuppressWarnings("unchecked")
+    static Map<String, Map<String, Object>> readBaseline(Path file) throws IOException {
+        try (InputStream in = Files.newInputStream(file)) {
+            Map<String, Object> document = new Yaml().load(in);
+            Object scenarios = document != null ? document.get("scenarios") : null;
+            return scenarios instanceof Map ? (Map<String, Map<String, Object>>) scenarios : new LinkedHashMap<>();
+        }
+    }
+
+    private static Path configDirectory(Path home) {
+        if (PathConfig.isWindows()) {
+            return home.resolve("Jex");
+        } else if (PathConfig.isMac()) {
+            return home.resolve("Library").resolve("Application Support").resolve("Jex");
+        }
+        return home.resolve(".config").resolve("Jex");
+    }
+
+    private static Path findJar(Path dir, String glob) throws IOException {
+        if (dir == null || !Files.isDirectory(dir)) {
+            return null;
+        }
+        try (DirectoryStream<Path> jars = Files.newDirectoryStream(dir, glob)) {
+            for (Path candidate : jars) {
+                return candidate;
+            }
+        }
+        return null;
+    }
+}
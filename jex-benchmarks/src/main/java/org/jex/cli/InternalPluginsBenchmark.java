@@ -0,0 +1,52 @@
+package org.jex.cli;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Internal plugin lookup: the JAR scan in Jex.discoverInternalPlugins (the fallback) against
+ * reading the build-time index (InternalPluginIndex). jex-devtools is on the class path, so
+ * new-plugin is found by both.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class InternalPluginsBenchmark {
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        // Both paths must see the same plugins, or the comparison measures different work
+        if (!discoverInternalPlugins().containsKey("new-plugin")) {
+            throw new IllegalStateException("The JAR scan did not find new-plugin");
+        }
+        if (!loadInternalPluginIndex().containsKey("new-plugin")) {
+            throw new IllegalStateException("The internal plugin index does not list new-plugin");
+        }
+    }
+
+    @Benchmark
+    public Map<String, JexPlugin> discoverInternalPlugins() {
+        return Jex.discoverInternalPlugins();
+    }
+
+    @Benchmark
+    public Map<String, String> loadInternalPluginIndex() throws IOException {
+        return InternalPluginIndex.load(Jex.class.getClassLoader());
+    }
+}
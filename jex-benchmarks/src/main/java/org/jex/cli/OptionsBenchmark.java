@@ -0,0 +1,81 @@
+package org.jex.cli;
+
+import org.apache.commons.cli.Options;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * ArgumentParser.loadOptionsFromYaml and loadOptionsFromResource, parsing the YAML on every
+ * call (cached=false, what a fresh JVM pays) or reusing the parsed definitions (cached=true).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class OptionsBenchmark {
+
+    private static final String RESOURCE = "/bench/arguments.yaml";
+
+    @Param({"false", "true"})
+    public boolean cached;
+
+    private Path dir;
+    private String yamlPath;
+    private Map<Object, Object> yamlDefinitions;
+    private Map<Object, Object> resourceDefinitions;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        dir = Files.createTempDirectory("jex-bench-options");
+        Path yaml = dir.resolve("arguments.yaml");
+        try (InputStream in = OptionsBenchmark.class.getResourceAsStream(RESOURCE)) {
+            Files.copy(in, yaml);
+        }
+        yamlPath = yaml.toString();
+        yamlDefinitions = BenchmarkSupport.staticMap(ArgumentParser.class, "YAML_DEFINITIONS");
+        resourceDefinitions = BenchmarkSupport.resourceCache(OptionsBenchmark.class);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        yamlDefinitions.clear();
+        resourceDefinitions.clear();
+        BenchmarkSupport.deleteTree(dir);
+    }
+
+    @Benchmark
+    public Options loadOptionsFromYaml() {
+        if (!cached) {
+            yamlDefinitions.clear();
+        }
+        return ArgumentParser.loadOptionsFromYaml(yamlPath);
+    }
+
+    @Benchmark
+    public Options loadOptionsFromResource() {
+        if (!cached) {
+            resourceDefinitions.clear();
+        }
+        return ArgumentParser.loadOptionsFromResource(RESOURCE, OptionsBenchmark.class);
+    }
+}
@@ -0,0 +1,101 @@
+package org.jex.cli;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Loading a plugin from its JAR: PluginLoader.loadPlugin (new class loader, load and
+ * instantiate the registered class), JexUtil.findPluginInJar (find the JexPlugin in a JAR
+ * without a descriptor, then instantiate it) and JexUtil.findPluginClassInJar (the class
+ * header scan alone). The large JAR holds 500 extra classes, stored ahead of the plugin
+ * class, and 1000 8KB resources.
+ *
+ * Every invocation starts from a cold loader, so these run in single-shot batches.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 50, batchSize = 1)
+@Measurement(iterations = 200, batchSize = 1)
+@Fork(1)
+public class PluginLoadBenchmark {
+
+    private static final String PLUGIN_NAME = "bench";
+
+    @Param({"small", "large"})
+    public String jar;
+
+    private Path home;
+    private Path jarPath;
+    private Map<String, Object> config;
+    private Map<Object, Object> loadedPlugins;
+    private String savedUserHome;
+    private Object loaded;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        // PathConfig resolves the plugins directory from user.home
+        home = Files.createTempDirectory("jex-bench-home");
+        savedUserHome = System.getProperty("user.home");
+        System.setProperty("user.home", home.toString());
+
+        Path plugins = Path.of(PathConfig.getPluginsDirectory());
+        Files.createDirectories(plugins);
+        jarPath = plugins.resolve("bench-" + jar + ".jar");
+        if (jar.equals("large")) {
+            BenchmarkSupport.writePluginJar(jarPath, 500, 1000);
+        } else {
+            BenchmarkSupport.writePluginJar(jarPath, 0, 0);
+        }
+
+        config = Map.of("jar", jarPath.getFileName().toString(), "class", BenchmarkSupport.PLUGIN_CLASS);
+        loadedPlugins = BenchmarkSupport.staticMap(PluginLoader.class, "LOADED_PLUGINS");
+    }
+
+    @TearDown(Level.Invocation)
+    public void closeLoaded() throws IOException {
+        loadedPlugins.clear();
+        BenchmarkSupport.closeLoader(loaded);
+        loaded = null;
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        System.setProperty("user.home", savedUserHome);
+        BenchmarkSupport.deleteTree(home);
+    }
+
+    @Benchmark
+    public Object loadPlugin() {
+        loaded = new PluginLoader().loadPlugin(PLUGIN_NAME, config);
+        return loaded;
+    }
+
+    @Benchmark
+    public Object findPluginInJar() throws Exception {
+        loaded = JexUtil.findPluginInJar(jarPath);
+        return loaded;
+    }
+
+    @Benchmark
+    public String findPluginClassInJar() throws Exception {
+        return JexUtil.findPluginClassInJar(jarPath);
+    }
+}
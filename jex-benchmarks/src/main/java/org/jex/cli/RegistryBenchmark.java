@@ -0,0 +1,75 @@
+package org.jex.cli;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * PluginLoader.loadPluginRegistry by registry size and by where the registry comes from:
+ * yaml (SnakeYAML parse; no usable snapshot), snapshot (binary RegistryCache snapshot),
+ * memoized (parsed registry kept in the JVM, as in the shell and daemon).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RegistryBenchmark {
+
+    @Param({"10", "1000", "10000"})
+    public int entries;
+
+    @Param({"yaml", "snapshot", "memoized"})
+    public String source;
+
+    private Path dir;
+    private String registryPath;
+    private PluginLoader loader;
+    private Map<Object, Object> parsedRegistries;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        dir = Files.createTempDirectory("jex-bench-registry");
+        registryPath = BenchmarkSupport.writeRegistry(dir, entries).toString();
+        loader = new PluginLoader();
+        parsedRegistries = BenchmarkSupport.staticMap(PluginLoader.class, "PARSED_REGISTRIES");
+
+        if (source.equals("yaml")) {
+            // A non-empty directory in place of the snapshot: never readable, never replaced
+            Path snapshot = RegistryCache.snapshotPath(Path.of(registryPath));
+            Files.createDirectories(snapshot.resolve("blocked"));
+        }
+        loader.loadPluginRegistry(registryPath);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        parsedRegistries.clear();
+        BenchmarkSupport.deleteTree(dir);
+    }
+
+    @Benchmark
+    public Map<String, Map<String, Object>> loadPluginRegistry() {
+        if (!source.equals("memoized")) {
+            parsedRegistries.clear();
+        }
+        return loader.loadPluginRegistry(registryPath);
+    }
+}
@@ -0,0 +1,87 @@
+package org.jex.cli;
+
+import junit.framework.TestCase;
+import org.yaml.snakeyaml.Yaml;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Tests for the cold start harness statistics, baseline comparison and JSON report.
+ */
+public class ColdStartHarnessTest extends TestCase {
+
+    private static final long MS = 1_000_000L;
+
+    public void testPercentileOfOneSample() {
+        long[] sorted = {7 * MS};
+        assertEquals(7.0, ColdStartHarness.percentile(sorted, 0), 0.0);
+        assertEquals(7.0, ColdStartHarness.percentile(sorted, 50), 0.0);
+        assertEquals(7.0, ColdStartHarness.percentile(sorted, 100), 0.0);
+    }
+
+    public void testPercentileNearestRank() {
+        long[] sorted = new long[10];
+        for (int i = 0; i < sorted.length; i++) {
+            sorted[i] = (i + 1) * MS;
+        }
+        assertEquals(5.0, ColdStartHarness.percentile(sorted, 50), 0.0);
+        assertEquals(9.0, ColdStartHarness.percentile(sorted, 90), 0.0);
+        assertEquals(10.0, ColdStartHarness.percentile(sorted, 99), 0.0);
+        assertEquals(10.0, ColdStartHarness.percentile(sorted, 100), 0.0);
+    }
+
+    public void testCompareSkipsScenariosMissingFromBaseline() {
+        Map<String, Map<String, Object>> baseline = Map.of("help", Map.of("p50Ms", 10.0, "p90Ms", 20.0));
+        List<ColdStartHarness.Result> results = List.of(result("help", 10.0, 20.0), result("new-scenario", 500.0, 900.0));
+        assertTrue(ColdStartHarness.compare(baseline, results, 5));
+    }
+
+    public void testCompareThreshold() {
+        Map<String, Map<String, Object>> baseline = Map.of("help", Map.of("p50Ms", 100.0, "p90Ms", 200));
+
+        // Exactly at the threshold passes; past it fails, for p50 and p90 alike
+        assertTrue(ColdStartHarness.compare(baseline, List.of(result("help", 110.0, 220.0)), 10));
+        assertFalse(ColdStartHarness.compare(baseline, List.of(result("help", 110.5, 200.0)), 10));
+        assertFalse(ColdStartHarness.compare(baseline, List.of(result("help", 100.0, 221.0)), 10));
+
+        // Getting faster is never a regression
+        assertTrue(ColdStartHarness.compare(baseline, List.of(result("help", 50.0, 100.0)), 0));
+    }
+
+    public void testJsonRoundTrip() throws Exception {
+        Path jar = Paths.get("/tmp/dir \"quoted\"/back\\slash/jex.jar");
+        List<ColdStartHarness.Result> results = List.of(
+                new ColdStartHarness.Result("help", 20, 12.345, 23.456, 34.567, 45.678, 51200),
+                new ColdStartHarness.Result("plugin", 20, 80.0, 90.0, 99.0, 120.5, -1));
+        String json = ColdStartHarness.toJson(jar, "/usr/bin/java", results);
+
+        Path file = Files.createTempFile("jex-baseline", ".json");
+        try {
+            Files.writeString(file, json);
+            Map<String, Map<String, Object>> scenarios = ColdStartHarness.readBaseline(file);
+            assertEquals(List.of("help", "plugin"), List.copyOf(scenarios.keySet()));
+            Map<String, Object> help = scenarios.get("help");
+            assertEquals(20, ((Number) help.get("runs")).intValue());
+            assertEquals(12.345, ((Number) help.get("p50Ms")).doubleValue(), 0.0);
+            assertEquals(23.456, ((Number) help.get("p90Ms")).doubleValue(), 0.0);
+            assertEquals(51200, ((Number) help.get("peakRssKb")).longValue());
+            assertEquals(-1, ((Number) scenarios.get("plugin").get("peakRssKb")).longValue());
+
+            // A report is its own baseline with no change
+            assertTrue(ColdStartHarness.compare(scenarios, results, 0));
+
+            Map<String, Object> document = new Yaml().load(json);
+            assertEquals(jar.toString(), document.get("jar"));
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    private static ColdStartHarness.Result result(String name, double p50Ms, double p90Ms) {
+        return new ColdStartHarness.Result(name, 10, p50Ms, p90Ms, p90Ms, p90Ms, -1);
+    }
+}
@@ -0,0 +1,14 @@
+/**
+ * Jex runtime: command dispatcher, plugin loader and registry.
+ *
+ * Plugins are loaded by PluginLoader from the class path of their own class loader (as
+ * part of the unnamed module), so they only need org.jex.cli to be exported.
+ * jdk.jfr is optional: it is only used when startup tracing runs in "jfr" mode.
+ */
+module org.jex.cli {
+    requires org.yaml.snakeyaml;
+    requires org.apache.commons.cli;
+    requires static jdk.jfr;
+
+    exports org.jex.cli;
+}
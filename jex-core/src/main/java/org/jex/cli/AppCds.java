@@ -0,0 +1,205 @@
+package org.jex.cli;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * AppCDS support: `jex --optimize` dumps a dynamic class data sharing archive for Jex and
+ * the registered plugins into the lib directory. The wrapper scripts pass it to the JVM
+ * with -XX:SharedArchiveFile while it exists and is not marked stale.
+ */
+public class AppCds {
+
+    /** Hidden command used for the training run. */
+    static final String TRAIN_COMMAND = "--cds-train";
+
+    /** Main class as launched from the jlink runtime image. */
+    static final String MAIN_MODULE = "org.jex.cli/org.jex.cli.Jex";
+
+    // Prevent instantiation
+    private AppCds() {
+        throw new AssertionError("AppCds is a utility class and should not be instantiated");
+    }
+
+    /**
+     * Build (or rebuild) the archive with a training run of the installed jex.jar.
+     *
+     * @return true if the archive was written
+     */
+    public static boolean optimize() {
+        Path jexJar = Paths.get(PathConfig.getLibDirectory(), "jex.jar");
+        Path archive = Paths.get(PathConfig.getCdsArchivePath());
+
+        if (!Files.exists(jexJar)) {
+            System.err.println("Error: Jex is not installed at " + jexJar);
+            System.err.println("Run 'java -jar Jex.jar --install' first.");
+            return false;
+        }
+
+        String javaExecutable = PathConfig.isWindows() ? "java.exe" : "java";
+        Path runtimeJava = Paths.get(PathConfig.getRuntimeImageDirectory(), "bin", javaExecutable);
+        Path tempArchive = archive.resolveSibling(archive.getFileName() + ".tmp");
+
+        // The launch must match the wrapper's exactly: the runtime image if installed, else -jar <lib>/jex.jar
+        List<String> command = new ArrayList<>();
+        if (Files.isExecutable(runtimeJava)) {
+            command.add(runtimeJava.toString());
+        } else {
+            command.add(Paths.get(System.getProperty("java.home"), "bin", javaExecutable).toString());
+        }
+        command.add("-XX:ArchiveClassesAtExit=" + tempArchive);
+        command.add("-Xlog:cds=off");
+        command.add("-Xlog:cds+dynamic=off");
+        if (Files.isExecutable(runtimeJava)) {
+            command.add("--add-modules");
+            command.add("ALL-SYSTEM");
+            command.add("-m");
+            command.add(MAIN_MODULE);
+        } else {
+            command.add("-jar");
+            command.add(jexJar.toString());
+        }
+        command.add(TRAIN_COMMAND);
+
+        System.out.println("Training class data sharing archive...");
+        try {
+            Files.deleteIfExists(tempArchive);
+
+            ProcessBuilder pb = new ProcessBuilder(command);
+            pb.redirectOutput(ProcessBuilder.Redirect.DISCARD);
+            pb.redirectError(ProcessBuilder.Redirect.DISCARD);
+            pb.redirectInput(ProcessBuilder.Redirect.from(nullDevice()));
+            int exitCode = pb.start().waitFor();
+
+            if (!Files.exists(tempArchive)) {
+                System.err.println("Error: Training run did not produce an archive (exit code " + exitCode + ")");
+                return false;
+            }
+
+            Files.move(tempArchive, archive, StandardCopyOption.REPLACE_EXISTING);
+            Files.deleteIfExists(staleMarker());
+            System.out.println("✓ Wrote class data sharing archive: " + archive +
+                    " (" + Files.size(archive) / 1024 + " KB)");
+            return true;
+        } catch (IOException e) {
+            System.err.println("Error building class data sharing archive: " + e.getMessage());
+            return false;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    /**
+     * Training run executed inside the archiving JVM: exercises the dispatch path and loads
+     * every internal and registered plugin, running each with --help and output muted.
+     */
+    static void train() {
+        PrintStream out = System.out;
+        PrintStream err = System.err;
+        PrintStream mute = new PrintStream(OutputStream.nullOutputStream());
+        System.setOut(mute);
+        System.setErr(mute);
+
+        try {
+            JexMavenUtil.getVersion();
+            Jex.printJexHelp();
+
+            List<JexPlugin> plugins = new ArrayList<>();
+            try {
+                Map<String, String> internal = InternalPluginIndex.load(Jex.class.getClassLoader());
+                if (internal != null) {
+                    for (String name : internal.keySet()) {
+                        JexPlugin plugin = Jex.findInternalPlugin(name);
+                        if (plugin != null) {
+                            plugins.add(plugin);
+                        }
+                    }
+                }
+            } catch (Exception e) {
+                // Keep training the rest
+            }
+
+            PluginLoader loader = new PluginLoader();
+            Map<String, Map<String, Object>> registry = loader.loadRegistry();
+            if (registry != null) {
+                for (String name : registry.keySet()) {
+                    Map<String, Object> config = loader.findPluginConfig(name);
+                    JexPlugin plugin = config != null ? loader.loadPlugin(name, config) : null;
+                    if (plugin != null) {
+                        plugins.add(plugin);
+                    }
+                }
+            }
+
+            for (JexPlugin plugin : plugins) {
+                try {
+                    plugin.getName();
+                    PluginRunner.run(plugin, new String[]{"--help"});
+                } catch (Throwable t) {
+                    // A failing plugin must not end the training run
+                }
+            }
+        } finally {
+            System.setOut(out);
+            System.setErr(err);
+        }
+    }
+
+    /**
+     * Mark the archive stale after the plugin set changed; the wrappers stop using it
+     * until `jex --optimize` rebuilds it.
+     */
+    public static void markStale() {
+        Path archive = Paths.get(PathConfig.getCdsArchivePath());
+        if (!Files.exists(archive)) {
+            return;
+        }
+
+        try {
+            Path marker = staleMarker();
+            if (!Files.exists(marker)) {
+                Files.createFile(marker);
+            }
+            System.out.println("Note: Class data sharing archive is now stale; run 'jex --optimize' to rebuild it");
+        } catch (IOException e) {
+            System.err.println("Warning: Could not mark class data sharing archive stale: " + e.getMessage());
+        }
+    }
+
+    /**
+     * The JVM options the wrapper scripts pass for the archive: empty while there is none or it is stale.
+     */
+    static List<String> launchOptions() {
+        Path archive = Paths.get(PathConfig.getCdsArchivePath());
+        if (!Files.exists(archive) || Files.exists(staleMarker())) {
+            return List.of();
+        }
+        return List.of("-XX:SharedArchiveFile=" + archive, "-Xlog:cds=off", "-Xlog:cds+dynamic=off");
+    }
+
+    /**
+     * Remove the archive (e.g. when jex.jar itself is replaced).
+     */
+    public static void invalidate() throws IOException {
+        Files.deleteIfExists(Paths.get(PathConfig.getCdsArchivePath()));
+        Files.deleteIfExists(staleMarker());
+    }
+
+    private static Path staleMarker() {
+        return Paths.get(PathConfig.getCdsArchivePath() + ".stale");
+    }
+
+    private static File nullDevice() {
+        return new File(PathConfig.isWindows() ? "NUL" : "/dev/null");
+    }
+}
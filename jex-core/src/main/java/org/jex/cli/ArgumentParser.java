@@ -0,0 +1,180 @@
+package org.jex.cli;
+
+import org.apache.commons.cli.*;
+import org.yaml.snakeyaml.Yaml;
+
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+public class ArgumentParser {
+
+    // Parsed option definitions, reused within one JVM so repeated commands skip the YAML parse.
+    // Fresh Options are built from them on every call, since callers may modify what they get back.
+    private static final Map<Path, YamlDefinitions> YAML_DEFINITIONS = new ConcurrentHashMap<>();
+
+    private static final ClassValue<Map<String, List<Map<String, Object>>>> RESOURCE_DEFINITIONS =
+            new ClassValue<>() {
+                @Override
+                protected Map<String, List<Map<String, Object>>> computeValue(Class<?> type) {
+                    return new ConcurrentHashMap<>();
+                }
+            };
+
+    private record YamlDefinitions(RegistryCache.Stamp stamp, List<Map<String, Object>> definitions) {
+    }
+
+    public static Options loadOptionsFromYaml(String yamlPath) {
+        StartupTrace.Span span = StartupTrace.begin(StartupTrace.Phase.OPTIONS, yamlPath);
+        try {
+            return readOptionsFromYaml(yamlPath);
+        } finally {
+            StartupTrace.end(span);
+        }
+    }
+
+    private static Options readOptionsFromYaml(String yamlPath) {
+        Path path = Paths.get(yamlPath);
+        RegistryCache.Stamp stamp = RegistryCache.stamp(path);
+
+        YamlDefinitions cached = YAML_DEFINITIONS.get(path);
+        if (cached != null && stamp != null && stamp.equals(cached.stamp())) {
+            return buildOptionsFromList(cached.definitions());
+        }
+
+        try (InputStream inputStream = Files.newInputStream(path)) {
+            List<Map<String, Object>> definitions = parseOptionDefinitions(inputStream);
+            if (stamp != null) {
+                YAML_DEFINITIONS.put(path, new YamlDefinitions(stamp, definitions));
+            }
+            return buildOptionsFromList(definitions);
+
+        } catch (Exception e) {
+            System.err.println("Error loading arguments from YAML: " + e.getMessage());
+        }
+
+        return new Options();
+    }
+
+    /**
+     * Load CLI options from a bundled resource file (arguments.yaml).
+     * Package-private convenience method for internal org.jex.cli classes only.
+     * External plugins should use loadOptionsFromResource(String, Class) instead.
+     */
+    static Options loadOptionsFromResource(String resourcePath) {
+        return loadOptionsFromResource(resourcePath, ArgumentParser.class);
+    }
+
+    /**
+     * Load CLI options from a bundled resource file using a specific class context.
+     * This is the public API for loading plugin resources.
+     *
+     * @param resourcePath Path to the YAML file (e.g., "/arguments.yaml")
+     * @param contextClass Class to use for loading resources (use this.getClass() or YourPlugin.class)
+     * @return Parsed Options object
+     */
+    public static Options loadOptionsFromResource(String resourcePath, Class<?> contextClass) {
+        StartupTrace.Span span = StartupTrace.begin(StartupTrace.Phase.OPTIONS, resourcePath);
+        try {
+            return readOptionsFromResource(resourcePath, contextClass);
+        } finally {
+            StartupTrace.end(span);
+        }
+    }
+
+    private static Options readOptionsFromResource(String resourcePath, Class<?> contextClass) {
+        Map<String, List<Map<String, Object>>> cache = RESOURCE_DEFINITIONS.get(contextClass);
+        List<Map<String, Object>> cached = cache.get(resourcePath);
+        if (cached != null) {
+            return buildOptionsFromList(cached);
+        }
+
+        try (InputStream inputStream = contextClass.getResourceAsStream(resourcePath)) {
+            if (inputStream == null) {
+                System.err.println("Warning: Could not find " + resourcePath + " in plugin resources");
+                return new Options();
+            }
+
+            List<Map<String, Object>> definitions = parseOptionDefinitions(inputStream);
+            cache.put(resourcePath, definitions);
+            return buildOptionsFromList(definitions);
+        } catch (Exception e) {
+            System.err.println("Error loading arguments from resource: " + e.getMessage());
+        }
+
+        return new Options();
+    }
+
+    /**
+     * Parse the "options" list of an arguments.yaml document.
+     *
+     * @return Option configurations, empty if the document has none
+     */
+    @SuppressWarnings("unchecked")
+    static List<Map<String, Object>> parseOptionDefinitions(InputStream inputStream) {
+        Yaml yaml = new Yaml();
+        Map<String, Object> config = yaml.load(inputStream);
+
+        if (config == null || !config.containsKey("options")) {
+            return Collections.emptyList();
+        }
+
+        List<Map<String, Object>> optionsList = (List<Map<String, Object>>) config.get("options");
+        return optionsList != null ? optionsList : Collections.emptyList();
+    }
+
+    /**
+     * Build Options from a list of option configurations.
+     * Extracts common logic for parsing option configurations.
+     *
+     * @param optionsList List of option configuration maps from YAML
+     * @return Options object with all parsed options
+     */
+    static Options buildOptionsFromList(List<Map<String, Object>> optionsList) {
+        Options options = new Options();
+
+        for (Map<String, Object> optionConfig : optionsList) {
+            Option.Builder builder = Option.builder();
+
+            if (optionConfig.containsKey("short")) {
+                builder.option((String) optionConfig.get("short"));
+            }
+
+            if (optionConfig.containsKey("long")) {
+                builder.longOpt((String) optionConfig.get("long"));
+            }
+
+            if (optionConfig.containsKey("description")) {
+                builder.desc((String) optionConfig.get("description"));
+            }
+
+            if (optionConfig.containsKey("hasArg")) {
+                boolean hasArg = (Boolean) optionConfig.get("hasArg");
+                builder.hasArg(hasArg);
+            }
+
+            if (optionConfig.containsKey("argName")) {
+                builder.argName((String) optionConfig.get("argName"));
+            }
+
+            if (optionConfig.containsKey("required")) {
+                builder.required((Boolean) optionConfig.get("required"));
+            }
+
+            options.addOption(builder.build());
+        }
+
+        return options;
+    }
+
+    public static void printHelp(String commandName, Options options) {
+        HelpFormatter formatter = new HelpFormatter();
+        formatter.printHelp(commandName, options);
+    }
+
+}
\ No newline at end of file
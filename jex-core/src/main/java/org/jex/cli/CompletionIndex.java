@@ -0,0 +1,95 @@
+package org.jex.cli;
+
+import org.apache.commons.cli.Option;
+import org.apache.commons.cli.Options;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Flat completion index read by the bash and zsh completion scripts (jex-completion.bash,
+ * jex-completion.zsh), so a tab press costs a file read instead of a JVM start.
+ *
+ * One line per command, words separated by single spaces. The first line is "-" followed by
+ * Jex's own flags; every other line is a command name followed by its options:
+ *
+ * <pre>
+ * - --install -l --list -h --help ...
+ * my-tool -h --help -i --input
+ * other-tool
+ * </pre>
+ *
+ * HelpCache rewrites the index at cache/completion.txt whenever it refreshes the help pages.
+ */
+final class CompletionIndex {
+
+    static final String FILE_NAME = "completion.txt";
+
+    // First word of the line listing Jex's own flags
+    static final String BUILTINS = "-";
+
+    // Prevent instantiation
+    private CompletionIndex() {
+        throw new AssertionError("CompletionIndex is a utility class and should not be instantiated");
+    }
+
+    /**
+     * Render the index.
+     *
+     * @param builtins Jex's own flags
+     * @param commands Command names with their options, in completion order
+     */
+    static String format(List<String> builtins, Map<String, List<String>> commands) {
+        StringBuilder index = new StringBuilder();
+        appendLine(index, BUILTINS, builtins);
+        for (Map.Entry<String, List<String>> command : commands.entrySet()) {
+            appendLine(index, command.getKey(), command.getValue());
+        }
+        return index.toString();
+    }
+
+    /**
+     * Read the commands of an index; the built-in flags line is skipped.
+     *
+     * @return Command names with their options, in index order
+     */
+    static Map<String, List<String>> parse(List<String> lines) {
+        Map<String, List<String>> commands = new LinkedHashMap<>();
+        for (String line : lines) {
+            List<String> words = line.isBlank() ? Collections.emptyList() : Arrays.asList(line.trim().split(" +"));
+            if (words.isEmpty() || words.get(0).equals(BUILTINS)) {
+                continue;
+            }
+            commands.put(words.get(0), new ArrayList<>(words.subList(1, words.size())));
+        }
+        return commands;
+    }
+
+    /**
+     * The words that complete a command's options: -x for each short name, --xyz for each long name.
+     */
+    static List<String> optionWords(Options options) {
+        List<String> words = new ArrayList<>();
+        for (Option option : options.getOptions()) {
+            if (option.getOpt() != null) {
+                words.add("-" + option.getOpt());
+            }
+            if (option.getLongOpt() != null) {
+                words.add("--" + option.getLongOpt());
+            }
+        }
+        return words;
+    }
+
+    private static void appendLine(StringBuilder index, String name, List<String> words) {
+        index.append(name);
+        for (String word : words) {
+            index.append(' ').append(word);
+        }
+        index.append('\n');
+    }
+}
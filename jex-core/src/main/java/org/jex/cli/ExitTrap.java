@@ -0,0 +1,170 @@
+package org.jex.cli;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Turns System.exit calls in plugin classes into a PluginExit error.
+ *
+ * Plugin classes are rewritten as they are loaded: every constant pool Methodref to
+ * java/lang/System.exit(I)V is pointed at ExitTrap.exit(I)V instead. Only the constant
+ * pool changes (two entries are appended), so the rewrite is cheap and leaves the
+ * bytecode untouched. Calls through Runtime.exit/halt or reflection are not trapped.
+ */
+public final class ExitTrap {
+
+    static final String TRAP_CLASS = "org/jex/cli/ExitTrap";
+
+    // Constant pool tags
+    private static final int UTF8 = 1;
+    private static final int INTEGER = 3;
+    private static final int FLOAT = 4;
+    private static final int LONG = 5;
+    private static final int DOUBLE = 6;
+    private static final int CLASS = 7;
+    private static final int STRING = 8;
+    private static final int FIELDREF = 9;
+    private static final int METHODREF = 10;
+    private static final int INTERFACE_METHODREF = 11;
+    private static final int NAME_AND_TYPE = 12;
+    private static final int METHOD_HANDLE = 15;
+    private static final int METHOD_TYPE = 16;
+    private static final int DYNAMIC = 17;
+    private static final int INVOKE_DYNAMIC = 18;
+    private static final int MODULE = 19;
+    private static final int PACKAGE = 20;
+
+    // Prevent instantiation
+    private ExitTrap() {
+        throw new AssertionError("ExitTrap is a utility class and should not be instantiated");
+    }
+
+    /**
+     * Replacement for System.exit in rewritten plugin classes.
+     */
+    public static void exit(int status) {
+        throw new PluginExit(status);
+    }
+
+    /**
+     * Rewrite a class file so its System.exit calls go to {@link #exit(int)}.
+     *
+     * @return The rewritten class file, or the original array if it doesn't call System.exit
+     *         (or can't be parsed; the JVM will then report the problem when defining it)
+     */
+    static byte[] rewrite(byte[] classFile) {
+        try {
+            return rewriteConstantPool(classFile);
+        } catch (ArrayIndexOutOfBoundsException | IllegalArgumentException e) {
+            return classFile;
+        }
+    }
+
+    private static byte[] rewriteConstantPool(byte[] b) {
+        if (b.length < 10 || u4(b, 0) != 0xCAFEBABE) {
+            return b;
+        }
+
+        int count = u2(b, 8);
+        int[] offsets = new int[count];
+        int pos = 10;
+        for (int i = 1; i < count; i++) {
+            offsets[i] = pos;
+            int tag = b[pos] & 0xFF;
+            switch (tag) {
+                case UTF8 -> pos += 3 + u2(b, pos + 1);
+                case INTEGER, FLOAT, FIELDREF, METHODREF, INTERFACE_METHODREF,
+                     NAME_AND_TYPE, DYNAMIC, INVOKE_DYNAMIC -> pos += 5;
+                case LONG, DOUBLE -> {
+                    pos += 9;
+                    i++;
+                }
+                case CLASS, STRING, METHOD_TYPE, MODULE, PACKAGE -> pos += 3;
+                case METHOD_HANDLE -> pos += 4;
+                default -> throw new IllegalArgumentException("Unknown constant pool tag " + tag);
+            }
+        }
+        int poolEnd = pos;
+
+        // Most classes never reference java/lang/System.exit(I)V; stop early for those
+        Set<Integer> systemClasses = new HashSet<>();
+        Set<Integer> exitNameAndTypes = new HashSet<>();
+        for (int i = 1; i < count; i++) {
+            int offset = offsets[i];
+            if (offset == 0) {
+                continue;
+            }
+            int tag = b[offset] & 0xFF;
+            if (tag == CLASS && utf8Equals(b, offsets[u2(b, offset + 1)], "java/lang/System")) {
+                systemClasses.add(i);
+            } else if (tag == NAME_AND_TYPE
+                    && utf8Equals(b, offsets[u2(b, offset + 1)], "exit")
+                    && utf8Equals(b, offsets[u2(b, offset + 3)], "(I)V")) {
+                exitNameAndTypes.add(i);
+            }
+        }
+        if (systemClasses.isEmpty() || exitNameAndTypes.isEmpty()) {
+            return b;
+        }
+
+        List<Integer> patches = new ArrayList<>();
+        for (int i = 1; i < count; i++) {
+            int offset = offsets[i];
+            if (offset != 0 && (b[offset] & 0xFF) == METHODREF
+                    && systemClasses.contains(u2(b, offset + 1))
+                    && exitNameAndTypes.contains(u2(b, offset + 3))) {
+                patches.add(offset + 1);
+            }
+        }
+        if (patches.isEmpty() || count + 2 > 0xFFFF) {
+            return b;
+        }
+
+        // Append Utf8 "org/jex/cli/ExitTrap" (index count) and Class #count (index count + 1)
+        byte[] name = TRAP_CLASS.getBytes(StandardCharsets.UTF_8);
+        byte[] added = new byte[3 + name.length + 3];
+        added[0] = UTF8;
+        putU2(added, 1, name.length);
+        System.arraycopy(name, 0, added, 3, name.length);
+        added[3 + name.length] = CLASS;
+        putU2(added, 4 + name.length, count);
+
+        byte[] out = Arrays.copyOf(b, b.length + added.length);
+        System.arraycopy(b, poolEnd, out, poolEnd + added.length, b.length - poolEnd);
+        System.arraycopy(added, 0, out, poolEnd, added.length);
+        putU2(out, 8, count + 2);
+        for (int patch : patches) {
+            putU2(out, patch, count + 1);
+        }
+        return out;
+    }
+
+    private static boolean utf8Equals(byte[] b, int offset, String ascii) {
+        if (offset == 0 || (b[offset] & 0xFF) != UTF8 || u2(b, offset + 1) != ascii.length()) {
+            return false;
+        }
+        for (int i = 0; i < ascii.length(); i++) {
+            if (b[offset + 3 + i] != ascii.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static int u2(byte[] b, int offset) {
+        return ((b[offset] & 0xFF) << 8) | (b[offset + 1] & 0xFF);
+    }
+
+    private static int u4(byte[] b, int offset) {
+        return (u2(b, offset) << 16) | u2(b, offset + 2);
+    }
+
+    private static void putU2(byte[] b, int offset, int value) {
+        b[offset] = (byte) (value >>> 8);
+        b[offset + 1] = (byte) value;
+    }
+}
@@ -0,0 +1,276 @@
+package org.jex.cli;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.PrintStream;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Fan-out mode: `jex --each <file|-> [--parallel N] [--unordered] <plugin> [args...]` loads
+ * the plugin once and calls execute for every input line on virtual threads, at most N at
+ * a time. Each "{}" in the arguments is replaced by the input line; without a placeholder
+ * the line is appended as the last argument. A plugin that declares "isolation: process"
+ * runs in worker JVMs instead, one run per worker at a time (see WorkerPool).
+ *
+ * Each run gets its own InvocationContext: stdout and stderr are buffered and written as
+ * one block when it finishes, in input order (default) or in completion order
+ * (--unordered). A run fails when it exits non-zero or throws; the exit code is 1 if any
+ * run failed.
+ */
+public class FanOut {
+
+    static final String PLACEHOLDER = "{}";
+
+    private static final int DEFAULT_PARALLELISM = 32;
+
+    private static final String USAGE =
+            "Error: Usage: jex --each <file|-> [--parallel N] [--unordered] <plugin> [args with {}...]";
+
+    private final JexPlugin plugin;
+    private final String[] template;
+    private final int parallelism;
+    private final boolean ordered;
+    private final Charset charset = System.out.charset();
+
+    FanOut(JexPlugin plugin, String[] template, int parallelism, boolean ordered) {
+        this.plugin = plugin;
+        this.template = template;
+        this.parallelism = parallelism;
+        this.ordered = ordered;
+    }
+
+    /**
+     * Run fan-out mode from the arguments following --each.
+     *
+     * @return Exit code
+     */
+    public static int run(String[] args) {
+        if (args.length < 2) {
+            System.err.println(USAGE);
+            return 1;
+        }
+
+        String source = args[0];
+        int parallelism = DEFAULT_PARALLELISM;
+        boolean ordered = true;
+
+        int i = 1;
+        for (; i < args.length && args[i].startsWith("--"); i++) {
+            if (args[i].equals("--unordered")) {
+                ordered = false;
+            } else if (args[i].equals("--parallel") && i + 1 < args.length) {
+                try {
+                    parallelism = Integer.parseInt(args[++i]);
+                } catch (NumberFormatException e) {
+                    parallelism = 0;
+                }
+                if (parallelism < 1) {
+                    System.err.println("Error: --parallel must be a positive number");
+                    return 1;
+                }
+            } else {
+                System.err.println(USAGE);
+                return 1;
+            }
+        }
+        if (i >= args.length) {
+            System.err.println(USAGE);
+            return 1;
+        }
+
+        String pluginName = args[i];
+        WorkerPool.enable();
+        JexPlugin plugin = Jex.findInternalPlugin(pluginName);
+        if (plugin == null) {
+            PluginLoader loader = new PluginLoader();
+            Map<String, Object> config = loader.findPluginConfig(pluginName);
+            if (config == null) {
+                System.err.println("Error: Unknown plugin: " + pluginName);
+                return 1;
+            }
+            plugin = loader.loadPlugin(pluginName, config);
+            if (plugin == null) {
+                System.err.println("Error: Failed to load plugin: " + pluginName);
+                return 1;
+            }
+        }
+
+        FanOut fanOut = new FanOut(plugin, Arrays.copyOfRange(args, i + 1, args.length), parallelism, ordered);
+        if (source.equals("-")) {
+            return fanOut.execute(new BufferedReader(new InputStreamReader(System.in, StandardCharsets.UTF_8)));
+        }
+        try (BufferedReader reader = Files.newBufferedReader(Paths.get(source))) {
+            return fanOut.execute(reader);
+        } catch (IOException e) {
+            System.err.println("Error: Could not read inputs from " + source + ": " + e.getMessage());
+            return 1;
+        }
+    }
+
+    /**
+     * Arguments for one input: placeholders substituted, or the input appended.
+     */
+    static String[] argumentsFor(String[] template, String input) {
+        boolean substituted = false;
+        String[] args = new String[template.length];
+        for (int i = 0; i < template.length; i++) {
+            if (template[i].contains(PLACEHOLDER)) {
+                args[i] = template[i].replace(PLACEHOLDER, input);
+                substituted = true;
+            } else {
+                args[i] = template[i];
+            }
+        }
+        if (!substituted) {
+            args = Arrays.copyOf(args, args.length + 1);
+            args[args.length - 1] = input;
+        }
+        return args;
+    }
+
+    /**
+     * Outcome of one run. A result with index -1 marks the end of the input and carries
+     * the number of runs in count.
+     */
+    private record Result(int index, String input, byte[] out, byte[] err, boolean failed, int count) {
+    }
+
+    int execute(BufferedReader inputs) {
+        PrintStream stdout = System.out;
+        PrintStream stderr = System.err;
+        InputStream stdin = System.in;
+
+        InvocationContext.install();
+
+        BlockingQueue<Result> results = new LinkedBlockingQueue<>();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            Thread feeder = Thread.ofVirtual().name("jex-each-feeder").start(() -> feed(inputs, executor, results));
+
+            int failures = drain(results, stdout, stderr);
+            feeder.join();
+
+            if (failures > 0) {
+                stderr.println("Error: " + failures + " input(s) failed");
+                return 1;
+            }
+            return 0;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return 1;
+        } finally {
+            System.setOut(stdout);
+            System.setErr(stderr);
+            System.setIn(stdin);
+        }
+    }
+
+    private void feed(BufferedReader inputs, ExecutorService executor, BlockingQueue<Result> results) {
+        Semaphore permits = new Semaphore(parallelism);
+        int count = 0;
+        try {
+            String line;
+            while ((line = inputs.readLine()) != null) {
+                String input = line.strip();
+                if (input.isEmpty() || input.startsWith("#")) {
+                    continue;
+                }
+
+                permits.acquire();
+                int index = count++;
+                executor.submit(() -> {
+                    try {
+                        results.add(runOne(index, input));
+                    } finally {
+                        permits.release();
+                    }
+                });
+            }
+        } catch (IOException e) {
+            System.err.println("Error: Could not read inputs: " + e.getMessage());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            results.add(new Result(-1, null, null, null, false, count));
+        }
+    }
+
+    private Result runOne(int index, String input) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ByteArrayOutputStream err = new ByteArrayOutputStream();
+        // Inputs may come from stdin, and concurrent runs can't share it anyway
+        InvocationContext context = new InvocationContext(InputStream.nullInputStream(),
+                new PrintStream(out, false, charset), new PrintStream(err, false, charset), null);
+
+        boolean failed = context.call(() -> {
+            try {
+                return PluginRunner.run(plugin, argumentsFor(template, input)) != 0;
+            } catch (Throwable t) {
+                System.err.println("Error: " + t);
+                return true;
+            }
+        });
+        return new Result(index, input, out.toByteArray(), err.toByteArray(), failed, 0);
+    }
+
+    /**
+     * Write results as they arrive (or in input order) until every run has reported.
+     *
+     * @return Number of failed runs
+     */
+    private int drain(BlockingQueue<Result> results, PrintStream stdout, PrintStream stderr)
+            throws InterruptedException {
+        Map<Integer, Result> pending = new TreeMap<>();
+        int total = -1;
+        int emitted = 0;
+        int next = 0;
+        int failures = 0;
+
+        while (total < 0 || emitted < total) {
+            Result result = results.take();
+            if (result.index() < 0) {
+                total = result.count();
+                continue;
+            }
+
+            if (!ordered) {
+                failures += emit(result, stdout, stderr);
+                emitted++;
+                continue;
+            }
+
+            pending.put(result.index(), result);
+            Result head;
+            while ((head = pending.remove(next)) != null) {
+                failures += emit(head, stdout, stderr);
+                emitted++;
+                next++;
+            }
+        }
+        return failures;
+    }
+
+    private static int emit(Result result, PrintStream stdout, PrintStream stderr) {
+        stdout.write(result.out(), 0, result.out().length);
+        stdout.flush();
+        stderr.write(result.err(), 0, result.err().length);
+        if (result.failed()) {
+            stderr.println("[failed] " + result.input());
+        }
+        stderr.flush();
+        return result.failed() ? 1 : 0;
+    }
+}
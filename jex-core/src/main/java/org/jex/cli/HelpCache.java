@@ -0,0 +1,329 @@
+package org.jex.cli;
+
+import org.apache.commons.cli.HelpFormatter;
+import org.apache.commons.cli.Option;
+import org.apache.commons.cli.Options;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.PrintStream;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.jar.JarFile;
+import java.util.jar.Manifest;
+import java.util.regex.Pattern;
+import java.util.zip.ZipEntry;
+
+/**
+ * Pre-rendered help pages, so jex.sh can answer `jex -h`, `jex --list` and
+ * `jex <plugin> --help` without starting a JVM.
+ *
+ * <pre>
+ * cache/
+ * ├── help.txt          # jex -h
+ * ├── list.txt          # jex --list
+ * ├── completion.txt    # Shell completion index (see CompletionIndex)
+ * ├── launch.txt        # JVM flags of plugins with a launch profile (see JvmProfile)
+ * └── help/
+ *     └── my-tool.txt   # jex my-tool --help (first line: the plugin JAR it was rendered from)
+ * </pre>
+ *
+ * PluginManager refreshes the pages under the registry lock after every change. jex.sh prints
+ * a page only while it is newer than everything it was rendered from: the Jex JAR, plugin.yaml,
+ * plugin.d and its shards, and for a plugin page the plugin JAR. Each page's mtime is set to
+ * one second past the newest of those, so the check also holds where test -nt compares whole
+ * seconds.
+ *
+ * A plugin page is the HelpFormatter rendering of the plugin's arguments.yaml, which is what
+ * plugins generated by `jex new-plugin` print. Plugins without one, whose options don't
+ * include -h/--help, or that print their own help and set "Jex-Plugin-Help-Page: false" in
+ * the manifest, get no page and run as usual.
+ */
+final class HelpCache {
+
+    static final String HELP_PAGE = "help.txt";
+    static final String LIST_PAGE = "list.txt";
+    static final String PLUGIN_PAGES = "help";
+    static final String PAGE_SUFFIX = ".txt";
+
+    // Names the wrapper accepts as a page file name
+    private static final Pattern PAGE_NAME = Pattern.compile("[A-Za-z0-9_][A-Za-z0-9._-]*");
+
+    /**
+     * Manifest attribute a plugin sets to "false" to always print its help itself.
+     */
+    static final String PAGE_ATTRIBUTE = "Jex-Plugin-Help-Page";
+
+    private static final String ARGUMENTS_YAML = "arguments.yaml";
+
+    // Prevent instantiation
+    private HelpCache() {
+        throw new AssertionError("HelpCache is a utility class and should not be instantiated");
+    }
+
+    /**
+     * Render the Jex help, the plugin list, the completion index (see CompletionIndex) and the
+     * launch profiles (see JvmProfile). A plugin's page and completion line are rendered from its
+     * JAR when the plugin changed or is new to the index, and kept otherwise; pages of plugins
+     * that are no longer registered are dropped. Call with the registry lock held. Failures are
+     * reported as a warning: the wrapper then just runs the command.
+     *
+     * The launch profiles are written first and on their own, stamped like the list page even if
+     * the registry can't be read, so that jex.sh doesn't refresh again before every plugin run
+     * after a failure.
+     *
+     * @param changed Plugins whose JAR or registry entry was just written, or null to re-render all
+     */
+    static void refresh(Collection<String> changed) {
+        Path cacheDir = Paths.get(PathConfig.getCacheDirectory());
+        Map<String, Map<String, Object>> registry;
+        Map<String, String> internal;
+        try {
+            Files.createDirectories(cacheDir);
+            registry = new PluginLoader().loadRegistry();
+            internal = InternalPluginIndex.load(Jex.class.getClassLoader());
+        } catch (IOException | RuntimeException e) {
+            System.err.println("Warning: Could not update the help cache: " + e.getMessage());
+            writeLaunchProfiles(cacheDir, null, null);
+            return;
+        }
+        writeLaunchProfiles(cacheDir, registry, internal);
+
+        try {
+            Path pageDir = cacheDir.resolve(PLUGIN_PAGES);
+            Files.createDirectories(pageDir);
+
+            FileTime registryTime = pageTime(registrySources());
+            Path jexJar = jexJar();
+
+            ByteArrayOutputStream help = new ByteArrayOutputStream();
+            Jex.printJexHelp(new PrintStream(help, true, StandardCharsets.UTF_8));
+            writePage(cacheDir.resolve(HELP_PAGE), help.toByteArray(), pageTime(List.of(jexJar)));
+
+            ByteArrayOutputStream list = new ByteArrayOutputStream();
+            Jex.displayAvailablePlugins(registry, new PrintStream(list, true, StandardCharsets.UTF_8));
+            writePage(cacheDir.resolve(LIST_PAGE), list.toByteArray(), registryTime);
+
+            Path indexFile = cacheDir.resolve(CompletionIndex.FILE_NAME);
+            Map<String, List<String>> known = Files.exists(indexFile)
+                    ? CompletionIndex.parse(Files.readAllLines(indexFile, StandardCharsets.UTF_8))
+                    : Collections.emptyMap();
+
+            // Internal plugins win over registered ones of the same name
+            Map<String, List<String>> commands = new LinkedHashMap<>();
+            if (internal != null) {
+                for (String name : internal.keySet()) {
+                    commands.put(name, Collections.emptyList());
+                }
+            }
+
+            Path pluginsDir = Paths.get(PathConfig.getPluginsDirectory());
+            Set<String> pages = new HashSet<>();
+            if (registry != null) {
+                for (Map.Entry<String, Map<String, Object>> entry : registry.entrySet()) {
+                    String name = entry.getKey();
+                    Object jarFile = entry.getValue() != null ? entry.getValue().get("jar") : null;
+                    if (jarFile == null || !PAGE_NAME.matcher(name).matches() || commands.containsKey(name)) {
+                        continue;
+                    }
+
+                    Path jar = pluginsDir.resolve(jarFile.toString()).toAbsolutePath();
+                    Path page = pageDir.resolve(name + PAGE_SUFFIX);
+                    FileTime time = latest(registryTime, pageTime(List.of(jexJar, jar)));
+
+                    List<String> options = known.get(name);
+                    if (options == null || changed == null || changed.contains(name) || !renderedFrom(page, jar)) {
+                        options = writePluginPage(page, name, jar, time);
+                    } else if (Files.exists(page)) {
+                        // Rendered from the same JAR: only the registry changed
+                        Files.setLastModifiedTime(page, time);
+                    }
+                    if (Files.exists(page)) {
+                        pages.add(page.getFileName().toString());
+                    }
+                    commands.put(name, options);
+                }
+            }
+
+            try (DirectoryStream<Path> stream = Files.newDirectoryStream(pageDir, "*" + PAGE_SUFFIX)) {
+                for (Path page : stream) {
+                    if (!pages.contains(page.getFileName().toString())) {
+                        Files.deleteIfExists(page);
+                    }
+                }
+            }
+
+            String index = CompletionIndex.format(Jex.BUILTIN_FLAGS, commands);
+            writePage(indexFile, index.getBytes(StandardCharsets.UTF_8), FileTime.fromMillis(System.currentTimeMillis()));
+        } catch (IOException | RuntimeException e) {
+            System.err.println("Warning: Could not update the help cache: " + e.getMessage());
+        }
+    }
+
+    // PRIVATE HELPERS
+
+    /**
+     * Write launch.txt: one "&lt;plugin&gt; &lt;flags...&gt;" line per registered plugin with a launch
+     * profile (none if the registry could not be read).
+     */
+    private static void writeLaunchProfiles(Path cacheDir, Map<String, Map<String, Object>> registry,
+                                            Map<String, String> internal) {
+        try {
+            StringBuilder launch = new StringBuilder();
+            if (registry != null) {
+                for (Map.Entry<String, Map<String, Object>> entry : registry.entrySet()) {
+                    String name = entry.getKey();
+                    if (entry.getValue() == null || entry.getValue().get("jar") == null || !PAGE_NAME.matcher(name).matches()
+                            || (internal != null && internal.containsKey(name))) {
+                        continue;
+                    }
+                    appendLaunchProfile(launch, name, entry.getValue().get(JvmProfile.REGISTRY_KEY));
+                }
+            }
+            writePage(cacheDir.resolve(JvmProfile.FILE_NAME), launch.toString().getBytes(StandardCharsets.UTF_8),
+                    pageTime(registrySources()));
+        } catch (IOException | RuntimeException e) {
+            System.err.println("Warning: Could not write the JVM launch profiles: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Render a plugin page from the arguments.yaml at the root of its JAR, or remove it if the
+     * plugin has no page.
+     *
+     * @return The plugin's option words for the completion index (empty without arguments.yaml)
+     */
+    private static List<String> writePluginPage(Path page, String name, Path jar, FileTime time) throws IOException {
+        Options options = null;
+        boolean optOut = false;
+        if (Files.exists(jar)) {
+            try (JarFile jarFile = new JarFile(jar.toFile())) {
+                Manifest manifest = jarFile.getManifest();
+                optOut = manifest != null
+                        && "false".equalsIgnoreCase(manifest.getMainAttributes().getValue(PAGE_ATTRIBUTE));
+                ZipEntry entry = jarFile.getEntry(ARGUMENTS_YAML);
+                if (entry != null) {
+                    try (InputStream in = jarFile.getInputStream(entry)) {
+                        options = ArgumentParser.buildOptionsFromList(ArgumentParser.parseOptionDefinitions(in));
+                    }
+                }
+            } catch (IOException | RuntimeException e) {
+                // Corrupt JAR or unreadable arguments.yaml: let the plugin report it
+                options = null;
+            }
+        }
+        if (options == null) {
+            Files.deleteIfExists(page);
+            return Collections.emptyList();
+        }
+
+        Option help = options.getOption("h");
+        if (optOut || help == null || !"help".equals(help.getLongOpt())) {
+            Files.deleteIfExists(page);
+            return CompletionIndex.optionWords(options);
+        }
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        PrintWriter writer = new PrintWriter(bytes, false, StandardCharsets.UTF_8);
+        writer.println(jar);
+        // Same call as HelpFormatter.printHelp(String, Options)
+        HelpFormatter formatter = new HelpFormatter();
+        formatter.printHelp(writer, formatter.getWidth(), "jex " + name, null, options,
+                formatter.getLeftPadding(), formatter.getDescPadding(), null, false);
+        writer.flush();
+        writePage(page, bytes.toByteArray(), time);
+        return CompletionIndex.optionWords(options);
+    }
+
+    private static void appendLaunchProfile(StringBuilder launch, String name, Object profile) {
+        if (profile == null) {
+            return;
+        }
+        try {
+            List<String> flags = JvmProfile.flags(profile);
+            if (!flags.isEmpty()) {
+                launch.append(name).append(' ').append(String.join(" ", flags)).append('\n');
+            }
+        } catch (IllegalArgumentException e) {
+            System.err.println("Warning: Ignoring the jvm profile of plugin " + name + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * Whether a plugin page, if there is one, was rendered from this JAR (the registry may have been
+     * edited to point elsewhere).
+     */
+    private static boolean renderedFrom(Path page, Path jar) throws IOException {
+        if (!Files.exists(page)) {
+            return true;
+        }
+        try (BufferedReader reader = Files.newBufferedReader(page, StandardCharsets.UTF_8)) {
+            return jar.toString().equals(reader.readLine());
+        }
+    }
+
+    private static void writePage(Path page, byte[] content, FileTime time) throws IOException {
+        Path temp = Files.createTempFile(page.getParent(), page.getFileName().toString(), ".tmp");
+        try {
+            Files.write(temp, content);
+            Files.setLastModifiedTime(temp, time);
+            Files.move(temp, page, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    /**
+     * The files jex.sh checks a page against for every page, in the same order.
+     */
+    private static List<Path> registrySources() throws IOException {
+        List<Path> sources = new ArrayList<>();
+        sources.add(jexJar());
+        sources.add(Paths.get(PathConfig.getPluginYamlPath()));
+        Path shardDir = Paths.get(PathConfig.getPluginShardDirectory());
+        if (Files.isDirectory(shardDir)) {
+            sources.add(shardDir);
+            try (DirectoryStream<Path> stream = Files.newDirectoryStream(shardDir, "*" + ShardedRegistry.SHARD_SUFFIX)) {
+                stream.forEach(sources::add);
+            }
+        }
+        return sources;
+    }
+
+    /**
+     * One second past the newest of the sources that exist, rounded down to a whole second.
+     */
+    private static FileTime pageTime(List<Path> sources) throws IOException {
+        long newest = 0;
+        for (Path source : sources) {
+            if (Files.exists(source)) {
+                newest = Math.max(newest, Files.getLastModifiedTime(source).toMillis());
+            }
+        }
+        return FileTime.fromMillis((newest / 1000 + 1) * 1000);
+    }
+
+    private static FileTime latest(FileTime a, FileTime b) {
+        return a.compareTo(b) >= 0 ? a : b;
+    }
+
+    private static Path jexJar() {
+        return Paths.get(PathConfig.getLibDirectory(), "jex.jar");
+    }
+}
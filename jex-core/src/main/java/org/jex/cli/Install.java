@@ -3,18 +3,29 @@ package org.jex.cli;
 import java.io.*;
 import java.net.URISyntaxException;
 import java.nio.file.Files;
+import java.nio.file.LinkOption;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.nio.file.StandardCopyOption;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Stream;
 
 public class Install {
 
+    private static final String DEVTOOLS_JAR_PREFIX = "jex-devtools-";
+    static final String DEVTOOLS_PLUGIN = "new-plugin";
+    private static final String RUNTIME_IMAGE_DIR = "jex-runtime";
+
     private static String getJarPath() {
         try {
             return new File(Install.class.getProtectionDomain().getCodeSource().getLocation().toURI()).getPath();
         } catch (URISyntaxException e) {
             System.err.println("Error locating JAR file: " + e.getMessage());
             return null;
+        } catch (IllegalArgumentException e) {
+            // Running from the jlink runtime image (jrt:/org.jex.cli), not from a JAR
+            return null;
         }
     }
 
@@ -60,12 +71,23 @@ public class Install {
             // Install Jex JAR
             installJexJar();
 
+            // Install (or drop) the jlink runtime image built alongside this JAR
+            installRuntimeImage();
+
             // Install wrapper script
             installWrapperScript();
 
             // Install bundled plugins
             //installBundledPlugins(pluginsPath);
 
+            // Install the dev tools (new-plugin) if they were built alongside this JAR
+            installDevtools();
+
+            // Render the help pages the wrapper scripts print without starting a JVM (see HelpCache)
+            try (RegistryLock lock = RegistryLock.acquire(configPath)) {
+                HelpCache.refresh(List.of());
+            }
+
             System.out.println("\n" + "=".repeat(60));
             System.out.println("Jex installation completed successfully!");
             System.out.println("=".repeat(60));
@@ -101,6 +123,51 @@ public class Install {
         // Copy JAR to lib directory
         Files.copy(Paths.get(jarPath), targetJar, StandardCopyOption.REPLACE_EXISTING);
         System.out.println("Installed Jex JAR to: " + targetJar);
+
+        // A class data sharing archive built for the previous JAR no longer matches
+        AppCds.invalidate();
+    }
+
+    /**
+     * Copy jex-runtime/ from the directory holding the Jex JAR (built by mvn -Pjlink package)
+     * to the lib directory. An installed image from an older build is removed, since the
+     * Jex module linked into it would no longer match jex.jar.
+     */
+    private static void installRuntimeImage() throws IOException {
+        String jarPath = getJarPath();
+        if (jarPath == null) {
+            return;
+        }
+
+        Path source = Paths.get(jarPath).resolveSibling(RUNTIME_IMAGE_DIR);
+        Path target = Paths.get(PathConfig.getRuntimeImageDirectory());
+
+        if (Files.isDirectory(target)) {
+            deleteTree(target);
+        }
+        if (!Files.isDirectory(source.resolve("bin"))) {
+            return;
+        }
+
+        try (Stream<Path> walk = Files.walk(source)) {
+            for (Path path : (Iterable<Path>) walk::iterator) {
+                Path destination = target.resolve(source.relativize(path).toString());
+                if (Files.isDirectory(path, LinkOption.NOFOLLOW_LINKS)) {
+                    Files.createDirectories(destination);
+                } else {
+                    Files.copy(path, destination, StandardCopyOption.COPY_ATTRIBUTES, LinkOption.NOFOLLOW_LINKS);
+                }
+            }
+        }
+        System.out.println("Installed Java runtime image to: " + target);
+    }
+
+    private static void deleteTree(Path root) throws IOException {
+        try (Stream<Path> walk = Files.walk(root)) {
+            for (Path path : (Iterable<Path>) walk.sorted(Comparator.reverseOrder())::iterator) {
+                Files.delete(path);
+            }
+        }
     }
 
     private static void installWrapperScript() throws IOException {
@@ -116,9 +183,27 @@ public class Install {
             installWindowsScript(binPath);
         } else {
             installUnixScript(binPath);
+            installCompletionScripts();
         }
     }
 
+    /**
+     * Copy the bash and zsh completion scripts to the lib directory. They complete from the
+     * index HelpCache writes (see CompletionIndex), so they never start a JVM.
+     */
+    private static void installCompletionScripts() throws IOException {
+        Path libPath = Paths.get(PathConfig.getLibDirectory());
+        Files.createDirectories(libPath);
+        for (String script : new String[]{"jex-completion.bash", "jex-completion.zsh"}) {
+            try (InputStream is = Install.class.getResourceAsStream("/" + script)) {
+                Files.copy(is, libPath.resolve(script), StandardCopyOption.REPLACE_EXISTING);
+            }
+        }
+        System.out.println("Installed shell completion to: " + libPath);
+        System.out.println("  bash: add 'source \"" + libPath.resolve("jex-completion.bash") + "\"' to ~/.bashrc");
+        System.out.println("  zsh:  add 'source \"" + libPath.resolve("jex-completion.zsh") + "\"' to ~/.zshrc (after compinit)");
+    }
+
     private static void installUnixScript(Path binPath) throws IOException {
         Path scriptPath = binPath.resolve("jex");
 
@@ -164,6 +249,36 @@ public class Install {
         }
     }
 
+    /**
+     * Register jex-devtools-&lt;version&gt;.jar from the directory holding the Jex JAR as a
+     * regular plugin. The dev tools are kept out of the runtime JAR so everyday commands
+     * don't pay for them.
+     */
+    private static void installDevtools() {
+        String jarPath = getJarPath();
+        if (jarPath == null) {
+            return;
+        }
+
+        Path devtoolsJar = Paths.get(jarPath).resolveSibling(DEVTOOLS_JAR_PREFIX + JexMavenUtil.getVersion() + ".jar");
+        if (!Files.exists(devtoolsJar)) {
+            System.out.println("Note: " + devtoolsJar.getFileName() + " not found next to the Jex JAR; " +
+                    "the new-plugin command will not be available");
+            return;
+        }
+
+        try {
+            PluginManager manager = new PluginManager();
+            if (new PluginLoader().findPluginConfig(DEVTOOLS_PLUGIN) != null) {
+                manager.updatePlugin(DEVTOOLS_PLUGIN, devtoolsJar.toString());
+            } else {
+                manager.installPlugin(DEVTOOLS_PLUGIN, devtoolsJar.toString());
+            }
+        } catch (Exception e) {
+            System.err.println("Warning: Could not install Jex dev tools: " + e.getMessage());
+        }
+    }
+
     private static void installWindowsScript(Path binPath) throws IOException {
         Path scriptPath = binPath.resolve("jex.bat");
 
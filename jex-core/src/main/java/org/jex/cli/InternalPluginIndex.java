@@ -0,0 +1,142 @@
+package org.jex.cli;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Writer;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Enumeration;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Build-time index of internal plugins (name to class name).
+ *
+ * The index is written into the JAR at build time by running {@link #main(String[])}
+ * against the compiled classes directory, so the dispatcher only has to read one small
+ * resource and load the single class that was asked for.
+ *
+ * Format: one "plugin-name=fully.qualified.ClassName" entry per line, '#' starts a comment.
+ */
+public class InternalPluginIndex {
+
+    /** Resource path of the index inside the JAR. */
+    public static final String RESOURCE = "META-INF/jex/internal-plugins.idx";
+
+    private static final String PLUGIN_PACKAGE_PATH = "org/jex/plugins/";
+
+    // Prevent instantiation
+    private InternalPluginIndex() {
+        throw new AssertionError("InternalPluginIndex is a utility class and should not be instantiated");
+    }
+
+    /**
+     * Load every internal plugin index visible to the class loader.
+     *
+     * @return Map of plugin name to class name, or null if no index is present
+     */
+    static Map<String, String> load(ClassLoader classLoader) throws IOException {
+        Enumeration<URL> resources = classLoader.getResources(RESOURCE);
+        if (!resources.hasMoreElements()) {
+            return null;
+        }
+
+        Map<String, String> index = new TreeMap<>();
+        while (resources.hasMoreElements()) {
+            try (InputStream is = resources.nextElement().openStream()) {
+                read(is, index);
+            }
+        }
+        return index;
+    }
+
+    /**
+     * Parse index entries from a stream into the given map.
+     */
+    static void read(InputStream is, Map<String, String> index) throws IOException {
+        BufferedReader reader = new BufferedReader(new InputStreamReader(is, StandardCharsets.UTF_8));
+        String line;
+        while ((line = reader.readLine()) != null) {
+            line = line.trim();
+            if (line.isEmpty() || line.startsWith("#")) {
+                continue;
+            }
+            int eq = line.indexOf('=');
+            if (eq > 0) {
+                index.putIfAbsent(line.substring(0, eq).trim(), line.substring(eq + 1).trim());
+            }
+        }
+    }
+
+    /**
+     * Build step: scan a compiled classes directory for JexPlugin implementations
+     * under org/jex/plugins and write the index into it.
+     *
+     * Usage: InternalPluginIndex <classes-directory>
+     */
+    public static void main(String[] args) throws Exception {
+        if (args.length != 1) {
+            System.err.println("Usage: InternalPluginIndex <classes-directory>");
+            System.exit(1);
+        }
+
+        Path classesDir = Paths.get(args[0]);
+        Map<String, String> index = scan(classesDir);
+
+        Path indexFile = classesDir.resolve(RESOURCE);
+        Files.createDirectories(indexFile.getParent());
+        try (Writer writer = Files.newBufferedWriter(indexFile, StandardCharsets.UTF_8)) {
+            writer.write("# Jex internal plugin index (generated at build time)\n");
+            for (Map.Entry<String, String> entry : index.entrySet()) {
+                writer.write(entry.getKey() + "=" + entry.getValue() + "\n");
+            }
+        }
+
+        System.out.println("Indexed " + index.size() + " internal plugin(s) into " + indexFile);
+    }
+
+    /**
+     * Find JexPlugin implementations in a classes directory and map them by plugin name.
+     */
+    static Map<String, String> scan(Path classesDir) throws IOException {
+        Map<String, String> index = new TreeMap<>();
+        Path pluginsDir = classesDir.resolve(PLUGIN_PACKAGE_PATH);
+        if (!Files.isDirectory(pluginsDir)) {
+            return index;
+        }
+
+        List<Path> classFiles;
+        try (Stream<Path> walk = Files.walk(pluginsDir)) {
+            classFiles = walk.filter(p -> p.toString().endsWith(".class")).sorted().collect(Collectors.toList());
+        }
+
+        for (Path classFile : classFiles) {
+            String relative = classesDir.relativize(classFile).toString().replace('\\', '/');
+            String className = relative.replace('/', '.').substring(0, relative.length() - 6);
+
+            try {
+                Class<?> clazz = Class.forName(className);
+                if (JexPlugin.class.isAssignableFrom(clazz) && !clazz.isInterface()) {
+                    JexPlugin plugin = (JexPlugin) clazz.getDeclaredConstructor().newInstance();
+                    String previous = index.put(plugin.getName(), className);
+                    if (previous != null) {
+                        throw new IllegalStateException("Duplicate internal plugin name '" + plugin.getName() +
+                                "': " + previous + " and " + className);
+                    }
+                }
+            } catch (ReflectiveOperationException | LinkageError e) {
+                // Skip classes that can't be loaded or instantiated
+            }
+        }
+
+        return index;
+    }
+}
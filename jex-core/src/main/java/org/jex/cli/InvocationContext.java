@@ -0,0 +1,384 @@
+package org.jex.cli;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Per-invocation stdio and system properties, so unmodified plugins can run concurrently
+ * in one JVM (jex --each, the daemon).
+ *
+ * Once {@link #install()} has run, System.out, System.err and System.in dispatch to the
+ * context of the calling thread, and System.getProperty/setProperty consult the context's
+ * property overlay first (user.dir reports the invocation's working directory). Threads
+ * without a context use the original streams and properties. The context is inherited by
+ * threads started inside it; pooled threads created earlier don't see it.
+ *
+ * Relative java.io.File paths still resolve against the JVM's own working directory.
+ */
+public final class InvocationContext {
+
+    private static final InheritableThreadLocal<InvocationContext> CURRENT = new InheritableThreadLocal<>();
+
+    private final InputStream in;
+    private final PrintStream out;
+    private final PrintStream err;
+    private final Map<String, String> properties = new ConcurrentHashMap<>();
+
+    /**
+     * @param workingDirectory Value of user.dir inside the context, or null to keep the JVM's
+     */
+    public InvocationContext(InputStream in, PrintStream out, PrintStream err, String workingDirectory) {
+        this.in = in;
+        this.out = out;
+        this.err = err;
+        if (workingDirectory != null) {
+            properties.put("user.dir", workingDirectory);
+        }
+    }
+
+    /**
+     * The context of the calling thread, or null outside any invocation.
+     */
+    public static InvocationContext current() {
+        return CURRENT.get();
+    }
+
+    /**
+     * Route System.out/err/in and system properties through the calling thread's context.
+     * The streams current at the time become the defaults for threads without a context.
+     * Safe to call more than once.
+     */
+    public static synchronized void install() {
+        if (!(System.out instanceof ContextPrintStream)) {
+            System.setOut(new ContextPrintStream(System.out, false));
+        }
+        if (!(System.err instanceof ContextPrintStream)) {
+            System.setErr(new ContextPrintStream(System.err, true));
+        }
+        if (!(System.in instanceof ContextInputStream)) {
+            System.setIn(new ContextInputStream(System.in));
+        }
+        if (!(System.getProperties() instanceof ContextProperties)) {
+            System.setProperties(new ContextProperties(System.getProperties()));
+        }
+    }
+
+    /**
+     * Run an action inside this context (nested contexts are restored afterwards).
+     */
+    public void run(Runnable action) {
+        call(() -> {
+            action.run();
+            return null;
+        });
+    }
+
+    /**
+     * Run an action inside this context and return its result.
+     */
+    public <T> T call(Supplier<T> action) {
+        InvocationContext previous = CURRENT.get();
+        CURRENT.set(this);
+        try {
+            return action.get();
+        } finally {
+            out.flush();
+            err.flush();
+            if (previous != null) {
+                CURRENT.set(previous);
+            } else {
+                CURRENT.remove();
+            }
+        }
+    }
+
+    public PrintStream getOut() {
+        return out;
+    }
+
+    public PrintStream getErr() {
+        return err;
+    }
+
+    public InputStream getIn() {
+        return in;
+    }
+
+    /**
+     * System.out/System.err replacement that forwards every call to the current context's
+     * stream, so concurrent invocations don't share (or contend on) one PrintStream.
+     */
+    private static final class ContextPrintStream extends PrintStream {
+        private final PrintStream fallback;
+        private final boolean error;
+
+        ContextPrintStream(PrintStream fallback, boolean error) {
+            super(OutputStream.nullOutputStream(), false, fallback.charset());
+            this.fallback = fallback;
+            this.error = error;
+        }
+
+        private PrintStream target() {
+            InvocationContext context = CURRENT.get();
+            if (context == null) {
+                return fallback;
+            }
+            return error ? context.err : context.out;
+        }
+
+        @Override
+        public void write(int b) {
+            target().write(b);
+        }
+
+        @Override
+        public void write(byte[] buf, int off, int len) {
+            target().write(buf, off, len);
+        }
+
+        @Override
+        public void write(byte[] buf) throws IOException {
+            target().write(buf);
+        }
+
+        @Override
+        public void flush() {
+            target().flush();
+        }
+
+        @Override
+        public void close() {
+            target().flush();
+        }
+
+        @Override
+        public boolean checkError() {
+            return target().checkError();
+        }
+
+        @Override
+        public void print(boolean b) {
+            target().print(b);
+        }
+
+        @Override
+        public void print(char c) {
+            target().print(c);
+        }
+
+        @Override
+        public void print(int i) {
+            target().print(i);
+        }
+
+        @Override
+        public void print(long l) {
+            target().print(l);
+        }
+
+        @Override
+        public void print(float f) {
+            target().print(f);
+        }
+
+        @Override
+        public void print(double d) {
+            target().print(d);
+        }
+
+        @Override
+        public void print(char[] s) {
+            target().print(s);
+        }
+
+        @Override
+        public void print(String s) {
+            target().print(s);
+        }
+
+        @Override
+        public void print(Object obj) {
+            target().print(obj);
+        }
+
+        @Override
+        public void println() {
+            target().println();
+        }
+
+        @Override
+        public void println(boolean x) {
+            target().println(x);
+        }
+
+        @Override
+        public void println(char x) {
+            target().println(x);
+        }
+
+        @Override
+        public void println(int x) {
+            target().println(x);
+        }
+
+        @Override
+        public void println(long x) {
+            target().println(x);
+        }
+
+        @Override
+        public void println(float x) {
+            target().println(x);
+        }
+
+        @Override
+        public void println(double x) {
+            target().println(x);
+        }
+
+        @Override
+        public void println(char[] x) {
+            target().println(x);
+        }
+
+        @Override
+        public void println(String x) {
+            target().println(x);
+        }
+
+        @Override
+        public void println(Object x) {
+            target().println(x);
+        }
+
+        @Override
+        public PrintStream printf(String format, Object... args) {
+            target().printf(format, args);
+            return this;
+        }
+
+        @Override
+        public PrintStream printf(Locale l, String format, Object... args) {
+            target().printf(l, format, args);
+            return this;
+        }
+
+        @Override
+        public PrintStream format(String format, Object... args) {
+            target().format(format, args);
+            return this;
+        }
+
+        @Override
+        public PrintStream format(Locale l, String format, Object... args) {
+            target().format(l, format, args);
+            return this;
+        }
+
+        @Override
+        public PrintStream append(CharSequence csq) {
+            target().append(csq);
+            return this;
+        }
+
+        @Override
+        public PrintStream append(CharSequence csq, int start, int end) {
+            target().append(csq, start, end);
+            return this;
+        }
+
+        @Override
+        public PrintStream append(char c) {
+            target().append(c);
+            return this;
+        }
+    }
+
+    /**
+     * System.in replacement that reads from the current context's stdin.
+     */
+    private static final class ContextInputStream extends InputStream {
+        private final InputStream fallback;
+
+        ContextInputStream(InputStream fallback) {
+            this.fallback = fallback;
+        }
+
+        private InputStream target() {
+            InvocationContext context = CURRENT.get();
+            return context != null ? context.in : fallback;
+        }
+
+        @Override
+        public int read() throws IOException {
+            return target().read();
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            return target().read(b, off, len);
+        }
+
+        @Override
+        public long skip(long n) throws IOException {
+            return target().skip(n);
+        }
+
+        @Override
+        public int available() throws IOException {
+            return target().available();
+        }
+
+        @Override
+        public void close() throws IOException {
+            target().close();
+        }
+    }
+
+    /**
+     * System properties with a per-context overlay for getProperty/setProperty.
+     */
+    private static final class ContextProperties extends Properties {
+        private static final long serialVersionUID = 1L;
+
+        ContextProperties(Properties original) {
+            putAll(original);
+        }
+
+        @Override
+        public String getProperty(String key) {
+            InvocationContext context = CURRENT.get();
+            if (context != null) {
+                String value = context.properties.get(key);
+                if (value != null) {
+                    return value;
+                }
+            }
+            return super.getProperty(key);
+        }
+
+        @Override
+        public String getProperty(String key, String defaultValue) {
+            String value = getProperty(key);
+            return value != null ? value : defaultValue;
+        }
+
+        @Override
+        public Object setProperty(String key, String value) {
+            InvocationContext context = CURRENT.get();
+            if (context != null) {
+                String previous = getProperty(key);
+                context.properties.put(key, value);
+                return previous;
+            }
+            return super.setProperty(key, value);
+        }
+    }
+}
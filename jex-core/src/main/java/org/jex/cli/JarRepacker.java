@@ -0,0 +1,185 @@
+package org.jex.cli;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.jar.Attributes;
+import java.util.jar.JarFile;
+import java.util.jar.Manifest;
+import java.util.zip.CRC32;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * Rewrites a plugin JAR into a layout that is cheap to load.
+ *
+ * Class files are stored uncompressed, so PluginClassLoader copies them straight out of
+ * the mapped JAR instead of inflating them, and they are ordered by first use (from a
+ * training run, see PluginManager.trainPlugin) so the pages touched at startup are
+ * contiguous. Duplicate entries, signature files and the JarIndex are dropped: Jex never
+ * reads them, and signatures no longer match a rewritten JAR. Other resources are kept,
+ * compressed, after the classes.
+ */
+final class JarRepacker {
+
+    /**
+     * Class list file written next to an original JAR by a training run (one binary class name per line).
+     */
+    static final String PROFILE_SUFFIX = ".classes";
+
+    /**
+     * Counts of a repack, for reporting.
+     */
+    record Stats(int classes, int profiled, int dropped) {
+    }
+
+    // Prevent instantiation
+    private JarRepacker() {
+        throw new AssertionError("JarRepacker is a utility class and should not be instantiated");
+    }
+
+    /**
+     * Repack a JAR.
+     *
+     * @param source The JAR to read
+     * @param dest Where to write the repacked JAR (replaced if it exists)
+     * @param classOrder Binary class names in first-use order; classes not listed follow in JAR order
+     */
+    static Stats repack(Path source, Path dest, List<String> classOrder) throws IOException {
+        try (ZipFile zip = new ZipFile(source.toFile())) {
+            // First entry of each name wins, as for a class path lookup
+            Map<String, ZipEntry> entries = new LinkedHashMap<>();
+            int dropped = 0;
+            Enumeration<? extends ZipEntry> all = zip.entries();
+            while (all.hasMoreElements()) {
+                ZipEntry entry = all.nextElement();
+                if (isDropped(entry.getName()) || entries.putIfAbsent(entry.getName(), entry) != null) {
+                    dropped++;
+                }
+            }
+
+            Set<String> ordered = new LinkedHashSet<>();
+            int profiled = 0;
+            for (String className : classOrder) {
+                String name = className.replace('.', '/') + ".class";
+                if (entries.containsKey(name) && ordered.add(name)) {
+                    profiled++;
+                }
+            }
+            int classes = profiled;
+            List<String> resources = new ArrayList<>();
+            for (String name : entries.keySet()) {
+                if (name.equals(JarFile.MANIFEST_NAME) || ordered.contains(name)) {
+                    continue;
+                }
+                if (isClass(name)) {
+                    ordered.add(name);
+                    classes++;
+                } else {
+                    resources.add(name);
+                }
+            }
+            ordered.addAll(resources);
+
+            try (ZipOutputStream out = new ZipOutputStream(Files.newOutputStream(dest))) {
+                // The manifest goes first, where JarInputStream expects it
+                ZipEntry manifestEntry = entries.get(JarFile.MANIFEST_NAME);
+                if (manifestEntry != null) {
+                    try (InputStream in = zip.getInputStream(manifestEntry)) {
+                        write(out, JarFile.MANIFEST_NAME, stripDigests(in), false);
+                    }
+                }
+                for (String name : ordered) {
+                    ZipEntry entry = entries.get(name);
+                    try (InputStream in = zip.getInputStream(entry)) {
+                        write(out, name, in.readAllBytes(), isClass(name));
+                    }
+                }
+            }
+            return new Stats(classes, profiled, dropped);
+        }
+    }
+
+    /**
+     * Read a class order profile.
+     *
+     * @return The class names, or an empty list if there is no profile
+     */
+    static List<String> readProfile(Path profile) throws IOException {
+        if (!Files.exists(profile)) {
+            return Collections.emptyList();
+        }
+        List<String> names = new ArrayList<>();
+        for (String line : Files.readAllLines(profile, StandardCharsets.UTF_8)) {
+            if (!line.isBlank()) {
+                names.add(line.trim());
+            }
+        }
+        return names;
+    }
+
+    static void writeProfile(Path profile, List<String> classNames) throws IOException {
+        Files.write(profile, classNames, StandardCharsets.UTF_8);
+    }
+
+    // PRIVATE HELPERS
+
+    private static boolean isClass(String name) {
+        return name.endsWith(".class");
+    }
+
+    // Signature files (META-INF/*.SF, .RSA, .DSA, .EC, SIG-*) and the JarIndex
+    private static boolean isDropped(String name) {
+        String upper = name.toUpperCase(Locale.ROOT);
+        if (!upper.startsWith("META-INF/") || upper.indexOf('/', "META-INF/".length()) >= 0) {
+            return false;
+        }
+        return upper.equals("META-INF/INDEX.LIST") || upper.startsWith("META-INF/SIG-")
+                || upper.endsWith(".SF") || upper.endsWith(".RSA") || upper.endsWith(".DSA") || upper.endsWith(".EC");
+    }
+
+    // Per-entry digests of a signed JAR are stale once the JAR is rewritten
+    private static byte[] stripDigests(InputStream in) throws IOException {
+        Manifest manifest = new Manifest(in);
+        Iterator<Map.Entry<String, Attributes>> sections = manifest.getEntries().entrySet().iterator();
+        while (sections.hasNext()) {
+            Attributes attributes = sections.next().getValue();
+            attributes.keySet().removeIf(key -> key.toString().toUpperCase(Locale.ROOT).endsWith("-DIGEST"));
+            if (attributes.isEmpty()) {
+                sections.remove();
+            }
+        }
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        manifest.write(bytes);
+        return bytes.toByteArray();
+    }
+
+    private static void write(ZipOutputStream out, String name, byte[] data, boolean stored) throws IOException {
+        ZipEntry entry = new ZipEntry(name);
+        if (stored) {
+            CRC32 crc = new CRC32();
+            crc.update(data);
+            entry.setMethod(ZipEntry.STORED);
+            entry.setSize(data.length);
+            entry.setCompressedSize(data.length);
+            entry.setCrc(crc.getValue());
+        }
+        out.putNextEntry(entry);
+        out.write(data);
+        out.closeEntry();
+    }
+}
@@ -0,0 +1,499 @@
+package org.jex.cli;
+
+import java.io.PrintStream;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.HashMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.Enumeration;
+import java.net.URL;
+import java.net.URLDecoder;
+import java.util.jar.JarFile;
+import java.util.jar.JarEntry;
+import java.nio.file.Paths;
+
+/**
+ * Jex - JexPlugin-based CLI Framework
+ */
+public class Jex
+{
+    // Internal plugin index and instances, kept for the life of the JVM (reused by resident modes)
+    private static volatile Map<String, String> internalIndex;
+    private static final Map<String, JexPlugin> INTERNAL_PLUGINS = new ConcurrentHashMap<>();
+
+    /**
+     * Jex's own flags, offered by shell completion (see CompletionIndex). Keep in step with printJexHelp.
+     */
+    static final List<String> BUILTIN_FLAGS = List.of(
+            "--install", "-l", "--list", "-h", "--help", "-v", "--version", "--optimize", "--refresh-cache", "--shell", "--each",
+            "--daemon", "--daemon-stop", "--install-plugin", "--update-plugin", "--uninstall-plugin",
+            "--sync-plugins", "--train-plugin", "--rollback-plugin");
+
+    private static void println(String msg) {
+        System.out.println(msg);
+    }
+
+    public static void printJexHelp() {
+        printJexHelp(System.out);
+    }
+
+    static void printJexHelp(PrintStream out) {
+        out.println("Jex - JexPlugin-based CLI Framework");
+        out.println("\nUsage:");
+        out.println("  jex [options]           - Run Jex built-in commands");
+        out.println("  jex <plugin> [args...]  - Run a plugin");
+        out.println("\nBuilt-in Commands:");
+        out.println("     --install                          Install Jex (create directories, install JAR, wrapper scripts)");
+        out.println("  -l,--list                             List all installed plugins");
+        out.println("  -h,--help                             Display help information");
+        out.println("  -v,--version                          Display version");
+        out.println("     --optimize                         Build a class data sharing archive for faster startup");
+        out.println("     --refresh-cache                    Rebuild help pages, completion and JVM launch profiles");
+        out.println("     --shell [-e] [script]              Run one command per line in a single JVM");
+        out.println("     --each <file|-> [--parallel N] [--unordered] <plugin> [args with {}...]");
+        out.println("                                        Run a plugin once per input line, in parallel");
+        out.println("     --daemon                           Run a resident Jex daemon (Unix domain socket)");
+        out.println("     --daemon-stop                      Stop the resident Jex daemon");
+        out.println("\nPlugin Management:");
+        out.println("     --install-plugin <name> --jar <file> [--repack]  Install a plugin");
+        out.println("     --update-plugin <name> --jar <file> [--repack]   Update an existing plugin");
+        out.println("     --uninstall-plugin <name>               Uninstall a plugin");
+        out.println("     --sync-plugins <dir> [--prune] [--repack]");
+        out.println("                                             Install or update every plugin JAR in a directory");
+        out.println("     --train-plugin <name> [args...]         Run a plugin and repack its JAR in class first-use order");
+        out.println("     --rollback-plugin <name>                Restore the original JAR of a repacked plugin");
+
+        out.println("\nExamples:");
+        out.println("  jex --install                                  Install Jex");
+        out.println("  jex --list                                     List installed plugins");
+        out.println("  jex --optimize                                 Rebuild the startup archive");
+        out.println("  jex --each hosts.txt --parallel 100 ping-test --host {}");
+        out.println("  jex --shell commands.txt                       Run a script of commands in one JVM");
+        out.println("  jex new-plugin my-tool                         Create a new plugin project");
+        out.println("  jex new-plugin my-tool --package com.example   With custom package");
+        out.println("  jex --install-plugin my-tool --jar target/my-tool-plugin.jar");
+        out.println("  jex --update-plugin my-tool --jar target/my-tool-plugin.jar");
+        out.println("  jex --uninstall-plugin my-tool");
+        out.println("  jex --sync-plugins /opt/plugins --prune");
+        out.println("  jex --train-plugin my-tool --input sample.txt");
+        out.println("  jex <plugin-name> --help                       Show plugin help");
+    }
+
+    public static void main(String[] args) {
+        StartupTrace.Span span = StartupTrace.begin(StartupTrace.Phase.DISPATCH, args.length > 0 ? args[0] : null);
+        int exitCode = run(args);
+        StartupTrace.end(span);
+        StartupTrace.report();
+        if (exitCode != 0) {
+            System.exit(exitCode);
+        }
+    }
+
+    /**
+     * Dispatch one Jex command line: built-in commands first, then internal and external plugins.
+     * Used by main and by the resident modes, which must not exit the JVM.
+     *
+     * @return Exit code (0 on success)
+     */
+    static int run(String[] args) {
+        // Check for --install, -h, --help FIRST (before loading arguments.yaml which may not exist yet)
+        if (args.length > 0) {
+            String firstArg = args[0];
+
+            if (firstArg.equals("--install")) {
+                Install.run();
+                return 0;
+            }
+
+            if (firstArg.equals("-h") || firstArg.equals("--help")) {
+                printJexHelp();
+                return 0;
+            }
+
+            if (firstArg.equals("-l") || firstArg.equals("--list")) {
+                listPlugins();
+                return 0;
+            }
+
+            if (firstArg.equals("-v") || firstArg.equals("--version")) {
+                System.out.println(JexMavenUtil.getVersion());
+                return 0;
+            }
+
+            if (firstArg.equals("--optimize")) {
+                return AppCds.optimize() ? 0 : 1;
+            }
+
+            if (firstArg.equals("--refresh-cache")) {
+                // Also run by jex.sh when plugin.yaml was edited by hand, to pick up jvm profiles
+                try (RegistryLock lock = RegistryLock.acquire(Paths.get(PathConfig.getConfigDirectory()))) {
+                    HelpCache.refresh(null);
+                } catch (Exception e) {
+                    System.err.println("Error: " + e.getMessage());
+                    return 1;
+                }
+                return 0;
+            }
+
+            if (firstArg.equals("--shell")) {
+                return JexShell.run(Arrays.copyOfRange(args, 1, args.length));
+            }
+
+            if (firstArg.equals("--each")) {
+                return FanOut.run(Arrays.copyOfRange(args, 1, args.length));
+            }
+
+            if (firstArg.equals("--daemon")) {
+                return JexDaemon.serve();
+            }
+
+            if (firstArg.equals("--daemon-stop")) {
+                return JexDaemon.stop();
+            }
+
+            if (firstArg.equals(AppCds.TRAIN_COMMAND)) {
+                AppCds.train();
+                return 0;
+            }
+
+            if (firstArg.equals(WorkerPool.WORKER_COMMAND)) {
+                return WorkerPool.serve(Arrays.copyOfRange(args, 1, args.length));
+            }
+
+            // Plugin management commands
+            if (firstArg.equals("--install-plugin")) {
+                if (args.length < 3 || !args[2].equals("--jar")
+                        || args.length > 5 || (args.length == 5 && !args[4].equals("--repack"))) {
+                    System.err.println("Error: Usage: jex --install-plugin <name> --jar <jar-file> [--repack]");
+                    return 1;
+                }
+                String name = args.length > 1 ? args[1] : null;
+                String jarPath = args.length > 3 ? args[3] : null;
+
+                if (name == null || jarPath == null) {
+                    System.err.println("Error: Both plugin name and JAR file are required");
+                    return 1;
+                }
+
+                try {
+                    PluginManager manager = new PluginManager();
+                    manager.installPlugin(name, jarPath, args.length == 5);
+                } catch (Exception e) {
+                    System.err.println("Error: " + e.getMessage());
+                    return 1;
+                }
+                return 0;
+            }
+
+            if (firstArg.equals("--update-plugin")) {
+                if (args.length < 3 || !args[2].equals("--jar")
+                        || args.length > 5 || (args.length == 5 && !args[4].equals("--repack"))) {
+                    System.err.println("Error: Usage: jex --update-plugin <name> --jar <jar-file> [--repack]");
+                    return 1;
+                }
+                String name = args.length > 1 ? args[1] : null;
+                String jarPath = args.length > 3 ? args[3] : null;
+
+                if (name == null || jarPath == null) {
+                    System.err.println("Error: Both plugin name and JAR file are required");
+                    return 1;
+                }
+
+                try {
+                    PluginManager manager = new PluginManager();
+                    manager.updatePlugin(name, jarPath, args.length == 5);
+                } catch (Exception e) {
+                    System.err.println("Error: " + e.getMessage());
+                    return 1;
+                }
+                return 0;
+            }
+
+            if (firstArg.equals("--sync-plugins")) {
+                List<String> flags = Arrays.asList(args).subList(Math.min(2, args.length), args.length);
+                boolean prune = flags.contains("--prune");
+                boolean repack = flags.contains("--repack");
+                if (args.length < 2 || flags.size() != (prune ? 1 : 0) + (repack ? 1 : 0)) {
+                    System.err.println("Error: Usage: jex --sync-plugins <dir> [--prune] [--repack]");
+                    return 1;
+                }
+
+                try {
+                    PluginManager manager = new PluginManager();
+                    return manager.syncPlugins(Paths.get(args[1]), prune, repack) ? 0 : 1;
+                } catch (Exception e) {
+                    System.err.println("Error: " + e.getMessage());
+                    return 1;
+                }
+            }
+
+            if (firstArg.equals(PluginManager.TRAIN_COMMAND)) {
+                if (args.length < 2) {
+                    System.err.println("Error: Usage: jex --train-plugin <name> [args...]");
+                    return 1;
+                }
+
+                try {
+                    PluginManager manager = new PluginManager();
+                    return manager.trainPlugin(args[1], Arrays.copyOfRange(args, 2, args.length));
+                } catch (Exception e) {
+                    System.err.println("Error: " + e.getMessage());
+                    return 1;
+                }
+            }
+
+            if (firstArg.equals("--rollback-plugin")) {
+                if (args.length < 2) {
+                    System.err.println("Error: Usage: jex --rollback-plugin <name>");
+                    return 1;
+                }
+
+                try {
+                    PluginManager manager = new PluginManager();
+                    manager.rollbackPlugin(args[1]);
+                } catch (Exception e) {
+                    System.err.println("Error: " + e.getMessage());
+                    return 1;
+                }
+                return 0;
+            }
+
+            if (firstArg.equals("--uninstall-plugin")) {
+                if (args.length < 2) {
+                    System.err.println("Error: Usage: jex --uninstall-plugin <name>");
+                    return 1;
+                }
+                String name = args[1];
+
+                try {
+                    PluginManager manager = new PluginManager();
+                    manager.uninstallPlugin(name);
+                } catch (Exception e) {
+                    System.err.println("Error: " + e.getMessage());
+                    return 1;
+                }
+                return 0;
+            }
+
+        }
+
+        //String argumentsYamlPath = PathConfig.getArgumentsYamlPath();
+
+        // Load Jex's options from arguments.yaml
+        //Options jexOptions = ArgumentParser.loadOptionsFromYaml(argumentsYamlPath);
+
+        // Parse command line arguments
+        //CommandLineParser parser = new DefaultParser();
+        //CommandLine cmd = null;
+        /**
+        try {
+            // Try to parse as Jex arguments (only if args start with -)
+            if (args.length > 0 && args[0].startsWith("-")) {
+                cmd = parser.parse(jexOptions, args, false);
+            }
+        } catch (ParseException e) {
+            // If parsing fails, it might be a plugin command
+            cmd = null;
+        }
+         **/
+
+
+        // If no Jex options matched, try to execute as a plugin
+        if (args.length > 0) {
+            String pluginName = args[0];
+
+            // Check internal plugins first
+            StartupTrace.Span span = StartupTrace.begin(StartupTrace.Phase.INTERNAL_DISCOVERY, pluginName);
+            JexPlugin internalPlugin = findInternalPlugin(pluginName);
+            StartupTrace.end(span);
+            if (internalPlugin != null) {
+                // Pass remaining arguments to the plugin (skip the plugin name)
+                String[] pluginArgs = new String[args.length - 1];
+                System.arraycopy(args, 1, pluginArgs, 0, args.length - 1);
+
+                // Execute the plugin
+                return runTraced(pluginName, internalPlugin, pluginArgs);
+            }
+
+            // Look up the external plugin in the registry
+            PluginLoader loader = new PluginLoader();
+            span = StartupTrace.begin(StartupTrace.Phase.REGISTRY, pluginName);
+            Map<String, Object> pluginConfig = loader.findPluginConfig(pluginName);
+            StartupTrace.end(span);
+
+            if (pluginConfig != null) {
+                // Load and execute the plugin
+                JexPlugin plugin = loader.loadPlugin(pluginName, pluginConfig);
+
+                if (plugin != null) {
+                    // Pass remaining arguments to the plugin (skip the plugin name)
+                    String[] pluginArgs = new String[args.length - 1];
+                    System.arraycopy(args, 1, pluginArgs, 0, args.length - 1);
+
+                    // Execute the plugin
+                    return runTraced(pluginName, plugin, pluginArgs);
+                } else {
+                    System.err.println("Error: Failed to load plugin: " + pluginName);
+                    return 1;
+                }
+            } else {
+                System.err.println("Error: Unknown command or plugin: " + pluginName);
+                System.out.println("\nUse 'jex --help' for usage information.");
+                displayAvailablePlugins(loader.loadRegistry());
+                return 1;
+            }
+        } else {
+            // No arguments provided
+            printJexHelp();
+        }
+        return 0;
+    }
+
+    private static int runTraced(String pluginName, JexPlugin plugin, String[] pluginArgs) {
+        StartupTrace.Span span = StartupTrace.begin(StartupTrace.Phase.PLUGIN_RUN, pluginName);
+        try {
+            return PluginRunner.run(plugin, pluginArgs);
+        } finally {
+            StartupTrace.end(span);
+        }
+    }
+
+    private static void listPlugins() {
+        PluginLoader loader = new PluginLoader();
+        Map<String, Map<String, Object>> plugins = loader.loadRegistry();
+
+        displayAvailablePlugins(plugins);
+    }
+
+    private static void displayAvailablePlugins(Map<String, Map<String, Object>> plugins) {
+        displayAvailablePlugins(plugins, System.out);
+    }
+
+    static void displayAvailablePlugins(Map<String, Map<String, Object>> plugins, PrintStream out) {
+        if (plugins == null || plugins.isEmpty()) {
+            out.println("\nNo plugins installed.");
+            out.println("Install plugins by:");
+            out.println("1. Copying plugin JAR files to: " + PathConfig.getPluginsDirectory());
+            out.println("2. Registering them in: " + PathConfig.getPluginYamlPath());
+            return;
+        }
+
+        out.println("\nInstalled Plugins:");
+        for (Map.Entry<String, Map<String, Object>> entry : plugins.entrySet()) {
+            String name = entry.getKey();
+            Map<String, Object> config = entry.getValue();
+            String description = (String) config.get("description");
+            String version = (String) config.get("version");
+
+            if (description != null && version != null) {
+                out.println("  " + name + " (v" + version + ") - " + description);
+            } else if (description != null) {
+                out.println("  " + name + " - " + description);
+            } else {
+                out.println("  " + name);
+            }
+        }
+        out.println("\nUse 'jex <plugin-name> --help' to see plugin-specific options.");
+    }
+
+    /**
+     * Find a single internal plugin by name.
+     * Uses the build-time index (see InternalPluginIndex) so only the requested class is loaded.
+     * Falls back to scanning the JAR when no index is present (e.g. running from an IDE).
+     */
+    static JexPlugin findInternalPlugin(String name) {
+        JexPlugin cached = INTERNAL_PLUGINS.get(name);
+        if (cached != null) {
+            return cached;
+        }
+
+        ClassLoader classLoader = Jex.class.getClassLoader();
+        Map<String, String> index = internalIndex;
+
+        if (index == null) {
+            try {
+                index = InternalPluginIndex.load(classLoader);
+            } catch (Exception e) {
+                System.err.println("Warning: Error reading internal plugin index: " + e.getMessage());
+                index = null;
+            }
+            if (index == null) {
+                return discoverInternalPlugins().get(name);
+            }
+            internalIndex = index;
+        }
+
+        String className = index.get(name);
+        if (className == null) {
+            return null;
+        }
+
+        try {
+            Class<?> clazz = Class.forName(className, true, classLoader);
+            JexPlugin plugin = (JexPlugin) clazz.getDeclaredConstructor().newInstance();
+            INTERNAL_PLUGINS.putIfAbsent(name, plugin);
+            return INTERNAL_PLUGINS.get(name);
+        } catch (Exception e) {
+            System.err.println("Warning: Error loading internal plugin '" + name + "': " + e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Discover all internal plugins in the org.jex.plugins package.
+     * Automatically scans for classes implementing JexPlugin interface.
+     * Slow path used only when the build-time index is missing.
+     */
+    static Map<String, JexPlugin> discoverInternalPlugins() {
+        Map<String, JexPlugin> plugins = new HashMap<>();
+
+        try {
+            String packageName = "org.jex.plugins";
+            ClassLoader classLoader = Jex.class.getClassLoader();
+            String path = packageName.replace('.', '/');
+
+            // Find all resources in org/jex/plugins package
+            Enumeration<URL> resources = classLoader.getResources(path);
+
+            while (resources.hasMoreElements()) {
+                URL resource = resources.nextElement();
+
+                if (resource.getProtocol().equals("jar")) {
+                    // Extract classes from JAR
+                    String jarPath = resource.getPath().substring(5, resource.getPath().indexOf("!"));
+                    JarFile jar = new JarFile(URLDecoder.decode(jarPath, "UTF-8"));
+
+                    Enumeration<JarEntry> entries = jar.entries();
+                    while (entries.hasMoreElements()) {
+                        JarEntry entry = entries.nextElement();
+                        String name = entry.getName();
+
+                        // Check if it's in org/jex/plugins/ and is a .class file
+                        if (name.startsWith("org/jex/plugins/") && name.endsWith(".class")) {
+                            // Convert to class name
+                            String className = name.replace('/', '.').substring(0, name.length() - 6);
+
+                            try {
+                                Class<?> clazz = Class.forName(className);
+
+                                // Check if it implements JexPlugin interface and is not an interface itself
+                                if (JexPlugin.class.isAssignableFrom(clazz) && !clazz.isInterface()) {
+                                    JexPlugin plugin = (JexPlugin) clazz.getDeclaredConstructor().newInstance();
+                                    plugins.put(plugin.getName(), plugin);
+                                }
+                            } catch (Exception e) {
+                                // Skip classes that can't be loaded or instantiated
+                            }
+                        }
+                    }
+                    jar.close();
+                }
+            }
+        } catch (Exception e) {
+            System.err.println("Warning: Error discovering internal plugins: " + e.getMessage());
+        }
+
+        return plugins;
+    }
+}
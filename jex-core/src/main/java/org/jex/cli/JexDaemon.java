@@ -0,0 +1,378 @@
+package org.jex.cli;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.net.StandardProtocolFamily;
+import java.net.UnixDomainSocketAddress;
+import java.nio.channels.Channels;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Resident Jex daemon: one warm JVM listening on a Unix domain socket (jex.sock in the
+ * config directory). The jex.sh wrapper forwards each command to it and falls back to a
+ * normal launch when no daemon is running. Plugins that declare "isolation: process" get
+ * worker JVMs, started with the daemon (see WorkerPool).
+ *
+ * Request (NUL-terminated UTF-8 fields, easy to produce with printf '%s\0'):
+ * <pre>
+ *   JEX-DAEMON-1 \0 run|stop \0 cwd \0 stdin-path \0 stdout-path \0 stderr-path \0
+ *   argc \0 arg... \0 NAME=VALUE... \0 \0
+ * </pre>
+ * The stdio paths are FIFOs created by the wrapper (stdin-path may be empty).
+ * Reply lines: "ack" once the command starts, then "exit N"; or "fallback reason" when the
+ * daemon can't run the command faithfully and the wrapper must launch a JVM instead.
+ */
+public class JexDaemon {
+
+    static final String PROTOCOL = "JEX-DAEMON-1";
+
+    // Environment variables that legitimately differ between the daemon and its clients
+    private static final Set<String> VOLATILE_ENV = Set.of("_", "PWD", "OLDPWD", "SHLVL");
+
+    private final Path socketPath;
+    private final String workingDirectory;
+    private final Map<String, String> environment;
+
+    private volatile boolean running = true;
+
+    JexDaemon(Path socketPath) {
+        this.socketPath = socketPath;
+        this.workingDirectory = Paths.get("").toAbsolutePath().toString();
+        this.environment = withoutVolatile(System.getenv());
+    }
+
+    /**
+     * Run the daemon in the foreground until stopped.
+     *
+     * @return Exit code
+     */
+    public static int serve() {
+        Path socketPath = Paths.get(PathConfig.getDaemonSocketPath());
+        if (isRunning(socketPath)) {
+            System.err.println("Error: A Jex daemon is already listening on " + socketPath);
+            return 1;
+        }
+
+        try {
+            Files.deleteIfExists(socketPath);
+            Files.createDirectories(socketPath.getParent());
+            new JexDaemon(socketPath).listen();
+            return 0;
+        } catch (IOException e) {
+            System.err.println("Error: Jex daemon failed: " + e.getMessage());
+            return 1;
+        }
+    }
+
+    /**
+     * Ask a running daemon to shut down.
+     *
+     * @return Exit code
+     */
+    public static int stop() {
+        Path socketPath = Paths.get(PathConfig.getDaemonSocketPath());
+        try (SocketChannel channel = SocketChannel.open(UnixDomainSocketAddress.of(socketPath))) {
+            OutputStream out = Channels.newOutputStream(channel);
+            out.write((PROTOCOL + "\0stop\0").getBytes(StandardCharsets.UTF_8));
+            out.flush();
+            Channels.newInputStream(channel).readAllBytes();
+            System.out.println("✓ Stopped Jex daemon");
+            return 0;
+        } catch (IOException e) {
+            System.err.println("Error: No Jex daemon is running (" + socketPath + ")");
+            return 1;
+        }
+    }
+
+    private static boolean isRunning(Path socketPath) {
+        if (!Files.exists(socketPath)) {
+            return false;
+        }
+        try (SocketChannel ignored = SocketChannel.open(UnixDomainSocketAddress.of(socketPath))) {
+            return true;
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    private void listen() throws IOException {
+        try (ServerSocketChannel server = ServerSocketChannel.open(StandardProtocolFamily.UNIX)) {
+            bind(server);
+            Runtime.getRuntime().addShutdownHook(new Thread(this::deleteSocket));
+
+            InvocationContext.install();
+            WorkerPool.enable();
+            System.out.println("Jex daemon listening on " + socketPath);
+            System.out.println("Working directory: " + workingDirectory);
+            List<String> isolated = WorkerPool.prestart();
+            if (!isolated.isEmpty()) {
+                System.out.println("Starting worker JVMs for: " + String.join(", ", isolated));
+            }
+
+            while (running) {
+                SocketChannel channel;
+                try {
+                    channel = server.accept();
+                } catch (IOException e) {
+                    if (!running) {
+                        break;
+                    }
+                    throw e;
+                }
+                Thread.ofVirtual().name("jex-daemon-client").start(() -> handle(channel));
+            }
+        } finally {
+            deleteSocket();
+        }
+    }
+
+    /**
+     * Bind the socket so that no other user can ever connect: it is created in a directory only
+     * this user can enter, made owner-only there, and then moved to its path.
+     */
+    private void bind(ServerSocketChannel server) throws IOException {
+        if (PathConfig.isWindows()) {
+            server.bind(UnixDomainSocketAddress.of(socketPath));
+            return;
+        }
+
+        Path privateDir = Files.createTempDirectory(socketPath.getParent(), "jexd",
+                PosixFilePermissions.asFileAttribute(PosixFilePermissions.fromString("rwx------")));
+        Path privateSocket = privateDir.resolve(socketPath.getFileName());
+        try {
+            server.bind(UnixDomainSocketAddress.of(privateSocket));
+            Files.setPosixFilePermissions(privateSocket, PosixFilePermissions.fromString("rw-------"));
+            Files.move(privateSocket, socketPath, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(privateSocket);
+            Files.deleteIfExists(privateDir);
+        }
+    }
+
+    private void deleteSocket() {
+        try {
+            Files.deleteIfExists(socketPath);
+        } catch (IOException e) {
+            // Nothing more we can do
+        }
+    }
+
+    private void handle(SocketChannel channel) {
+        try (channel) {
+            InputStream in = new BufferedInputStream(Channels.newInputStream(channel));
+            OutputStream reply = Channels.newOutputStream(channel);
+
+            if (!PROTOCOL.equals(readField(in))) {
+                writeLine(reply, "fallback protocol");
+                return;
+            }
+
+            String kind = readField(in);
+            if ("stop".equals(kind)) {
+                writeLine(reply, "ack");
+                running = false;
+                System.out.println("Jex daemon stopping");
+                System.exit(0);
+            }
+            if (!"run".equals(kind)) {
+                writeLine(reply, "fallback protocol");
+                return;
+            }
+
+            Request request = readRequest(in);
+            String reason = checkRequest(request);
+            if (reason != null) {
+                System.out.println("Declined command (" + reason + "); client will launch a new JVM");
+                writeLine(reply, "fallback " + reason);
+                return;
+            }
+
+            writeLine(reply, "ack");
+            int exitCode = execute(request);
+            writeLine(reply, "exit " + exitCode);
+        } catch (IOException e) {
+            // Client went away; nothing to report
+        }
+    }
+
+    /**
+     * A forwarded command line.
+     */
+    private record Request(String cwd, String stdinPath, String stdoutPath, String stderrPath,
+                           String[] args, Map<String, String> env) {
+    }
+
+    private static Request readRequest(InputStream in) throws IOException {
+        String cwd = readField(in);
+        String stdinPath = readField(in);
+        String stdoutPath = readField(in);
+        String stderrPath = readField(in);
+
+        int argc;
+        try {
+            argc = Integer.parseInt(readField(in));
+        } catch (NumberFormatException e) {
+            throw new IOException("Malformed argument count");
+        }
+        String[] args = new String[argc];
+        for (int i = 0; i < argc; i++) {
+            args[i] = readField(in);
+        }
+
+        Map<String, String> env = new HashMap<>();
+        String field;
+        while (!(field = readField(in)).isEmpty()) {
+            int eq = field.indexOf('=');
+            if (eq > 0) {
+                env.put(field.substring(0, eq), field.substring(eq + 1));
+            }
+        }
+
+        return new Request(cwd, stdinPath, stdoutPath, stderrPath, args, env);
+    }
+
+    /**
+     * Decide whether the command can run here exactly as it would in a fresh JVM.
+     *
+     * @return null if it can, otherwise the fallback reason
+     */
+    private String checkRequest(Request request) {
+        if (request.args().length > 0 && request.args()[0].startsWith("--daemon")) {
+            return "daemon-command";
+        }
+        if (request.args().length > 0 && request.args()[0].equals(WorkerPool.WORKER_COMMAND)) {
+            return "worker-command";
+        }
+        // A training run loads the plugin anew and must not count classes this JVM already loaded
+        if (request.args().length > 0 && request.args()[0].equals(PluginManager.TRAIN_COMMAND)) {
+            return "training-run";
+        }
+        // The JVM's working directory is fixed at startup, so relative paths would resolve differently
+        if (!workingDirectory.equals(request.cwd())) {
+            return "cwd";
+        }
+        // System.getenv() can't be changed per command
+        Map<String, String> env = withoutVolatile(request.env());
+        if (!environment.equals(env)) {
+            Set<String> differing = new TreeSet<>(environment.keySet());
+            differing.addAll(env.keySet());
+            differing.removeIf(key -> Objects.equals(environment.get(key), env.get(key)));
+            return "env " + String.join(",", differing);
+        }
+        return null;
+    }
+
+    /**
+     * Run one command in its own InvocationContext, so concurrent clients each get their
+     * own stdio.
+     */
+    private int execute(Request request) {
+        try (PrintStream out = new PrintStream(new FileOutputStream(request.stdoutPath()), true, System.out.charset());
+             PrintStream err = new PrintStream(new FileOutputStream(request.stderrPath()), true, System.err.charset());
+             InputStream stdin = new FifoInputStream(request.stdinPath())) {
+
+            InvocationContext context = new InvocationContext(stdin, out, err, request.cwd());
+            return context.call(() -> {
+                try {
+                    return Jex.run(request.args());
+                } catch (Throwable t) {
+                    t.printStackTrace(err);
+                    return 1;
+                }
+            });
+        } catch (IOException e) {
+            System.err.println("Jex daemon: could not open client streams: " + e.getMessage());
+            return 1;
+        }
+    }
+
+    /**
+     * Comparable view of an environment: drops volatile variables and names the shell
+     * wrapper can't see (inherited entries that are not valid identifiers).
+     */
+    private static Map<String, String> withoutVolatile(Map<String, String> env) {
+        Map<String, String> copy = new HashMap<>(env);
+        copy.keySet().removeAll(VOLATILE_ENV);
+        copy.keySet().removeIf(key -> !key.matches("[A-Za-z_][A-Za-z0-9_]*"));
+        return copy;
+    }
+
+    private static String readField(InputStream in) throws IOException {
+        ByteArrayOutputStream field = new ByteArrayOutputStream();
+        int b;
+        while ((b = in.read()) != 0) {
+            if (b < 0) {
+                throw new EOFException("Truncated daemon request");
+            }
+            field.write(b);
+        }
+        return field.toString(StandardCharsets.UTF_8);
+    }
+
+    private static void writeLine(OutputStream out, String line) throws IOException {
+        out.write((line + "\n").getBytes(StandardCharsets.UTF_8));
+        out.flush();
+    }
+
+    /**
+     * Client stdin, opened lazily on first read so commands that never read stdin don't
+     * block on the wrapper's FIFO.
+     */
+    private static final class FifoInputStream extends InputStream {
+        private final String path;
+        private InputStream delegate;
+
+        FifoInputStream(String path) {
+            this.path = path;
+        }
+
+        private InputStream delegate() throws IOException {
+            if (delegate == null) {
+                delegate = path.isEmpty() ? InputStream.nullInputStream() : new FileInputStream(path);
+            }
+            return delegate;
+        }
+
+        @Override
+        public int read() throws IOException {
+            return delegate().read();
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            return delegate().read(b, off, len);
+        }
+
+        @Override
+        public int available() throws IOException {
+            return delegate == null ? 0 : delegate.available();
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (delegate != null) {
+                delegate.close();
+            }
+        }
+    }
+}
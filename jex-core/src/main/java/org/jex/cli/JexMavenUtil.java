@@ -1,15 +1,11 @@
 package org.jex.cli;
 
-import org.apache.maven.model.Model;
-import org.apache.maven.model.io.xpp3.MavenXpp3Reader;
-
 import java.io.InputStream;
 import java.util.Properties;
 
 /**
  * Maven utilities for Jex framework.
- * Provides helper methods for Maven operations including version detection,
- * artifact installation, and repository management.
+ * Provides the Jex version from the Maven metadata built into the JAR.
  */
 public class JexMavenUtil {
     private static String cachedVersion = null;
@@ -20,9 +16,8 @@ public class JexMavenUtil {
      *
      * Tries multiple detection strategies in order:
      * 1. Package implementation version (from MANIFEST.MF)
-     * 2. Maven pom.xml using maven-model API
-     * 3. Maven pom.properties
-     * 4. Hardcoded fallback
+     * 2. Maven pom.properties
+     * 3. Hardcoded fallback
      *
      * @return The Jex version string (e.g., "1.0.1")
      */
@@ -53,25 +48,9 @@ public class JexMavenUtil {
             // Continue to next strategy
         }
 
-        // Strategy 2: Read from pom.xml using maven-model API
-        try (InputStream is = JexMavenUtil.class.getResourceAsStream(
-                "/META-INF/maven/org.jex.cli/Jex/pom.xml")) {
-            if (is != null) {
-                MavenXpp3Reader reader = new MavenXpp3Reader();
-                Model model = reader.read(is);
-                String version = model.getVersion();
-                //System.out.println(version);
-                if (version != null && !version.isEmpty()) {
-                    return version;
-                }
-            }
-        } catch (Exception e) {
-            // Continue to next strategy
-        }
-
-        // Strategy 3: Fallback to pom.properties (manual parsing)
+        // Strategy 2: Fallback to pom.properties (manual parsing)
         try (InputStream is = JexMavenUtil.class.getResourceAsStream(
-                "/META-INF/maven/org.jex.cli/Jex/pom.properties")) {
+                "/META-INF/maven/org.jex.cli/jex-core/pom.properties")) {
             if (is != null) {
                 Properties props = new Properties();
                 props.load(is);
@@ -85,16 +64,14 @@ public class JexMavenUtil {
             // Continue to fallback
         }
 
-        // Strategy 4: This should never be reached if JAR is properly built
-        System.err.println("ERROR: Could not establish Jex version from MANIFEST.MF, pom.xml, or pom.properties");
+        // Strategy 3: This should never be reached if JAR is properly built
+        System.err.println("ERROR: Could not establish Jex version from MANIFEST.MF or pom.properties");
         System.err.println("       Build may have failed or JAR is corrupted");
         return "UNKNOWN";
     }
 
-    // TODO: Future Maven utility methods can be added here:
-    // - public static String getLocalRepoPath()
-    // - public static boolean installArtifact(String jarPath, String groupId, String artifactId, String version)
-    // - public static boolean artifactExists(String groupId, String artifactId, String version)
+    // Maven repository helpers for plugin development (local repo path, install-file)
+    // live in jex-devtools: org.jex.plugins.newplugin.MavenSupport
 
     // Private constructor - utility class should not be instantiated
     private JexMavenUtil() {
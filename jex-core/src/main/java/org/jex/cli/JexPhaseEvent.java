@@ -0,0 +1,30 @@
+package org.jex.cli;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+/**
+ * JFR event for one StartupTrace phase. Only loaded when tracing in "jfr" mode.
+ */
+@Name("org.jex.cli.Phase")
+@Label("Jex Phase")
+@Category("Jex")
+@Description("A phase of the Jex dispatch path (registry lookup, class loading, plugin run, ...)")
+@StackTrace(false)
+final class JexPhaseEvent extends Event {
+
+    @Label("Phase")
+    String phase;
+
+    @Label("Detail")
+    String detail;
+
+    @Label("Phase Duration")
+    @Timespan(Timespan.NANOSECONDS)
+    long phaseNanos;
+}
@@ -0,0 +1,43 @@
+package org.jex.cli;
+
+/**
+ * Extended plugin contract with an exit code and lifecycle hooks.
+ *
+ * Jex calls init() once per process before the first run, run() for every invocation
+ * (possibly many times, and concurrently in --each and daemon mode), and close() when
+ * the JVM shuts down or the plugin is reloaded. Plugins report failure by returning a
+ * non-zero exit code instead of calling System.exit.
+ */
+public interface JexPluginV2 extends JexPlugin {
+
+    /**
+     * One-time setup (connections, caches, parsed configuration).
+     */
+    default void init() throws Exception {
+    }
+
+    /**
+     * Run one invocation.
+     *
+     * @param args Arguments following the plugin name
+     * @return Exit code (0 for success)
+     */
+    int run(String[] args);
+
+    /**
+     * Release whatever init() acquired.
+     */
+    default void close() {
+    }
+
+    /**
+     * Legacy entry point for hosts that only know JexPlugin.
+     */
+    @Override
+    default void execute(String[] args) {
+        int exitCode = run(args);
+        if (exitCode != 0) {
+            throw new PluginExit(exitCode);
+        }
+    }
+}
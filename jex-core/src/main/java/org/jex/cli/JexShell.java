@@ -0,0 +1,205 @@
+package org.jex.cli;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Session mode: `jex --shell [-e|--stop-on-error] [script]` runs one Jex command per line
+ * in a single warm JVM, so the registry, plugin class loaders and JIT-compiled code are
+ * shared by every command of a script or an interactive session. Plugins that declare
+ * "isolation: process" run in worker JVMs instead (see WorkerPool).
+ *
+ * Lines are split like a shell would split them: whitespace separates arguments, single
+ * and double quotes group them, backslash escapes the next character and # starts a
+ * comment. "exit" or "quit" ends the session.
+ */
+public class JexShell {
+
+    private static final String PROMPT = "jex> ";
+
+    private final boolean stopOnError;
+    private final boolean interactive;
+
+    JexShell(boolean stopOnError, boolean interactive) {
+        this.stopOnError = stopOnError;
+        this.interactive = interactive;
+    }
+
+    /**
+     * Run a session from the arguments following --shell.
+     *
+     * @return Exit code of the last failing command, or 0
+     */
+    public static int run(String[] args) {
+        boolean stopOnError = false;
+        String script = null;
+
+        for (String arg : args) {
+            if (arg.equals("-e") || arg.equals("--stop-on-error")) {
+                stopOnError = true;
+            } else if (script == null && !arg.startsWith("-")) {
+                script = arg;
+            } else {
+                System.err.println("Error: Usage: jex --shell [-e|--stop-on-error] [script-file]");
+                return 1;
+            }
+        }
+
+        WorkerPool.enable();
+        if (script != null) {
+            try (BufferedReader reader = Files.newBufferedReader(Paths.get(script))) {
+                return new JexShell(stopOnError, false).session(reader);
+            } catch (IOException e) {
+                System.err.println("Error: Could not read script " + script + ": " + e.getMessage());
+                return 1;
+            }
+        }
+
+        // Commands come from stdin, so plugins must not read it
+        InputStream stdin = System.in;
+        System.setIn(InputStream.nullInputStream());
+        try {
+            BufferedReader reader = new BufferedReader(new InputStreamReader(stdin, StandardCharsets.UTF_8));
+            return new JexShell(stopOnError, System.console() != null).session(reader);
+        } catch (IOException e) {
+            System.err.println("Error: Could not read commands: " + e.getMessage());
+            return 1;
+        } finally {
+            System.setIn(stdin);
+        }
+    }
+
+    private int session(BufferedReader reader) throws IOException {
+        int exitCode = 0;
+        int lineNumber = 0;
+        String line;
+
+        while (true) {
+            if (interactive) {
+                System.out.print(PROMPT);
+                System.out.flush();
+            }
+            if ((line = reader.readLine()) == null) {
+                break;
+            }
+            lineNumber++;
+
+            List<String> words;
+            try {
+                words = tokenize(line);
+            } catch (IllegalArgumentException e) {
+                System.err.println("Error: line " + lineNumber + ": " + e.getMessage());
+                exitCode = 1;
+                if (stopOnError) {
+                    break;
+                }
+                continue;
+            }
+            if (words.isEmpty()) {
+                continue;
+            }
+            if (words.size() == 1 && (words.get(0).equals("exit") || words.get(0).equals("quit"))) {
+                break;
+            }
+
+            int status = execute(words.toArray(new String[0]));
+            System.out.flush();
+            if (status != 0) {
+                System.err.println("[exit " + status + "] " + line.trim());
+                exitCode = status;
+                if (stopOnError) {
+                    break;
+                }
+            }
+        }
+
+        if (interactive && line == null) {
+            System.out.println();
+        }
+        return exitCode;
+    }
+
+    private static int execute(String[] args) {
+        String command = args[0];
+        if (command.equals("--shell") || command.startsWith("--daemon") || command.equals(WorkerPool.WORKER_COMMAND)
+                || command.equals(PluginManager.TRAIN_COMMAND)) {
+            System.err.println("Error: " + command + " can't be used inside a Jex shell session");
+            return 1;
+        }
+
+        try {
+            return Jex.run(args);
+        } catch (Throwable t) {
+            // One broken command must not end the session
+            System.err.println("Error: " + t);
+            return 1;
+        }
+    }
+
+    /**
+     * Split a command line into arguments.
+     *
+     * @throws IllegalArgumentException on an unterminated quote or trailing backslash
+     */
+    static List<String> tokenize(String line) {
+        List<String> words = new ArrayList<>();
+        StringBuilder word = new StringBuilder();
+        boolean inWord = false;
+        char quote = 0;
+
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+
+            if (quote == '\'') {
+                if (c == '\'') {
+                    quote = 0;
+                } else {
+                    word.append(c);
+                }
+            } else if (quote == '"') {
+                if (c == '"') {
+                    quote = 0;
+                } else if (c == '\\' && i + 1 < line.length() && "\"\\$`".indexOf(line.charAt(i + 1)) >= 0) {
+                    word.append(line.charAt(++i));
+                } else {
+                    word.append(c);
+                }
+            } else if (c == '\'' || c == '"') {
+                quote = c;
+                inWord = true;
+            } else if (c == '\\') {
+                if (i + 1 >= line.length()) {
+                    throw new IllegalArgumentException("trailing backslash");
+                }
+                word.append(line.charAt(++i));
+                inWord = true;
+            } else if (Character.isWhitespace(c)) {
+                if (inWord) {
+                    words.add(word.toString());
+                    word.setLength(0);
+                    inWord = false;
+                }
+            } else if (c == '#' && !inWord) {
+                break;
+            } else {
+                word.append(c);
+                inWord = true;
+            }
+        }
+
+        if (quote != 0) {
+            throw new IllegalArgumentException("unterminated " + quote + " quote");
+        }
+        if (inWord) {
+            words.add(word.toString());
+        }
+        return words;
+    }
+}
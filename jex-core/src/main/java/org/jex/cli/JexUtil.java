@@ -0,0 +1,51 @@
+package org.jex.cli;
+
+import java.io.IOException;
+import java.net.URLClassLoader;
+import java.nio.file.Path;
+import java.util.List;
+
+/**
+ * Utility methods for Jex operations.
+ */
+public class JexUtil {
+
+    /**
+     * Scan a JAR file and find the first class that implements JexPlugin.
+     * The JAR is scanned without loading classes (see PluginClassScanner); only the class
+     * found is loaded and instantiated. Its class loader stays open for the plugin's use.
+     *
+     * @param jarPath Path to the JAR file
+     * @return Instance of the plugin, or null if none found
+     */
+    public static JexPlugin findPluginInJar(Path jarPath) throws Exception {
+        List<String> candidates = PluginClassScanner.findPluginClasses(jarPath);
+        if (candidates.isEmpty()) {
+            return null;
+        }
+
+        URLClassLoader classLoader = new PluginClassLoader(jarPath, JexUtil.class.getClassLoader());
+        for (String className : candidates) {
+            try {
+                Class<?> clazz = classLoader.loadClass(className);
+                return (JexPlugin) clazz.getDeclaredConstructor().newInstance();
+            } catch (ReflectiveOperationException | RuntimeException | LinkageError | PluginExit e) {
+                // Not instantiable (no public no-arg constructor, failing initializer, ...): try the next one
+            }
+        }
+
+        classLoader.close();
+        return null;
+    }
+
+    /**
+     * Scan a JAR file for the first class that implements JexPlugin, without loading any class.
+     *
+     * @param jarPath Path to the JAR file
+     * @return Binary name of the plugin class, or null if none found
+     */
+    public static String findPluginClassInJar(Path jarPath) throws IOException {
+        List<String> candidates = PluginClassScanner.findPluginClasses(jarPath);
+        return candidates.isEmpty() ? null : candidates.get(0);
+    }
+}
@@ -0,0 +1,121 @@
+package org.jex.cli;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+/**
+ * JVM launch profile of a plugin, declared under "jvm" in its plugin.yaml entry (or shard):
+ *
+ * <pre>
+ * my-probe:
+ *   jar: my-probe.jar
+ *   class: com.example.Probe
+ *   jvm:
+ *     heap: 64m              # -Xmx64m (needs a unit; at least 2m)
+ *     gc: serial             # serial, parallel, g1, z or shenandoah
+ *     tier: 1                # -XX:TieredStopAtLevel=1 (C1 only); 4 is full C2
+ *     flags: -Xss512k -Xshare:auto   # any other JVM flags, as a string or a list
+ * </pre>
+ *
+ * The wrapper can't read YAML, so HelpCache resolves every profile to its flags in
+ * cache/launch.txt, one "&lt;plugin&gt; &lt;flags...&gt;" line per profiled plugin. jex.sh applies
+ * them when it starts a JVM for the plugin; such plugins bypass the daemon, whose JVM
+ * was started with flags of its own.
+ */
+final class JvmProfile {
+
+    static final String REGISTRY_KEY = "jvm";
+    static final String FILE_NAME = "launch.txt";
+
+    private static final Map<String, String> COLLECTORS = Map.of(
+            "serial", "-XX:+UseSerialGC",
+            "parallel", "-XX:+UseParallelGC",
+            "g1", "-XX:+UseG1GC",
+            "z", "-XX:+UseZGC",
+            "shenandoah", "-XX:+UseShenandoahGC");
+
+    // A unit is required: a bare number would be bytes, far below what a JVM starts with
+    private static final Pattern HEAP_SIZE = Pattern.compile("([1-9][0-9]*)([kKmMgGtT])");
+    private static final String HEAP_UNITS = "kmgt";
+    private static final long MIN_HEAP = 2L << 20;
+
+    // Prevent instantiation
+    private JvmProfile() {
+        throw new AssertionError("JvmProfile is a utility class and should not be instantiated");
+    }
+
+    /**
+     * Resolve a profile to JVM flags.
+     *
+     * @param profile The "jvm" value of a registry entry
+     * @throws IllegalArgumentException If the profile is not a map of known settings with valid values
+     */
+    static List<String> flags(Object profile) {
+        if (!(profile instanceof Map<?, ?> settings)) {
+            throw new IllegalArgumentException("jvm must be a map of heap, gc, tier and flags");
+        }
+
+        List<String> flags = new ArrayList<>();
+        for (Map.Entry<?, ?> setting : settings.entrySet()) {
+            String key = String.valueOf(setting.getKey());
+            Object value = setting.getValue();
+            String text = value == null ? "" : value.toString().trim();
+            switch (key) {
+                case "heap" -> {
+                    if (!HEAP_SIZE.matcher(text).matches()) {
+                        throw new IllegalArgumentException("Invalid jvm heap size: " + text
+                                + " (expected a number with a unit, e.g. 64m or 2g)");
+                    }
+                    if (heapBytes(text) < MIN_HEAP) {
+                        throw new IllegalArgumentException("jvm heap size too small: " + text + " (at least 2m)");
+                    }
+                    flags.add("-Xmx" + text);
+                }
+                case "gc" -> {
+                    String flag = COLLECTORS.get(text.toLowerCase(Locale.ROOT));
+                    if (flag == null) {
+                        throw new IllegalArgumentException("Unknown jvm gc: " + text
+                                + " (expected serial, parallel, g1, z or shenandoah)");
+                    }
+                    flags.add(flag);
+                }
+                case "tier" -> {
+                    if (!text.matches("[0-4]")) {
+                        throw new IllegalArgumentException("Invalid jvm tier: " + text + " (expected 0 to 4)");
+                    }
+                    flags.add("-XX:TieredStopAtLevel=" + text);
+                }
+                case "flags" -> {
+                    Collection<?> items = value instanceof Collection<?> list
+                            ? list : Arrays.asList(text.isEmpty() ? new String[0] : text.split("\\s+"));
+                    for (Object item : items) {
+                        String flag = String.valueOf(item).trim();
+                        if (!flag.startsWith("-") || flag.chars().anyMatch(Character::isWhitespace)) {
+                            throw new IllegalArgumentException("Invalid jvm flag: " + flag);
+                        }
+                        flags.add(flag);
+                    }
+                }
+                default -> throw new IllegalArgumentException("Unknown jvm setting: " + key
+                        + " (expected heap, gc, tier or flags)");
+            }
+        }
+        return flags;
+    }
+
+    // Size in bytes of a valid heap setting, capped at Long.MAX_VALUE
+    private static long heapBytes(String size) {
+        int shift = 10 * (HEAP_UNITS.indexOf(Character.toLowerCase(size.charAt(size.length() - 1))) + 1);
+        String digits = size.substring(0, size.length() - 1);
+        if (digits.length() > 12) {
+            return Long.MAX_VALUE;
+        }
+        long value = Long.parseLong(digits);
+        return value > Long.MAX_VALUE >> shift ? Long.MAX_VALUE : value << shift;
+    }
+}
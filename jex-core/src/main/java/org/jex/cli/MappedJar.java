@@ -0,0 +1,292 @@
+package org.jex.cli;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.net.URL;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.jar.Attributes;
+import java.util.jar.Manifest;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+import java.util.zip.ZipException;
+
+/**
+ * A memory-mapped JAR with an in-memory index of its class entries.
+ *
+ * The central directory is parsed once when the JAR is opened; reading a class is then a
+ * hash lookup plus a copy (stored) or an inflate (deflated) straight from the mapping,
+ * without JarFile streams. In a multi-release JAR the highest META-INF/versions/N entry
+ * not newer than the running Java replaces the base entry. ZIP64 archives and JARs over
+ * 2GB are rejected with an IOException; callers fall back to URLClassLoader for those.
+ */
+final class MappedJar {
+
+    private static final int EOCD_SIGNATURE = 0x06054b50;
+    private static final int CEN_SIGNATURE = 0x02014b50;
+    private static final int LOC_SIGNATURE = 0x04034b50;
+    private static final int EOCD_SIZE = 22;
+    private static final int CEN_SIZE = 46;
+    private static final int LOC_SIZE = 30;
+    private static final int MAX_COMMENT = 0xFFFF;
+
+    private static final int STORED = 0;
+    private static final int DEFLATED = 8;
+
+    // Inflaters hold native memory and are costly to create; a few are kept for reuse
+    private static final int MAX_POOLED_INFLATERS = 8;
+    private static final Deque<Inflater> INFLATERS = new ConcurrentLinkedDeque<>();
+
+    private static final String MANIFEST_NAME = "META-INF/MANIFEST.MF";
+    private static final String VERSIONS_PREFIX = "META-INF/versions/";
+
+    /**
+     * Location of one entry: local header offset, sizes and compression method.
+     */
+    private record Entry(int localHeader, int compressedSize, int size, int method) {
+    }
+
+    private final Path path;
+    private final URL url;
+    private final ByteBuffer buffer;
+    private final Map<String, Entry> classes;
+    private final Set<String> packages;
+    private final Manifest manifest;
+
+    private MappedJar(Path path, ByteBuffer buffer, Map<String, Entry> classes, Manifest manifest) throws IOException {
+        this.path = path;
+        this.url = path.toUri().toURL();
+        this.buffer = buffer;
+        this.classes = classes;
+        this.manifest = manifest;
+
+        Set<String> names = new HashSet<>();
+        for (String entry : classes.keySet()) {
+            int slash = entry.lastIndexOf('/');
+            names.add(slash < 0 ? "" : entry.substring(0, slash).replace('/', '.'));
+        }
+        this.packages = Collections.unmodifiableSet(names);
+    }
+
+    /**
+     * Map a JAR and index its class entries.
+     *
+     * @throws IOException If the file can't be mapped or is not a JAR this reader supports
+     */
+    static MappedJar open(Path path) throws IOException {
+        ByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size > Integer.MAX_VALUE) {
+                throw new ZipException("JAR too large to map: " + path);
+            }
+            MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            buffer = mapped.order(ByteOrder.LITTLE_ENDIAN);
+        }
+
+        int eocd = findEndOfCentralDirectory(buffer);
+        int count = u16(buffer, eocd + 10);
+        long cenSize = u32(buffer, eocd + 12);
+        long cenOffset = u32(buffer, eocd + 16);
+        if (count == 0xFFFF || cenSize == 0xFFFFFFFFL || cenOffset == 0xFFFFFFFFL) {
+            throw new ZipException("ZIP64 JARs are not supported: " + path);
+        }
+        // Non-zero when something (e.g. a launcher script) is prepended to the archive
+        int base = (int) (eocd - cenSize - cenOffset);
+        if (base < 0) {
+            throw new ZipException("Invalid central directory: " + path);
+        }
+
+        Map<String, Entry> entries = new HashMap<>(count * 2);
+        Map<String, Integer> versions = new HashMap<>();
+        Entry manifestEntry = null;
+        int feature = Runtime.version().feature();
+
+        int pos = base + (int) cenOffset;
+        for (int i = 0; i < count; i++) {
+            if (buffer.getInt(pos) != CEN_SIGNATURE) {
+                throw new ZipException("Invalid central directory entry in " + path);
+            }
+            int method = u16(buffer, pos + 10);
+            long compressedSize = u32(buffer, pos + 20);
+            long size = u32(buffer, pos + 24);
+            int nameLength = u16(buffer, pos + 28);
+            int extraLength = u16(buffer, pos + 30);
+            int commentLength = u16(buffer, pos + 32);
+            long localHeader = u32(buffer, pos + 42);
+            String name = string(buffer, pos + CEN_SIZE, nameLength);
+            pos += CEN_SIZE + nameLength + extraLength + commentLength;
+
+            if (compressedSize == 0xFFFFFFFFL || size == 0xFFFFFFFFL || localHeader == 0xFFFFFFFFL) {
+                throw new ZipException("ZIP64 JARs are not supported: " + path);
+            }
+            Entry entry = new Entry(base + (int) localHeader, (int) compressedSize, (int) size, method);
+
+            if (name.equals(MANIFEST_NAME)) {
+                manifestEntry = entry;
+            } else if (name.endsWith(".class") && !name.endsWith("module-info.class")) {
+                if (name.startsWith(VERSIONS_PREFIX)) {
+                    int slash = name.indexOf('/', VERSIONS_PREFIX.length());
+                    int version = slash < 0 ? -1 : parseVersion(name.substring(VERSIONS_PREFIX.length(), slash));
+                    if (version > 8 && version <= feature) {
+                        String baseName = name.substring(slash + 1);
+                        if (version > versions.getOrDefault(baseName, 0)) {
+                            versions.put(baseName, version);
+                            entries.put(VERSIONS_PREFIX + version + "/" + baseName, entry);
+                        }
+                    }
+                } else if (!name.startsWith("META-INF/")) {
+                    entries.putIfAbsent(name, entry);
+                }
+            }
+        }
+
+        Manifest manifest = null;
+        if (manifestEntry != null) {
+            manifest = new Manifest(new ByteArrayInputStream(read(buffer, manifestEntry, path)));
+        }
+
+        // Multi-release: versioned entries replace base entries, but only if the JAR says so
+        Map<String, Entry> classes = new HashMap<>(entries.size() * 2);
+        boolean multiRelease = manifest != null
+                && "true".equalsIgnoreCase(manifest.getMainAttributes().getValue(Attributes.Name.MULTI_RELEASE));
+        for (Map.Entry<String, Entry> entry : entries.entrySet()) {
+            if (!entry.getKey().startsWith(VERSIONS_PREFIX)) {
+                classes.put(entry.getKey(), entry.getValue());
+            }
+        }
+        if (multiRelease) {
+            for (Map.Entry<String, Integer> version : versions.entrySet()) {
+                classes.put(version.getKey(), entries.get(VERSIONS_PREFIX + version.getValue() + "/" + version.getKey()));
+            }
+        }
+
+        return new MappedJar(path, buffer, classes, manifest);
+    }
+
+    Path getPath() {
+        return path;
+    }
+
+    URL getUrl() {
+        return url;
+    }
+
+    /**
+     * The JAR manifest, or null if it has none.
+     */
+    Manifest getManifest() {
+        return manifest;
+    }
+
+    /**
+     * Names of the packages with at least one class in this JAR ("" for the unnamed package).
+     */
+    Set<String> getPackages() {
+        return packages;
+    }
+
+    /**
+     * Read a class file.
+     *
+     * @param entryName Entry name, e.g. com/example/Tool.class
+     * @return The class file bytes, or null if the JAR has no such class
+     */
+    byte[] readClass(String entryName) throws IOException {
+        Entry entry = classes.get(entryName);
+        return entry == null ? null : read(buffer, entry, path);
+    }
+
+    // PRIVATE HELPERS
+
+    private static byte[] read(ByteBuffer buffer, Entry entry, Path path) throws IOException {
+        int header = entry.localHeader();
+        if (buffer.getInt(header) != LOC_SIGNATURE) {
+            throw new ZipException("Invalid local header in " + path);
+        }
+        int data = header + LOC_SIZE + u16(buffer, header + 26) + u16(buffer, header + 28);
+        byte[] bytes = new byte[entry.size()];
+
+        if (entry.method() == STORED) {
+            buffer.get(data, bytes);
+            return bytes;
+        }
+        if (entry.method() != DEFLATED) {
+            throw new ZipException("Unsupported compression method " + entry.method() + " in " + path);
+        }
+
+        Inflater inflater = INFLATERS.poll();
+        if (inflater == null) {
+            inflater = new Inflater(true);
+        }
+        try {
+            inflater.setInput(buffer.slice(data, entry.compressedSize()));
+            int length = 0;
+            while (length < bytes.length) {
+                int n = inflater.inflate(bytes, length, bytes.length - length);
+                if (n == 0 && (inflater.finished() || inflater.needsInput() || inflater.needsDictionary())) {
+                    break;
+                }
+                length += n;
+            }
+            if (length != bytes.length) {
+                throw new ZipException("Truncated entry in " + path);
+            }
+            return bytes;
+        } catch (DataFormatException e) {
+            throw new ZipException("Invalid deflated entry in " + path + ": " + e.getMessage());
+        } finally {
+            inflater.reset();
+            if (INFLATERS.size() < MAX_POOLED_INFLATERS) {
+                INFLATERS.push(inflater);
+            } else {
+                inflater.end();
+            }
+        }
+    }
+
+    private static int findEndOfCentralDirectory(ByteBuffer buffer) throws ZipException {
+        int last = buffer.limit() - EOCD_SIZE;
+        int first = Math.max(0, last - MAX_COMMENT);
+        for (int pos = last; pos >= first; pos--) {
+            if (buffer.getInt(pos) == EOCD_SIGNATURE && pos + EOCD_SIZE + u16(buffer, pos + 20) == buffer.limit()) {
+                return pos;
+            }
+        }
+        throw new ZipException("Not a JAR file (no end of central directory)");
+    }
+
+    private static int parseVersion(String version) {
+        try {
+            return Integer.parseInt(version);
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    private static String string(ByteBuffer buffer, int offset, int length) {
+        byte[] bytes = new byte[length];
+        buffer.get(offset, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static int u16(ByteBuffer buffer, int offset) {
+        return buffer.getShort(offset) & 0xFFFF;
+    }
+
+    private static long u32(ByteBuffer buffer, int offset) {
+        return buffer.getInt(offset) & 0xFFFFFFFFL;
+    }
+}
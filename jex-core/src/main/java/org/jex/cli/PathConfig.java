@@ -72,6 +72,20 @@ public class PathConfig {
         }
     }
 
+    /**
+     * Get the AppCDS archive path (written by `jex --optimize`, used by the wrapper scripts).
+     */
+    public static String getCdsArchivePath() {
+        return getLibDirectory() + File.separator + "jex.jsa";
+    }
+
+    /**
+     * Get the jlink runtime image directory (preferred by the wrapper scripts when present).
+     */
+    public static String getRuntimeImageDirectory() {
+        return getLibDirectory() + File.separator + "runtime";
+    }
+
     /**
      * Get the plugins directory path.
      */
@@ -86,6 +100,34 @@ public class PathConfig {
         return getConfigDirectory() + File.separator + "plugin.yaml";
     }
 
+    /**
+     * Get the plugin.d directory path (optional sharded registry, one descriptor per plugin).
+     */
+    public static String getPluginShardDirectory() {
+        return getConfigDirectory() + File.separator + "plugin.d";
+    }
+
+    /**
+     * Get the shared library directory (one JAR per library version, see SharedLibraries).
+     */
+    public static String getSharedLibraryDirectory() {
+        return getConfigDirectory() + File.separator + "shared";
+    }
+
+    /**
+     * Get the directory of pre-rendered help pages (see HelpCache).
+     */
+    public static String getCacheDirectory() {
+        return getConfigDirectory() + File.separator + "cache";
+    }
+
+    /**
+     * Get the Unix domain socket path of the resident Jex daemon.
+     */
+    public static String getDaemonSocketPath() {
+        return getConfigDirectory() + File.separator + "jex.sock";
+    }
+
     /**
      * Get the arguments.yaml file path.
      */
@@ -0,0 +1,273 @@
+package org.jex.cli;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.file.Path;
+import java.security.CodeSigner;
+import java.security.CodeSource;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.jar.Manifest;
+
+/**
+ * Class loader for a plugin's JARs. Classes are run through ExitTrap before they are
+ * defined, so a System.exit in the plugin ends the invocation instead of the JVM.
+ *
+ * Class files are read from memory-mapped JARs (see MappedJar) through a package to JAR
+ * index built when the loader is created, so a lookup only touches the JARs that hold the
+ * class's package. Resources still go through URLClassLoader. If a JAR can't be mapped,
+ * classes are read through URLClassLoader's streams instead.
+ *
+ * Shared libraries (see SharedLibraries) are searched after the parent and before the
+ * plugin's own JARs, so a library the plugin also shades is still defined only once.
+ */
+class PluginClassLoader extends URLClassLoader {
+
+    static {
+        registerAsParallelCapable();
+    }
+
+    private final Map<String, List<MappedJar>> packageIndex;
+    private final List<PluginClassLoader> libraries;
+    private final Map<URL, CodeSource> codeSources = new HashMap<>();
+    private final List<String> definedClasses;
+    private volatile Manifest manifest;
+    private volatile boolean manifestRead;
+
+    PluginClassLoader(Path jar, ClassLoader parent) throws MalformedURLException {
+        this(List.of(jar), parent, List.of());
+    }
+
+    /**
+     * @param jars The plugin's JARs, in class path order
+     * @param libraries Loaders of the shared libraries the plugin declares, in declaration order
+     */
+    PluginClassLoader(List<Path> jars, ClassLoader parent, List<PluginClassLoader> libraries) throws MalformedURLException {
+        this(jars, parent, libraries, false);
+    }
+
+    /**
+     * @param jars The plugin's JARs, in class path order
+     * @param libraries Loaders of the shared libraries the plugin declares, in declaration order
+     * @param recordDefinitions Record the classes defined from the JARs, for a training run
+     */
+    PluginClassLoader(List<Path> jars, ClassLoader parent, List<PluginClassLoader> libraries,
+                      boolean recordDefinitions) throws MalformedURLException {
+        super(toUrls(jars), parent);
+        this.definedClasses = recordDefinitions ? Collections.synchronizedList(new ArrayList<>()) : null;
+        for (URL url : getURLs()) {
+            codeSources.put(url, new CodeSource(url, (CodeSigner[]) null));
+        }
+        this.packageIndex = indexPackages(jars);
+        this.libraries = libraries;
+    }
+
+    @Override
+    protected Class<?> loadClass(String name, boolean resolve) throws ClassNotFoundException {
+        if (libraries.isEmpty()) {
+            return super.loadClass(name, resolve);
+        }
+
+        synchronized (getClassLoadingLock(name)) {
+            Class<?> type = findLoadedClass(name);
+            if (type == null) {
+                try {
+                    type = getParent().loadClass(name);
+                } catch (ClassNotFoundException e) {
+                    type = findLibraryClass(name);
+                }
+            }
+            if (type == null) {
+                type = findClass(name);
+            }
+            if (resolve) {
+                resolveClass(type);
+            }
+            return type;
+        }
+    }
+
+    @Override
+    public URL findResource(String name) {
+        for (PluginClassLoader library : libraries) {
+            URL resource = library.findResource(name);
+            if (resource != null) {
+                return resource;
+            }
+        }
+        return super.findResource(name);
+    }
+
+    @Override
+    public Enumeration<URL> findResources(String name) throws IOException {
+        if (libraries.isEmpty()) {
+            return super.findResources(name);
+        }
+        // A library also returns its dependencies' resources, and the plugin lists those libraries too
+        Set<URL> resources = new LinkedHashSet<>();
+        for (PluginClassLoader library : libraries) {
+            resources.addAll(Collections.list(library.findResources(name)));
+        }
+        resources.addAll(Collections.list(super.findResources(name)));
+        return Collections.enumeration(resources);
+    }
+
+    /**
+     * Classes this loader defined from its own JARs, in first-use order.
+     *
+     * @return The class names, or null if the loader was created without recording
+     */
+    List<String> getDefinedClasses() {
+        return definedClasses == null ? null : List.copyOf(definedClasses);
+    }
+
+    /**
+     * Whether one of this loader's own JARs may hold classes of the given package.
+     */
+    boolean hasPackage(String packageName) {
+        return packageIndex == null || packageIndex.containsKey(packageName);
+    }
+
+    @Override
+    protected Class<?> findClass(String name) throws ClassNotFoundException {
+        String entryName = name.replace('.', '/') + ".class";
+        if (packageIndex != null) {
+            return findMappedClass(name, entryName);
+        }
+
+        URL resource = super.findResource(entryName);
+        if (resource == null) {
+            throw new ClassNotFoundException(name);
+        }
+
+        byte[] classFile;
+        try (InputStream in = resource.openStream()) {
+            classFile = in.readAllBytes();
+        } catch (IOException e) {
+            throw new ClassNotFoundException(name, e);
+        }
+
+        URL jarUrl = getURLs()[0];
+        definePackageFor(name, manifest(), jarUrl);
+        return define(name, classFile, jarUrl);
+    }
+
+    // PRIVATE HELPERS
+
+    private Class<?> findLibraryClass(String name) {
+        int dot = name.lastIndexOf('.');
+        String packageName = dot < 0 ? "" : name.substring(0, dot);
+        for (PluginClassLoader library : libraries) {
+            if (library.hasPackage(packageName)) {
+                try {
+                    return library.loadClass(name);
+                } catch (ClassNotFoundException e) {
+                    // Not in this library
+                }
+            }
+        }
+        return null;
+    }
+
+    private Class<?> findMappedClass(String name, String entryName) throws ClassNotFoundException {
+        int dot = name.lastIndexOf('.');
+        List<MappedJar> jars = packageIndex.get(dot < 0 ? "" : name.substring(0, dot));
+        if (jars != null) {
+            for (MappedJar jar : jars) {
+                byte[] classFile;
+                try {
+                    classFile = jar.readClass(entryName);
+                } catch (IOException e) {
+                    throw new ClassNotFoundException(name, e);
+                }
+                if (classFile != null) {
+                    definePackageFor(name, jar.getManifest(), jar.getUrl());
+                    return define(name, classFile, jar.getUrl());
+                }
+            }
+        }
+        throw new ClassNotFoundException(name);
+    }
+
+    private Class<?> define(String name, byte[] classFile, URL jarUrl) {
+        byte[] rewritten = ExitTrap.rewrite(classFile);
+        if (definedClasses != null) {
+            definedClasses.add(name);
+        }
+        return defineClass(name, rewritten, 0, rewritten.length, codeSources.get(jarUrl));
+    }
+
+    private void definePackageFor(String className, Manifest jarManifest, URL jarUrl) {
+        int dot = className.lastIndexOf('.');
+        if (dot < 0) {
+            return;
+        }
+        String packageName = className.substring(0, dot);
+        if (getDefinedPackage(packageName) != null) {
+            return;
+        }
+
+        try {
+            if (jarManifest != null) {
+                definePackage(packageName, jarManifest, jarUrl);
+            } else {
+                definePackage(packageName, null, null, null, null, null, null, null);
+            }
+        } catch (IllegalArgumentException e) {
+            // Defined concurrently by another thread
+        }
+    }
+
+    private Manifest manifest() {
+        if (!manifestRead) {
+            URL resource = super.findResource("META-INF/MANIFEST.MF");
+            if (resource != null) {
+                try (InputStream in = resource.openStream()) {
+                    manifest = new Manifest(in);
+                } catch (IOException e) {
+                    // Define the package without manifest attributes
+                }
+            }
+            manifestRead = true;
+        }
+        return manifest;
+    }
+
+    /**
+     * Map every JAR and index which JARs hold each package.
+     *
+     * @return The index, or null if a JAR could not be mapped
+     */
+    private static Map<String, List<MappedJar>> indexPackages(List<Path> jars) {
+        Map<String, List<MappedJar>> index = new HashMap<>();
+        for (Path path : jars) {
+            MappedJar jar;
+            try {
+                jar = MappedJar.open(path);
+            } catch (IOException e) {
+                return null;
+            }
+            for (String packageName : jar.getPackages()) {
+                index.computeIfAbsent(packageName, key -> new ArrayList<>(1)).add(jar);
+            }
+        }
+        return index;
+    }
+
+    private static URL[] toUrls(List<Path> jars) throws MalformedURLException {
+        URL[] urls = new URL[jars.size()];
+        for (int i = 0; i < urls.length; i++) {
+            urls[i] = jars.get(i).toUri().toURL();
+        }
+        return urls;
+    }
+}
@@ -0,0 +1,241 @@
+package org.jex.cli;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.IntStream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+/**
+ * Finds JexPlugin implementations in a JAR from class file headers alone.
+ *
+ * Each class file is read up to its interface list (access flags, this/super class,
+ * interfaces), in parallel for large JARs. The inheritance graph is then resolved
+ * within the JAR; supertypes from outside it are looked up in Jex's own class loader
+ * without initialization. No class from the JAR is loaded.
+ */
+final class PluginClassScanner {
+
+    private static final Set<String> PLUGIN_INTERFACES = Set.of("org/jex/cli/JexPlugin", "org/jex/cli/JexPluginV2");
+
+    // Below this many classes, reading on one thread is faster than forking
+    private static final int PARALLEL_THRESHOLD = 256;
+
+    private static final int ACC_PUBLIC = 0x0001;
+    private static final int ACC_INTERFACE = 0x0200;
+    private static final int ACC_ABSTRACT = 0x0400;
+
+    // Constant pool tags
+    private static final int UTF8 = 1;
+    private static final int INTEGER = 3;
+    private static final int FLOAT = 4;
+    private static final int LONG = 5;
+    private static final int DOUBLE = 6;
+    private static final int CLASS = 7;
+    private static final int STRING = 8;
+    private static final int FIELDREF = 9;
+    private static final int METHODREF = 10;
+    private static final int INTERFACE_METHODREF = 11;
+    private static final int NAME_AND_TYPE = 12;
+    private static final int METHOD_HANDLE = 15;
+    private static final int METHOD_TYPE = 16;
+    private static final int DYNAMIC = 17;
+    private static final int INVOKE_DYNAMIC = 18;
+    private static final int MODULE = 19;
+    private static final int PACKAGE = 20;
+
+    /**
+     * The part of a class file the scanner needs. Names are internal (slash-separated).
+     */
+    record ClassHeader(int access, String name, String superName, List<String> interfaces) {
+    }
+
+    // Prevent instantiation
+    private PluginClassScanner() {
+        throw new AssertionError("PluginClassScanner is a utility class and should not be instantiated");
+    }
+
+    /**
+     * Find the public, concrete classes in a JAR that implement JexPlugin.
+     *
+     * @return Binary class names, in JAR entry order
+     */
+    static List<String> findPluginClasses(Path jarPath) throws IOException {
+        List<ClassHeader> headers = readHeaders(jarPath);
+
+        Map<String, ClassHeader> byName = new HashMap<>();
+        for (ClassHeader header : headers) {
+            byName.putIfAbsent(header.name(), header);
+        }
+
+        Map<String, Boolean> resolved = new HashMap<>();
+        List<String> plugins = new ArrayList<>();
+        for (ClassHeader header : headers) {
+            int access = header.access();
+            if ((access & ACC_PUBLIC) != 0 && (access & (ACC_INTERFACE | ACC_ABSTRACT)) == 0
+                    && isPlugin(header.name(), byName, resolved)) {
+                plugins.add(header.name().replace('/', '.'));
+            }
+        }
+        return plugins;
+    }
+
+    private static List<ClassHeader> readHeaders(Path jarPath) throws IOException {
+        try (ZipFile zip = new ZipFile(jarPath.toFile())) {
+            List<ZipEntry> entries = new ArrayList<>();
+            Enumeration<? extends ZipEntry> all = zip.entries();
+            while (all.hasMoreElements()) {
+                ZipEntry entry = all.nextElement();
+                String name = entry.getName();
+                // META-INF/versions/ duplicates base classes; module-info is not a class
+                if (name.endsWith(".class") && !name.startsWith("META-INF/") && !name.endsWith("module-info.class")) {
+                    entries.add(entry);
+                }
+            }
+
+            IntStream indexes = IntStream.range(0, entries.size());
+            if (entries.size() >= PARALLEL_THRESHOLD) {
+                indexes = indexes.parallel();
+            }
+            ClassHeader[] headers = new ClassHeader[entries.size()];
+            try {
+                indexes.forEach(i -> headers[i] = readHeader(zip, entries.get(i)));
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+
+            List<ClassHeader> result = new ArrayList<>(headers.length);
+            for (ClassHeader header : headers) {
+                if (header != null) {
+                    result.add(header);
+                }
+            }
+            return result;
+        }
+    }
+
+    private static ClassHeader readHeader(ZipFile zip, ZipEntry entry) {
+        try (InputStream in = zip.getInputStream(entry)) {
+            long size = entry.getSize();
+            return parseHeader(size >= 0 ? in.readNBytes((int) size) : in.readAllBytes());
+        } catch (IOException e) {
+            throw new UncheckedIOException(entry.getName() + ": " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Parse the header of a class file.
+     *
+     * @return The header, or null if the bytes are not a well-formed class file
+     */
+    static ClassHeader parseHeader(byte[] b) {
+        try {
+            if (b.length < 10 || u4(b, 0) != 0xCAFEBABE) {
+                return null;
+            }
+
+            int count = u2(b, 8);
+            int[] offsets = new int[count];
+            int pos = 10;
+            for (int i = 1; i < count; i++) {
+                offsets[i] = pos;
+                int tag = b[pos] & 0xFF;
+                switch (tag) {
+                    case UTF8 -> pos += 3 + u2(b, pos + 1);
+                    case INTEGER, FLOAT, FIELDREF, METHODREF, INTERFACE_METHODREF,
+                         NAME_AND_TYPE, DYNAMIC, INVOKE_DYNAMIC -> pos += 5;
+                    case LONG, DOUBLE -> {
+                        pos += 9;
+                        i++;
+                    }
+                    case CLASS, STRING, METHOD_TYPE, MODULE, PACKAGE -> pos += 3;
+                    case METHOD_HANDLE -> pos += 4;
+                    default -> {
+                        return null;
+                    }
+                }
+            }
+
+            int access = u2(b, pos);
+            String name = className(b, offsets, u2(b, pos + 2));
+            int superIndex = u2(b, pos + 4);
+            String superName = superIndex == 0 ? null : className(b, offsets, superIndex);
+            int interfaceCount = u2(b, pos + 6);
+            List<String> interfaces = interfaceCount == 0 ? Collections.emptyList() : new ArrayList<>(interfaceCount);
+            for (int i = 0; i < interfaceCount; i++) {
+                interfaces.add(className(b, offsets, u2(b, pos + 8 + 2 * i)));
+            }
+            return new ClassHeader(access, name, superName, interfaces);
+        } catch (ArrayIndexOutOfBoundsException | IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    private static boolean isPlugin(String name, Map<String, ClassHeader> byName, Map<String, Boolean> resolved) {
+        if (name == null || name.startsWith("java/")) {
+            return false;
+        }
+        if (PLUGIN_INTERFACES.contains(name)) {
+            return true;
+        }
+        Boolean known = resolved.get(name);
+        if (known != null) {
+            return known;
+        }
+        resolved.put(name, false); // Guards against cycles in malformed JARs
+
+        boolean plugin;
+        ClassHeader header = byName.get(name);
+        if (header == null) {
+            plugin = isExternalPlugin(name);
+        } else {
+            plugin = isPlugin(header.superName(), byName, resolved);
+            for (int i = 0; !plugin && i < header.interfaces().size(); i++) {
+                plugin = isPlugin(header.interfaces().get(i), byName, resolved);
+            }
+        }
+        resolved.put(name, plugin);
+        return plugin;
+    }
+
+    // A supertype outside the JAR: only Jex's own class path can make it a plugin type
+    private static boolean isExternalPlugin(String name) {
+        try {
+            Class<?> type = Class.forName(name.replace('/', '.'), false, PluginClassScanner.class.getClassLoader());
+            return JexPlugin.class.isAssignableFrom(type);
+        } catch (ClassNotFoundException | LinkageError e) {
+            return false;
+        }
+    }
+
+    private static String className(byte[] b, int[] offsets, int classIndex) {
+        int offset = offsets[classIndex];
+        if ((b[offset] & 0xFF) != CLASS) {
+            throw new IllegalArgumentException("Not a class constant: #" + classIndex);
+        }
+        int utf8 = offsets[u2(b, offset + 1)];
+        if ((b[utf8] & 0xFF) != UTF8) {
+            throw new IllegalArgumentException("Not a Utf8 constant");
+        }
+        // Class names are modified UTF-8, which matches UTF-8 for everything but NUL and supplementary characters
+        return new String(b, utf8 + 3, u2(b, utf8 + 1), StandardCharsets.UTF_8);
+    }
+
+    private static int u2(byte[] b, int offset) {
+        return ((b[offset] & 0xFF) << 8) | (b[offset + 1] & 0xFF);
+    }
+
+    private static int u4(byte[] b, int offset) {
+        return (u2(b, offset) << 16) | u2(b, offset + 2);
+    }
+}
@@ -0,0 +1,94 @@
+package org.jex.cli;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.jar.Attributes;
+import java.util.jar.JarEntry;
+import java.util.jar.JarFile;
+import java.util.jar.Manifest;
+
+/**
+ * Plugin metadata declared in a plugin JAR, read without loading any plugin class.
+ *
+ * The implementation class comes from the manifest (Jex-Plugin-Class) or, failing that, from
+ * the first provider in META-INF/services/org.jex.cli.JexPlugin. Version and description come
+ * from Jex-Plugin-Version / Jex-Plugin-Description, falling back to Implementation-Version.
+ * Jex-Plugin-Name is the plugin's preferred registry name. Fields that are not declared are null.
+ * Jex-Plugin-Shared lists the libraries the plugin loads from the shared layer (see SharedLibraries).
+ */
+public record PluginDescriptor(String name, String className, String version, String description,
+                               List<String> sharedLibraries) {
+
+    public static final String NAME_ATTRIBUTE = "Jex-Plugin-Name";
+    public static final String CLASS_ATTRIBUTE = "Jex-Plugin-Class";
+    public static final String VERSION_ATTRIBUTE = "Jex-Plugin-Version";
+    public static final String DESCRIPTION_ATTRIBUTE = "Jex-Plugin-Description";
+    public static final String SHARED_ATTRIBUTE = "Jex-Plugin-Shared";
+    public static final String SERVICES_ENTRY = "META-INF/services/" + JexPlugin.class.getName();
+
+    /**
+     * Read the descriptor of a plugin JAR.
+     *
+     * @return The descriptor (className is null if the JAR declares no implementation class)
+     * @throws IOException If the JAR can't be read, the declared class is not in it, or a
+     *         shared library coordinate is malformed
+     */
+    public static PluginDescriptor read(Path jarPath) throws IOException {
+        try (JarFile jar = new JarFile(jarPath.toFile(), false)) {
+            Manifest manifest = jar.getManifest();
+            Attributes attributes = manifest != null ? manifest.getMainAttributes() : new Attributes();
+
+            String className = value(attributes, CLASS_ATTRIBUTE);
+            if (className == null) {
+                className = firstProvider(jar);
+            }
+            if (className != null && jar.getEntry(className.replace('.', '/') + ".class") == null) {
+                throw new IOException("Plugin class " + className + " declared in the JAR is not in it");
+            }
+
+            String version = value(attributes, VERSION_ATTRIBUTE);
+            if (version == null) {
+                version = value(attributes, Attributes.Name.IMPLEMENTATION_VERSION.toString());
+            }
+
+            List<String> sharedLibraries;
+            try {
+                sharedLibraries = SharedLibraries.parse(value(attributes, SHARED_ATTRIBUTE));
+            } catch (IllegalArgumentException e) {
+                throw new IOException(e.getMessage(), e);
+            }
+
+            return new PluginDescriptor(value(attributes, NAME_ATTRIBUTE), className, version,
+                    value(attributes, DESCRIPTION_ATTRIBUTE), sharedLibraries);
+        }
+    }
+
+    private static String value(Attributes attributes, String name) {
+        String value = attributes.getValue(name);
+        return value == null || value.isBlank() ? null : value.trim();
+    }
+
+    // First provider line of the service file (# starts a comment, as for ServiceLoader)
+    private static String firstProvider(JarFile jar) throws IOException {
+        JarEntry entry = jar.getJarEntry(SERVICES_ENTRY);
+        if (entry == null) {
+            return null;
+        }
+
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(jar.getInputStream(entry), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                int comment = line.indexOf('#');
+                String provider = (comment >= 0 ? line.substring(0, comment) : line).trim();
+                if (!provider.isEmpty()) {
+                    return provider;
+                }
+            }
+        }
+        return null;
+    }
+}
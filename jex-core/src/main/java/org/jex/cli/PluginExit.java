@@ -0,0 +1,22 @@
+package org.jex.cli;
+
+/**
+ * Thrown in place of terminating the JVM when a plugin exits with a status: by a
+ * System.exit call in a plugin class (see ExitTrap), or by JexPluginV2.execute.
+ * It is an Error so that catch (Exception e) blocks in plugins don't swallow it.
+ */
+public class PluginExit extends Error {
+
+    private static final long serialVersionUID = 1L;
+
+    private final int exitCode;
+
+    public PluginExit(int exitCode) {
+        super("Plugin exited with status " + exitCode, null, false, false);
+        this.exitCode = exitCode;
+    }
+
+    public int getExitCode() {
+        return exitCode;
+    }
+}
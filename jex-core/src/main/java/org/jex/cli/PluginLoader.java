@@ -0,0 +1,220 @@
+package org.jex.cli;
+
+import org.yaml.snakeyaml.Yaml;
+
+import java.io.InputStream;
+import java.net.URLClassLoader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+public class PluginLoader {
+
+    // Loaded plugin instances, kept for the life of the JVM so resident modes run warm
+    private static final Map<String, LoadedPlugin> LOADED_PLUGINS = new ConcurrentHashMap<>();
+
+    private record LoadedPlugin(Path jarPath, String className, RegistryCache.Stamp jarStamp, JexPlugin plugin) {
+    }
+
+    // Serializes the check-and-replace of one name's LOADED_PLUGINS entry, so concurrent
+    // daemon requests never load a changed plugin twice or close an instance twice
+    private static final Map<String, Object> LOAD_LOCKS = new ConcurrentHashMap<>();
+
+    // Last registry read per plugin.yaml path, reused while the file's stamp is unchanged
+    private static final Map<Path, ParsedRegistry> PARSED_REGISTRIES = new ConcurrentHashMap<>();
+
+    private record ParsedRegistry(RegistryCache.Stamp stamp, Map<String, Map<String, Object>> registry) {
+    }
+
+    /**
+     * Find the registry entry for a single plugin.
+     * With the sharded plugin.d/ layout this touches only that plugin's index slot and shard;
+     * plugin.yaml is consulted only when no shard exists for the name.
+     *
+     * @return The plugin configuration, or null if the plugin is not registered
+     */
+    public Map<String, Object> findPluginConfig(String pluginName) {
+        ShardedRegistry shards = ShardedRegistry.open();
+        if (shards != null) {
+            Map<String, Object> config = shards.get(pluginName);
+            if (config != null) {
+                return config;
+            }
+            if (!Files.exists(Paths.get(PathConfig.getPluginYamlPath()))) {
+                return null;
+            }
+        }
+
+        Map<String, Map<String, Object>> plugins = loadPluginRegistry(PathConfig.getPluginYamlPath());
+        return plugins != null ? plugins.get(pluginName) : null;
+    }
+
+    /**
+     * Load the complete registry: plugin.yaml entries plus plugin.d/ shards (shards win).
+     */
+    public Map<String, Map<String, Object>> loadRegistry() {
+        ShardedRegistry shards = ShardedRegistry.open();
+        if (shards == null) {
+            return loadPluginRegistry(PathConfig.getPluginYamlPath());
+        }
+
+        Map<String, Map<String, Object>> registry = new TreeMap<>();
+        if (Files.exists(Paths.get(PathConfig.getPluginYamlPath()))) {
+            Map<String, Map<String, Object>> plugins = loadPluginRegistry(PathConfig.getPluginYamlPath());
+            if (plugins != null) {
+                registry.putAll(plugins);
+            }
+        }
+        registry.putAll(shards.loadAll());
+        return registry;
+    }
+
+    /**
+     * Load plugin registry from plugin.yaml.
+     * Served from the binary snapshot (see RegistryCache) while it is fresh;
+     * SnakeYAML is only used when plugin.yaml has changed since the snapshot was written.
+     * Within one JVM the parsed registry is reused until plugin.yaml changes.
+     */
+    public Map<String, Map<String, Object>> loadPluginRegistry(String configFile) {
+        Path path = Paths.get(configFile);
+        RegistryCache.Stamp stamp = RegistryCache.stamp(path);
+
+        ParsedRegistry parsed = PARSED_REGISTRIES.get(path);
+        if (parsed != null && stamp != null && stamp.equals(parsed.stamp())) {
+            return parsed.registry();
+        }
+
+        Map<String, Map<String, Object>> registry = RegistryCache.read(path, stamp);
+        if (registry == null) {
+            registry = parsePluginRegistry(path);
+            RegistryCache.write(path, stamp, registry);
+        }
+
+        if (registry != null && stamp != null) {
+            PARSED_REGISTRIES.put(path, new ParsedRegistry(stamp, registry));
+        }
+        return registry;
+    }
+
+    /**
+     * Parse plugin.yaml with SnakeYAML.
+     */
+    @SuppressWarnings("unchecked")
+    private Map<String, Map<String, Object>> parsePluginRegistry(Path configFile) {
+        Yaml yaml = new Yaml();
+        try (InputStream inputStream = Files.newInputStream(configFile)) {
+            Map<String, Map<String, Object>> registry = yaml.load(inputStream);
+            // Filter out null entries and comments
+            if (registry != null) {
+                registry.entrySet().removeIf(entry -> entry.getValue() == null);
+            }
+            return registry;
+        } catch (Exception e) {
+            System.err.println("Error loading plugin registry: " + e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Load and instantiate a plugin from a JAR file
+     */
+    public JexPlugin loadPlugin(String pluginName, Map<String, Object> pluginConfig) {
+        return loadPlugin(pluginName, pluginConfig, false);
+    }
+
+    /**
+     * Load a new instance of a plugin for a training run, in its own PluginClassLoader that
+     * records the classes it defines. The instance is neither cached nor pooled, so the caller
+     * closes it.
+     */
+    JexPlugin loadPluginForTraining(String pluginName, Map<String, Object> pluginConfig) {
+        return loadPlugin(pluginName, pluginConfig, true);
+    }
+
+    private JexPlugin loadPlugin(String pluginName, Map<String, Object> pluginConfig, boolean training) {
+        try {
+            String jarFileName = (String) pluginConfig.get("jar");
+            String className = (String) pluginConfig.get("class");
+
+            if (jarFileName == null || className == null) {
+                System.err.println("Error: JexPlugin configuration missing 'jar' or 'class' field");
+                return null;
+            }
+
+            // Construct full path to JAR file
+            Path jarPath = Paths.get(PathConfig.getPluginsDirectory(), jarFileName);
+
+            if (!Files.exists(jarPath)) {
+                System.err.println("Error: JexPlugin JAR not found: " + jarPath);
+                return null;
+            }
+
+            if (training) {
+                return instantiate(pluginName, jarPath, className, pluginConfig, true);
+            }
+
+            synchronized (LOAD_LOCKS.computeIfAbsent(pluginName, name -> new Object())) {
+                // Reuse an instance loaded earlier in this JVM if the JAR hasn't changed
+                RegistryCache.Stamp jarStamp = RegistryCache.stamp(jarPath);
+                boolean pooled = WorkerPool.isEnabled() && WorkerPool.isIsolated(pluginConfig);
+                LoadedPlugin loaded = LOADED_PLUGINS.get(pluginName);
+                if (loaded != null && loaded.jarPath().equals(jarPath)
+                        && loaded.className().equals(className) && loaded.jarStamp().equals(jarStamp)
+                        && (pooled ? loaded.plugin() instanceof WorkerPool pool && pool.hasConfig(pluginConfig)
+                                   : !(loaded.plugin() instanceof WorkerPool))) {
+                    return loaded.plugin();
+                }
+                if (loaded != null) {
+                    LOADED_PLUGINS.remove(pluginName);
+                    PluginRunner.close(loaded.plugin());
+                }
+
+                // Plugins that must not share this JVM run in worker JVMs (see WorkerPool)
+                JexPlugin plugin = pooled ? new WorkerPool(pluginName, pluginConfig)
+                                          : instantiate(pluginName, jarPath, className, pluginConfig, false);
+                if (plugin != null) {
+                    LOADED_PLUGINS.put(pluginName, new LoadedPlugin(jarPath, className, jarStamp, plugin));
+                }
+                return plugin;
+            }
+
+        } catch (Exception e) {
+            System.err.println("Error loading plugin '" + pluginName + "': " + e.getMessage());
+            e.printStackTrace();
+            return null;
+        }
+    }
+
+    private JexPlugin instantiate(String pluginName, Path jarPath, String className,
+                                  Map<String, Object> pluginConfig, boolean training) throws Exception {
+        // Load the JAR file (System.exit calls in plugin classes are trapped)
+        StartupTrace.Span span = StartupTrace.begin(StartupTrace.Phase.CLASSLOADER, pluginName);
+        ClassLoader jexLoader = this.getClass().getClassLoader();
+        Object shared = pluginConfig.get(SharedLibraries.REGISTRY_KEY);
+        List<PluginClassLoader> libraries = SharedLibraries.loaders(
+                SharedLibraries.parse(shared != null ? shared.toString() : null), jexLoader);
+        URLClassLoader classLoader = new PluginClassLoader(List.of(jarPath), jexLoader, libraries, training);
+        StartupTrace.end(span);
+
+        // Load the plugin class and instantiate it
+        span = StartupTrace.begin(StartupTrace.Phase.CLASS_LOAD, className);
+        Object pluginInstance;
+        try {
+            Class<?> pluginClass = classLoader.loadClass(className);
+            pluginInstance = pluginClass.getDeclaredConstructor().newInstance();
+        } finally {
+            StartupTrace.end(span);
+        }
+
+        // Verify it implements the JexPlugin interface
+        if (!(pluginInstance instanceof JexPlugin)) {
+            System.err.println("Error: Class " + className + " does not implement JexPlugin interface");
+            return null;
+        }
+        return (JexPlugin) pluginInstance;
+    }
+}
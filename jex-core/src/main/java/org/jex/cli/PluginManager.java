@@ -0,0 +1,752 @@
+package org.jex.cli;
+
+import org.yaml.snakeyaml.Yaml;
+
+import java.io.*;
+import java.net.URLClassLoader;
+import java.nio.file.*;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.*;
+import java.util.regex.Pattern;
+
+/**
+ * Manages plugin lifecycle: install, update, uninstall.
+ * Each operation runs under the registry lock (see RegistryLock) and replaces files with
+ * an atomic rename, so concurrent installers never lose entries or leave half-written files.
+ */
+public class PluginManager {
+
+    // Version suffix dropped from a JAR file name to get the default plugin name (my-tool-1.2.0.jar -> my-tool)
+    private static final Pattern VERSION_SUFFIX = Pattern.compile("-\\d+(\\.\\d+)+.*$");
+
+    /** Command that trains and repacks a plugin (see trainPlugin). */
+    static final String TRAIN_COMMAND = "--train-plugin";
+
+    // Entry settings declared by hand in the registry, kept when the plugin is updated
+    private static final List<String> DECLARED_SETTINGS = List.of(
+            JvmProfile.REGISTRY_KEY, WorkerPool.REGISTRY_KEY, WorkerPool.RUNS_KEY);
+
+    /**
+     * Outcome of preparing one JAR for a sync: its metadata, or null if the JAR and its
+     * registry entry are already up to date; error is set if the JAR is not a valid plugin.
+     * hashedTime is the installed JAR's mtime when it was found identical by hash, so its mtime
+     * can be brought in line with the source under the registry lock.
+     */
+    private record SyncItem(Path source, String name, PluginMetadata metadata, boolean jarChanged, String error,
+                            FileTime hashedTime) {
+    }
+
+    private final Path pluginDir;
+    private final Path originalDir;
+    private final Path configDir;
+    private final Path registryFile;
+    private final ShardedRegistry shards;
+
+    public PluginManager() {
+        this.pluginDir = Paths.get(PathConfig.getPluginsDirectory());
+        this.originalDir = pluginDir.resolve("original");
+        this.configDir = Paths.get(PathConfig.getConfigDirectory());
+        this.registryFile = configDir.resolve("plugin.yaml");
+        this.shards = ShardedRegistry.open();
+    }
+
+    /**
+     * Install a new plugin.
+     */
+    public void installPlugin(String name, String jarPath) throws IOException {
+        installOrUpdatePlugin(name, jarPath, false, false);
+    }
+
+    /**
+     * Install a new plugin.
+     *
+     * @param repack Repack the JAR for loading (see JarRepacker), keeping the original for rollback
+     */
+    public void installPlugin(String name, String jarPath, boolean repack) throws IOException {
+        installOrUpdatePlugin(name, jarPath, false, repack);
+    }
+
+    /**
+     * Update an existing plugin.
+     */
+    public void updatePlugin(String name, String jarPath) throws IOException {
+        installOrUpdatePlugin(name, jarPath, true, false);
+    }
+
+    /**
+     * Update an existing plugin. A plugin that was repacked before is always repacked again.
+     *
+     * @param repack Repack the JAR for loading (see JarRepacker), keeping the original for rollback
+     */
+    public void updatePlugin(String name, String jarPath, boolean repack) throws IOException {
+        installOrUpdatePlugin(name, jarPath, true, repack);
+    }
+
+    /**
+     * Uninstall a plugin.
+     */
+    public void uninstallPlugin(String name) throws IOException {
+        try (RegistryLock lock = RegistryLock.acquire(configDir)) {
+            Map<String, Map<String, String>> registry = shards != null ? null : loadRegistry();
+
+            // Look up registry entry
+            Map<String, ?> pluginInfo = findEntry(name, registry);
+
+            if (pluginInfo == null) {
+                throw new IllegalStateException("Plugin not found: " + name);
+            }
+
+            // Remove from registry before the JAR, so no reader sees an entry without its JAR
+            removeFromRegistry(name, registry);
+
+            // Delete JAR
+            deleteJar((String) pluginInfo.get("jar"));
+            HelpCache.refresh(List.of());
+        }
+
+        System.out.println("✓ Uninstalled plugin: " + name);
+        AppCds.markStale();
+    }
+
+    /**
+     * Run a plugin once as a training run, recording the order its classes are first used in,
+     * then repack its JAR in that order. The original JAR is kept for rollback.
+     *
+     * @param args Arguments for the training run
+     * @return The plugin's exit code
+     */
+    public int trainPlugin(String name, String[] args) throws IOException {
+        PluginLoader loader = new PluginLoader();
+        Map<String, Object> config = loader.findPluginConfig(name);
+        if (config == null) {
+            throw new IllegalStateException("Plugin not found: " + name);
+        }
+
+        // A fresh instance: a cached one would have defined its classes already
+        JexPlugin plugin = loader.loadPluginForTraining(name, config);
+        if (plugin == null) {
+            throw new IOException("Failed to load plugin: " + name);
+        }
+        int exitCode = PluginRunner.run(plugin, args);
+        PluginRunner.close(plugin);
+        if (!(plugin.getClass().getClassLoader() instanceof PluginClassLoader pluginLoader)
+                || pluginLoader.getDefinedClasses() == null) {
+            throw new IllegalStateException("Plugin was not loaded from its JAR: " + name);
+        }
+        List<String> classes = pluginLoader.getDefinedClasses();
+        pluginLoader.close();
+
+        String jarFile = (String) config.get("jar");
+        JarRepacker.Stats stats;
+        try (RegistryLock lock = RegistryLock.acquire(configDir)) {
+            Path original = originalDir.resolve(jarFile);
+            if (!Files.exists(original)) {
+                Files.createDirectories(originalDir);
+                replaceAtomically(pluginDir.resolve(jarFile), original);
+            }
+            JarRepacker.writeProfile(originalDir.resolve(jarFile + JarRepacker.PROFILE_SUFFIX), classes);
+            stats = repackJar(jarFile, (String) config.get("class"));
+            HelpCache.refresh(List.of(name));
+        }
+
+        System.out.println("✓ Trained plugin: " + name + " (" + classes.size() + " classes used)");
+        printRepackStats(jarFile, stats);
+        return exitCode;
+    }
+
+    /**
+     * Put back the JAR a repacked plugin was installed from.
+     */
+    public void rollbackPlugin(String name) throws IOException {
+        try (RegistryLock lock = RegistryLock.acquire(configDir)) {
+            Map<String, Map<String, String>> registry = shards != null ? null : loadRegistry();
+            Map<String, ?> pluginInfo = findEntry(name, registry);
+            if (pluginInfo == null) {
+                throw new IllegalStateException("Plugin not found: " + name);
+            }
+
+            String jarFile = (String) pluginInfo.get("jar");
+            Path original = originalDir.resolve(jarFile);
+            if (!Files.exists(original)) {
+                throw new IllegalStateException("Plugin was not repacked, there is nothing to roll back: " + name);
+            }
+            Files.move(original, pluginDir.resolve(jarFile), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            HelpCache.refresh(List.of(name));
+        }
+
+        System.out.println("✓ Rolled back plugin: " + name + " (original JAR restored)");
+        AppCds.markStale();
+    }
+
+    /**
+     * Install or update every plugin JAR in a directory in one operation.
+     * JARs are validated and their metadata extracted in parallel; only JARs that differ
+     * from the installed copy (size and mtime, then SHA-256) are copied, and the registry
+     * is read and written once, under the registry lock.
+     *
+     * @param dir Directory of plugin JARs (named by Jex-Plugin-Name, else by file name without version)
+     * @param prune Also uninstall registered plugins that have no JAR in the directory (skipped if any JAR failed)
+     * @param repack Repack the JARs that are copied (see JarRepacker)
+     * @return true if every JAR was synced
+     */
+    public boolean syncPlugins(Path dir, boolean prune, boolean repack) throws IOException {
+        if (!Files.isDirectory(dir)) {
+            throw new FileNotFoundException("Directory not found: " + dir);
+        }
+
+        List<Path> jars = new ArrayList<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(dir, "*.jar")) {
+            for (Path jar : stream) {
+                if (Files.isRegularFile(jar)) {
+                    jars.add(jar);
+                }
+            }
+        }
+        Collections.sort(jars);
+
+        // Validate and extract metadata outside the lock; unchanged JARs reuse their registry entry
+        Map<String, String> registeredJars = new HashMap<>();
+        for (Map.Entry<String, ? extends Map<String, ?>> entry : loadAllEntries().entrySet()) {
+            registeredJars.put(String.valueOf(entry.getValue().get("jar")), entry.getKey());
+        }
+        List<SyncItem> items = jars.parallelStream()
+                .map(jar -> prepareSync(jar, registeredJars))
+                .toList();
+
+        boolean ok = true;
+        int installed = 0, updated = 0, unchanged = 0, removed = 0;
+
+        try (RegistryLock lock = RegistryLock.acquire(configDir)) {
+            Map<String, Map<String, String>> registry = loadAllEntries();
+            Set<String> synced = new HashSet<>();
+            List<String> changed = new ArrayList<>();
+
+            for (SyncItem item : items) {
+                if (item.error() == null && item.metadata() == null && !registry.containsKey(item.name())) {
+                    // Uninstalled since the JAR was checked: prepare it again as a new plugin
+                    item = prepareSync(item.source(), Collections.emptyMap());
+                }
+                if (item.error() != null) {
+                    System.err.println("Error: " + item.source().getFileName() + ": " + item.error());
+                    ok = false;
+                    continue;
+                }
+                if (!synced.add(item.name())) {
+                    System.err.println("Error: " + item.source().getFileName() + ": another JAR in "
+                            + dir + " is already plugin " + item.name());
+                    ok = false;
+                    continue;
+                }
+
+                if (item.hashedTime() != null) {
+                    copyTimeIfUnchanged(item);
+                }
+
+                Map<String, String> existing = registry.get(item.name());
+                if (item.metadata() == null) {
+                    unchanged++;
+                    continue;
+                }
+
+                PluginMetadata metadata = item.metadata();
+                try {
+                    installSharedLibraries(metadata);
+                } catch (IOException e) {
+                    System.err.println("Error: " + item.source().getFileName() + ": " + e.getMessage());
+                    ok = false;
+                    continue;
+                }
+                if (item.jarChanged()) {
+                    try {
+                        installJar(item.source(), metadata, repack);
+                    } catch (IOException e) {
+                        System.err.println("Error: " + item.source().getFileName() + ": " + e.getMessage());
+                        // A copied original whose repack failed must not make the next sync skip the JAR
+                        try {
+                            Files.deleteIfExists(originalDir.resolve(metadata.getJarFile()));
+                        } catch (IOException ignored) {
+                            // The next sync compares against it and may skip the JAR
+                        }
+                        ok = false;
+                        continue;
+                    }
+                }
+                Map<String, String> entry = toEntry(metadata, existing);
+                if (!item.jarChanged() && entry.equals(existing)) {
+                    unchanged++;
+                    continue;
+                }
+
+                registry.put(item.name(), entry);
+                if (shards != null) {
+                    shards.put(item.name(), entry);
+                }
+                if (existing != null && !metadata.getJarFile().equals(existing.get("jar"))) {
+                    deleteJarIfUnused(existing.get("jar"), registry);
+                }
+                System.out.println("✓ " + (existing != null ? "Updated" : "Installed") + " plugin: " + item.name());
+                changed.add(item.name());
+                if (existing != null) {
+                    updated++;
+                } else {
+                    installed++;
+                }
+            }
+
+            // A JAR that failed may be the new version of an installed plugin: keep everything then
+            if (prune && !ok) {
+                System.err.println("Warning: Not pruning, as some JARs in " + dir + " could not be synced");
+            } else if (prune) {
+                for (String name : new ArrayList<>(registry.keySet())) {
+                    if (synced.contains(name) || name.equals(Install.DEVTOOLS_PLUGIN)) {
+                        continue;
+                    }
+                    Map<String, String> stale = registry.remove(name);
+                    if (shards != null) {
+                        shards.remove(name);
+                    }
+                    deleteJarIfUnused(stale.get("jar"), registry);
+                    System.out.println("✓ Uninstalled plugin: " + name);
+                    removed++;
+                }
+            }
+
+            if (installed + updated + removed > 0) {
+                if (shards == null) {
+                    saveRegistry(registry);
+                }
+                HelpCache.refresh(changed);
+            }
+        }
+
+        System.out.println("Synced " + dir + ": " + installed + " installed, " + updated + " updated, "
+                + unchanged + " unchanged" + (prune ? ", " + removed + " removed" : ""));
+        if (installed + updated + removed > 0) {
+            AppCds.markStale();
+        }
+        return ok;
+    }
+
+    // PRIVATE HELPERS
+
+    /**
+     * Work out what a sync has to do for one JAR. Runs in parallel, without the registry lock.
+     */
+    private SyncItem prepareSync(Path jar, Map<String, String> registeredJars) {
+        String jarFile = jar.getFileName().toString();
+        try {
+            Path installed = installedCopy(jarFile);
+            FileTime installedTime = Files.exists(installed) ? Files.getLastModifiedTime(installed) : null;
+            boolean jarChanged = !sameContent(jar, installed);
+            FileTime hashedTime = !jarChanged && !installedTime.equals(Files.getLastModifiedTime(jar)) ? installedTime : null;
+            String registeredName = registeredJars.get(jarFile);
+            if (!jarChanged && registeredName != null) {
+                return new SyncItem(jar, registeredName, null, false, null, hashedTime);
+            }
+
+            PluginDescriptor descriptor = readDescriptor(jar);
+            String name = descriptor.name() != null ? descriptor.name()
+                    : VERSION_SUFFIX.matcher(jarFile.substring(0, jarFile.length() - ".jar".length())).replaceFirst("");
+            return new SyncItem(jar, name, toMetadata(name, jar, descriptor), jarChanged, null, hashedTime);
+        } catch (IOException | RuntimeException e) {
+            return new SyncItem(jar, null, null, false, e.getMessage(), null);
+        }
+    }
+
+    /**
+     * The copy a source JAR is compared with: a repacked plugin's original, else the installed JAR.
+     */
+    private Path installedCopy(String jarFile) {
+        Path original = originalDir.resolve(jarFile);
+        return Files.exists(original) ? original : pluginDir.resolve(jarFile);
+    }
+
+    /**
+     * Give an installed JAR that matched its source by hash the source's mtime, so the next sync
+     * takes the fast path; skipped if it was replaced since it was hashed. Call with the registry lock held.
+     */
+    private void copyTimeIfUnchanged(SyncItem item) throws IOException {
+        Path installed = installedCopy(item.source().getFileName().toString());
+        if (Files.exists(installed) && item.hashedTime().equals(Files.getLastModifiedTime(installed))) {
+            Files.setLastModifiedTime(installed, Files.getLastModifiedTime(item.source()));
+        }
+    }
+
+    /**
+     * Check whether an installed JAR matches its source: same size and mtime, or else same SHA-256.
+     */
+    private static boolean sameContent(Path source, Path installed) throws IOException {
+        if (!Files.exists(installed) || Files.size(source) != Files.size(installed)) {
+            return false;
+        }
+        FileTime sourceTime = Files.getLastModifiedTime(source);
+        if (sourceTime.equals(Files.getLastModifiedTime(installed))) {
+            return true;
+        }
+        return Arrays.equals(sha256(source), sha256(installed));
+    }
+
+    private static byte[] sha256(Path file) throws IOException {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+        byte[] buffer = new byte[64 * 1024];
+        try (InputStream in = Files.newInputStream(file)) {
+            int read;
+            while ((read = in.read(buffer)) > 0) {
+                digest.update(buffer, 0, read);
+            }
+        }
+        return digest.digest();
+    }
+
+    /**
+     * Delete a plugin JAR unless another registry entry still points at it.
+     */
+    private void deleteJarIfUnused(String jarFile, Map<String, Map<String, String>> registry) throws IOException {
+        if (jarFile == null) {
+            return;
+        }
+        for (Map<String, String> entry : registry.values()) {
+            if (jarFile.equals(entry.get("jar"))) {
+                return;
+            }
+        }
+        deleteJar(jarFile);
+    }
+
+    /**
+     * Delete a plugin JAR with its original and class order profile, if it was repacked.
+     */
+    private void deleteJar(String jarFile) throws IOException {
+        Files.deleteIfExists(pluginDir.resolve(jarFile));
+        Files.deleteIfExists(originalDir.resolve(jarFile));
+        Files.deleteIfExists(originalDir.resolve(jarFile + JarRepacker.PROFILE_SUFFIX));
+    }
+
+    /**
+     * Copy a plugin JAR into the plugins directory. With repack, or if the plugin was repacked
+     * before, the JAR is kept in plugins/original and the installed copy is repacked from it.
+     *
+     * @return The repack counts, or null if the JAR was copied as is
+     */
+    private JarRepacker.Stats installJar(Path source, PluginMetadata metadata, boolean repack) throws IOException {
+        String jarFile = metadata.getJarFile();
+        Path original = originalDir.resolve(jarFile);
+        if (!repack && !Files.exists(original)) {
+            replaceAtomically(source, pluginDir.resolve(jarFile));
+            return null;
+        }
+
+        Files.createDirectories(originalDir);
+        replaceAtomically(source, original);
+        return repackJar(jarFile, metadata.getClassName());
+    }
+
+    /**
+     * Repack plugins/original/&lt;jar&gt; over plugins/&lt;jar&gt;, in the order of its class
+     * profile from a training run, or with just the plugin class first if there is none.
+     */
+    private JarRepacker.Stats repackJar(String jarFile, String pluginClass) throws IOException {
+        List<String> order = JarRepacker.readProfile(originalDir.resolve(jarFile + JarRepacker.PROFILE_SUFFIX));
+        if (order.isEmpty() && pluginClass != null) {
+            order = List.of(pluginClass);
+        }
+
+        Path dest = pluginDir.resolve(jarFile);
+        Path temp = Files.createTempFile(pluginDir, jarFile, ".tmp");
+        try {
+            JarRepacker.Stats stats = JarRepacker.repack(originalDir.resolve(jarFile), temp, order);
+            Files.move(temp, dest, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            return stats;
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    private static void printRepackStats(String jarFile, JarRepacker.Stats stats) {
+        if (stats != null) {
+            System.out.println("  Repacked " + jarFile + ": " + stats.classes() + " classes stored uncompressed ("
+                    + stats.profiled() + " in first-use order), " + stats.dropped() + " entries dropped");
+        }
+    }
+
+    /**
+     * Every registry entry, from plugin.d or plugin.yaml.
+     */
+    @SuppressWarnings("unchecked")
+    private Map<String, Map<String, String>> loadAllEntries() throws IOException {
+        Map<String, Map<String, String>> registry = new LinkedHashMap<>();
+        if (shards != null) {
+            migrateToShards();
+            for (Map.Entry<String, Map<String, Object>> entry : shards.loadAll().entrySet()) {
+                registry.put(entry.getKey(), (Map<String, String>) (Map<String, ?>) entry.getValue());
+            }
+            return registry;
+        }
+        registry.putAll(loadRegistry());
+        registry.entrySet().removeIf(entry -> entry.getValue() == null);
+        return registry;
+    }
+
+    /**
+     * Shared logic for install and update.
+     */
+    private void installOrUpdatePlugin(String name, String jarPath, boolean mustExist, boolean repack) throws IOException {
+        // Validate JAR exists
+        Path sourceJar = Paths.get(jarPath);
+        if (!Files.exists(sourceJar)) {
+            throw new FileNotFoundException("JAR file not found: " + jarPath);
+        }
+
+        // Extract metadata (reads only the source JAR, so it runs outside the lock)
+        PluginMetadata metadata = extractMetadata(name, sourceJar);
+
+        JarRepacker.Stats stats;
+        try (RegistryLock lock = RegistryLock.acquire(configDir)) {
+            Map<String, Map<String, String>> registry = shards != null ? null : loadRegistry();
+
+            // Check existence
+            Map<String, ?> existing = findEntry(name, registry);
+            boolean exists = existing != null;
+
+            if (mustExist && !exists) {
+                throw new IllegalStateException("Plugin not found: " + name);
+            }
+            if (!mustExist && exists) {
+                throw new IllegalStateException("Plugin already installed: " + name);
+            }
+
+            // Copy shared libraries, then the JAR
+            installSharedLibraries(metadata);
+            stats = installJar(sourceJar, metadata, repack);
+
+            // Update registry
+            addToRegistry(metadata, existing, registry);
+            HelpCache.refresh(List.of(name));
+        }
+
+        System.out.println("✓ " + (mustExist ? "Updated" : "Installed") + " plugin: " + name);
+        printRepackStats(metadata.getJarFile(), stats);
+        AppCds.markStale();
+    }
+
+    /**
+     * Extract plugin metadata from the JAR's descriptor (manifest or service file).
+     * Only a JAR without one is scanned by loading its classes, which runs plugin code.
+     */
+    private PluginMetadata extractMetadata(String name, Path jarPath) throws IOException {
+        return toMetadata(name, jarPath, readDescriptor(jarPath));
+    }
+
+    private static PluginDescriptor readDescriptor(Path jarPath) throws IOException {
+        try {
+            return PluginDescriptor.read(jarPath);
+        } catch (IOException e) {
+            throw new IOException("Invalid plugin JAR: " + e.getMessage(), e);
+        }
+    }
+
+    private PluginMetadata toMetadata(String name, Path jarPath, PluginDescriptor descriptor) throws IOException {
+        String className = descriptor.className();
+        if (className == null) {
+            System.out.println("No " + PluginDescriptor.CLASS_ATTRIBUTE + " in the JAR manifest, scanning classes...");
+            className = scanForPluginClass(jarPath);
+        }
+
+        String jarFile = jarPath.getFileName().toString();
+        String version = descriptor.version() != null ? descriptor.version() : "1.0.0";
+        String description = descriptor.description() != null ? descriptor.description() : "A Jex plugin";
+
+        return new PluginMetadata(name, jarFile, className, version, description, descriptor.sharedLibraries());
+    }
+
+    /**
+     * Fallback for JARs without a descriptor: find the plugin class from the class file
+     * headers, then instantiate that one class to check it loads (its loader is closed after).
+     */
+    private String scanForPluginClass(Path jarPath) throws IOException {
+        try {
+            JexPlugin plugin = JexUtil.findPluginInJar(jarPath);
+
+            if (plugin == null) {
+                throw new IOException("No JexPlugin implementation found in JAR");
+            }
+            if (plugin.getClass().getClassLoader() instanceof URLClassLoader loader) {
+                loader.close();
+            }
+            return plugin.getClass().getName();
+
+        } catch (Exception e) {
+            throw new IOException("Invalid plugin JAR: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Copy a file over its destination through a temp file in the same directory and an
+     * atomic rename, so a running plugin never sees a half-copied JAR. The mtime is kept
+     * so syncs can tell an unchanged JAR by size and mtime.
+     */
+    private static void replaceAtomically(Path source, Path dest) throws IOException {
+        Path temp = Files.createTempFile(dest.getParent(), dest.getFileName().toString(), ".tmp");
+        try {
+            Files.copy(source, temp, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.COPY_ATTRIBUTES);
+            Files.move(temp, dest, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    /**
+     * Look up one registry entry.
+     * With the sharded layout, plugin.yaml entries are migrated into plugin.d first,
+     * so only the plugin's own shard is read.
+     *
+     * @param registry The plugin.yaml registry read under the lock (null with the sharded layout)
+     */
+    private Map<String, ?> findEntry(String name, Map<String, Map<String, String>> registry) throws IOException {
+        if (shards != null) {
+            migrateToShards();
+            return shards.get(name);
+        }
+        return registry.get(name);
+    }
+
+    /**
+     * Move any entries still in plugin.yaml into plugin.d shards (one-time, after plugin.d is created).
+     */
+    private void migrateToShards() throws IOException {
+        Map<String, Map<String, String>> registry = loadRegistry();
+        registry.entrySet().removeIf(entry -> entry.getValue() == null);
+        if (registry.isEmpty()) {
+            return;
+        }
+
+        for (Map.Entry<String, Map<String, String>> entry : registry.entrySet()) {
+            if (shards.get(entry.getKey()) == null) {
+                shards.put(entry.getKey(), entry.getValue());
+            }
+        }
+        saveRegistry(new LinkedHashMap<>());
+        System.out.println("Migrated " + registry.size() + " plugin(s) from plugin.yaml to " + shards.getDirectory());
+    }
+
+    /**
+     * Load plugin registry from YAML file.
+     */
+    private Map<String, Map<String, String>> loadRegistry() throws IOException {
+        if (!Files.exists(registryFile)) {
+            return new LinkedHashMap<>();
+        }
+
+        Yaml yaml = new Yaml();
+        try (InputStream input = Files.newInputStream(registryFile)) {
+            Map<String, Map<String, String>> registry = yaml.load(input);
+            return registry != null ? registry : new LinkedHashMap<>();
+        }
+    }
+
+    /**
+     * Save plugin registry to YAML file and refresh its binary snapshot.
+     * The file is written to a temp file and renamed over plugin.yaml, so readers
+     * see either the old or the new registry, never a partial one.
+     */
+    private void saveRegistry(Map<String, Map<String, String>> registry) throws IOException {
+        Yaml yaml = new Yaml();
+        Path temp = Files.createTempFile(configDir, registryFile.getFileName().toString(), ".tmp");
+        try {
+            try (Writer writer = Files.newBufferedWriter(temp)) {
+                yaml.dump(registry, writer);
+            }
+            Files.move(temp, registryFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+        RegistryCache.write(registryFile, RegistryCache.stamp(registryFile), registry);
+    }
+
+    /**
+     * Add or update plugin entry in registry.
+     */
+    private void addToRegistry(PluginMetadata metadata, Map<String, ?> existing,
+                               Map<String, Map<String, String>> registry) throws IOException {
+        Map<String, String> pluginEntry = toEntry(metadata, existing);
+
+        if (shards != null) {
+            shards.put(metadata.getName(), pluginEntry);
+            return;
+        }
+
+        registry.put(metadata.getName(), pluginEntry);
+        saveRegistry(registry);
+    }
+
+    private static Map<String, String> toEntry(PluginMetadata metadata) {
+        Map<String, String> pluginEntry = new LinkedHashMap<>();
+        pluginEntry.put("jar", metadata.getJarFile());
+        pluginEntry.put("class", metadata.getClassName());
+        pluginEntry.put("version", metadata.getVersion());
+        pluginEntry.put("description", metadata.getDescription());
+        if (!metadata.getSharedLibraries().isEmpty()) {
+            pluginEntry.put(SharedLibraries.REGISTRY_KEY, String.join(", ", metadata.getSharedLibraries()));
+        }
+        return pluginEntry;
+    }
+
+    /**
+     * Build the entry of an updated plugin, keeping the declared settings of its existing entry.
+     */
+    @SuppressWarnings("unchecked")
+    private static Map<String, String> toEntry(PluginMetadata metadata, Map<String, ?> existing) {
+        Map<String, String> pluginEntry = toEntry(metadata);
+        if (existing != null) {
+            // Declared settings may be maps or lists
+            Map<String, Object> entry = (Map<String, Object>) (Map<String, ?>) pluginEntry;
+            for (String key : DECLARED_SETTINGS) {
+                if (existing.get(key) != null) {
+                    entry.put(key, existing.get(key));
+                }
+            }
+        }
+        return pluginEntry;
+    }
+
+    /**
+     * Copy the plugin's shared libraries that are not in the shared directory yet from the
+     * local Maven repository. Installed versions are never replaced; they are immutable.
+     */
+    private void installSharedLibraries(PluginMetadata metadata) throws IOException {
+        for (String coordinate : metadata.getSharedLibraries()) {
+            Path dest = SharedLibraries.jarPath(coordinate);
+            if (Files.exists(dest)) {
+                continue;
+            }
+            Path source = SharedLibraries.localRepositoryJar(coordinate);
+            if (!Files.exists(source)) {
+                throw new FileNotFoundException("Shared library " + coordinate
+                        + " is neither installed nor in the local Maven repository (" + source + ")");
+            }
+            Files.createDirectories(dest.getParent());
+            replaceAtomically(source, dest);
+            System.out.println("✓ Installed shared library: " + coordinate);
+        }
+    }
+
+    /**
+     * Remove plugin entry from registry.
+     */
+    private void removeFromRegistry(String name, Map<String, Map<String, String>> registry) throws IOException {
+        if (shards != null) {
+            shards.remove(name);
+            return;
+        }
+
+        registry.remove(name);
+        saveRegistry(registry);
+    }
+}
\ No newline at end of file
@@ -1,5 +1,7 @@
 package org.jex.cli;
 
+import java.util.List;
+
 /**
  * Immutable data class representing plugin metadata.
  */
@@ -9,14 +11,21 @@ public class PluginMetadata {
     private final String className;
     private final String version;
     private final String description;
+    private final List<String> sharedLibraries;
 
     public PluginMetadata(String name, String jarFile, String className,
                           String version, String description) {
+        this(name, jarFile, className, version, description, List.of());
+    }
+
+    public PluginMetadata(String name, String jarFile, String className,
+                          String version, String description, List<String> sharedLibraries) {
         this.name = name;
         this.jarFile = jarFile;
         this.className = className;
         this.version = version;
         this.description = description;
+        this.sharedLibraries = sharedLibraries;
     }
 
     public String getName() {
@@ -38,4 +47,8 @@ public class PluginMetadata {
     public String getDescription() {
         return description;
     }
+
+    public List<String> getSharedLibraries() {
+        return sharedLibraries;
+    }
 }
\ No newline at end of file
@@ -0,0 +1,144 @@
+package org.jex.cli;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.WeakHashMap;
+
+/**
+ * Runs a plugin invocation and maps the outcome to an exit code.
+ *
+ * JexPluginV2 plugins are initialized once per process (and closed at shutdown or when
+ * reloaded, once their in-flight runs have finished); legacy JexPlugin plugins succeed
+ * unless they exit through ExitTrap.
+ */
+final class PluginRunner {
+
+    private static final Set<JexPluginV2> INITIALIZED = Collections.newSetFromMap(new IdentityHashMap<>());
+
+    // Runs in progress per plugin, and plugins that were replaced; both guarded by INITIALIZED
+    private static final Map<JexPluginV2, Integer> RUNNING = new IdentityHashMap<>();
+    private static final Set<JexPluginV2> REPLACED = Collections.newSetFromMap(new WeakHashMap<>());
+
+    private static boolean shutdownHookAdded;
+
+    // Prevent instantiation
+    private PluginRunner() {
+        throw new AssertionError("PluginRunner is a utility class and should not be instantiated");
+    }
+
+    /**
+     * Run one invocation.
+     *
+     * @return Exit code
+     */
+    static int run(JexPlugin plugin, String[] args) {
+        try {
+            if (plugin instanceof JexPluginV2 v2) {
+                synchronized (INITIALIZED) {
+                    RUNNING.merge(v2, 1, Integer::sum);
+                }
+                try {
+                    if (!initialize(v2)) {
+                        return 1;
+                    }
+                    return v2.run(args);
+                } finally {
+                    finished(v2);
+                }
+            }
+            plugin.execute(args);
+            return 0;
+        } catch (PluginExit e) {
+            return e.getExitCode();
+        }
+    }
+
+    /**
+     * Initialize a plugin ahead of its first run (e.g. to start its worker JVMs early).
+     *
+     * @return false if initialization failed
+     */
+    static boolean prepare(JexPlugin plugin) {
+        return !(plugin instanceof JexPluginV2 v2) || initialize(v2);
+    }
+
+    /**
+     * Close a plugin that is being replaced (e.g. its JAR was updated). If other threads are
+     * still running it, it is closed when the last of those runs finishes.
+     */
+    static void close(JexPlugin plugin) {
+        if (plugin instanceof JexPluginV2 v2) {
+            boolean initialized;
+            synchronized (INITIALIZED) {
+                REPLACED.add(v2);
+                initialized = !RUNNING.containsKey(v2) && INITIALIZED.remove(v2);
+            }
+            if (initialized) {
+                closeQuietly(v2);
+            }
+        }
+    }
+
+    private static void finished(JexPluginV2 plugin) {
+        boolean initialized;
+        synchronized (INITIALIZED) {
+            boolean running = RUNNING.compute(plugin, (p, runs) -> runs == 1 ? null : runs - 1) != null;
+            initialized = !running && REPLACED.contains(plugin) && INITIALIZED.remove(plugin);
+        }
+        if (initialized) {
+            closeQuietly(plugin);
+        }
+    }
+
+    private static boolean initialize(JexPluginV2 plugin) {
+        synchronized (plugin) {
+            synchronized (INITIALIZED) {
+                if (INITIALIZED.contains(plugin)) {
+                    return true;
+                }
+            }
+
+            try {
+                plugin.init();
+            } catch (PluginExit e) {
+                System.err.println("Error: Plugin '" + plugin.getName() + "' exited during init (status " + e.getExitCode() + ")");
+                return false;
+            } catch (Exception e) {
+                System.err.println("Error: Plugin '" + plugin.getName() + "' failed to initialize: " + e.getMessage());
+                return false;
+            }
+
+            synchronized (INITIALIZED) {
+                INITIALIZED.add(plugin);
+                if (!shutdownHookAdded) {
+                    Runtime.getRuntime().addShutdownHook(new Thread(PluginRunner::closeAll, "jex-plugin-close"));
+                    shutdownHookAdded = true;
+                }
+            }
+            return true;
+        }
+    }
+
+    private static void closeAll() {
+        List<JexPluginV2> plugins;
+        synchronized (INITIALIZED) {
+            plugins = new ArrayList<>(INITIALIZED);
+            INITIALIZED.clear();
+        }
+        for (JexPluginV2 plugin : plugins) {
+            closeQuietly(plugin);
+        }
+    }
+
+    private static void closeQuietly(JexPluginV2 plugin) {
+        try {
+            plugin.close();
+        } catch (Throwable t) {
+            System.err.println("Warning: Plugin '" + plugin.getName() + "' failed to close: " + t.getMessage());
+        }
+    }
+}
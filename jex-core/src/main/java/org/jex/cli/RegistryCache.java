@@ -0,0 +1,231 @@
+package org.jex.cli;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Compact binary snapshot of plugin.yaml.
+ *
+ * The snapshot lives next to the YAML file (plugin.yaml.cache) and is keyed on the YAML
+ * file's size and modification time. While it is fresh, the registry can be read without
+ * loading SnakeYAML at all; a stale or missing snapshot simply means "parse the YAML".
+ */
+public class RegistryCache {
+
+    private static final int MAGIC = 0x4A455852; // "JEXR"
+    private static final int FORMAT_VERSION = 1;
+    private static final String SUFFIX = ".cache";
+
+    // Value tags
+    private static final byte NULL = 0;
+    private static final byte STRING = 1;
+    private static final byte BOOLEAN = 2;
+    private static final byte INTEGER = 3;
+    private static final byte LONG = 4;
+    private static final byte DOUBLE = 5;
+    private static final byte LIST = 6;
+    private static final byte MAP = 7;
+
+    /**
+     * Size and modification time of a registry file, used as the snapshot key.
+     */
+    public record Stamp(long size, long lastModified) {
+    }
+
+    // Prevent instantiation
+    private RegistryCache() {
+        throw new AssertionError("RegistryCache is a utility class and should not be instantiated");
+    }
+
+    /**
+     * Get the snapshot path for a registry file (plugin.yaml -> plugin.yaml.cache).
+     */
+    public static Path snapshotPath(Path yamlFile) {
+        return yamlFile.resolveSibling(yamlFile.getFileName() + SUFFIX);
+    }
+
+    /**
+     * Get the current stamp of a file, or null if it does not exist.
+     */
+    public static Stamp stamp(Path file) {
+        try {
+            BasicFileAttributes attrs = Files.readAttributes(file, BasicFileAttributes.class);
+            return new Stamp(attrs.size(), attrs.lastModifiedTime().toMillis());
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Read the snapshot for a registry file.
+     *
+     * @param yamlFile Path to plugin.yaml
+     * @param stamp Current stamp of plugin.yaml
+     * @return The registry, or null if the snapshot is missing, stale or unreadable
+     */
+    @SuppressWarnings("unchecked")
+    public static Map<String, Map<String, Object>> read(Path yamlFile, Stamp stamp) {
+        if (stamp == null) {
+            return null;
+        }
+
+        try {
+            byte[] bytes = Files.readAllBytes(snapshotPath(yamlFile));
+            DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes));
+
+            if (in.readInt() != MAGIC || in.readInt() != FORMAT_VERSION) {
+                return null;
+            }
+            if (in.readLong() != stamp.size() || in.readLong() != stamp.lastModified()) {
+                return null;
+            }
+
+            Object registry = readValue(in);
+            return registry instanceof Map ? (Map<String, Map<String, Object>>) registry : null;
+        } catch (IOException | RuntimeException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Write the snapshot for a registry file. Best effort: failures are ignored and only
+     * mean the next run parses the YAML again.
+     *
+     * @param yamlFile Path to plugin.yaml
+     * @param stamp Stamp of plugin.yaml at the time the registry was read or written
+     * @param registry Registry contents
+     */
+    public static void write(Path yamlFile, Stamp stamp, Map<String, ? extends Map<String, ?>> registry) {
+        if (stamp == null || registry == null) {
+            return;
+        }
+
+        Path snapshot = snapshotPath(yamlFile);
+        Path temp = null;
+        try {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            DataOutputStream out = new DataOutputStream(bytes);
+            out.writeInt(MAGIC);
+            out.writeInt(FORMAT_VERSION);
+            out.writeLong(stamp.size());
+            out.writeLong(stamp.lastModified());
+
+            // Same filtering as PluginLoader: entries without a body are dropped
+            Map<String, Object> filtered = new LinkedHashMap<>();
+            for (Map.Entry<String, ? extends Map<String, ?>> entry : registry.entrySet()) {
+                if (entry.getValue() != null) {
+                    filtered.put(entry.getKey(), entry.getValue());
+                }
+            }
+            writeValue(out, filtered);
+            out.flush();
+
+            temp = Files.createTempFile(snapshot.getParent(), snapshot.getFileName().toString(), ".tmp");
+            Files.write(temp, bytes.toByteArray());
+            Files.move(temp, snapshot, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException | RuntimeException e) {
+            // Unsupported value types or I/O errors: drop the snapshot so it can't be stale
+            try {
+                if (temp != null) {
+                    Files.deleteIfExists(temp);
+                }
+                Files.deleteIfExists(snapshot);
+            } catch (IOException ignored) {
+                // Nothing more we can do
+            }
+        }
+    }
+
+    /**
+     * Encode a YAML-style value (null, String, Boolean, Integer, Long, Double, List, Map).
+     */
+    static void writeValue(DataOutputStream out, Object value) throws IOException {
+        if (value == null) {
+            out.writeByte(NULL);
+        } else if (value instanceof String s) {
+            out.writeByte(STRING);
+            out.writeUTF(s);
+        } else if (value instanceof Boolean b) {
+            out.writeByte(BOOLEAN);
+            out.writeBoolean(b);
+        } else if (value instanceof Integer i) {
+            out.writeByte(INTEGER);
+            out.writeInt(i);
+        } else if (value instanceof Long l) {
+            out.writeByte(LONG);
+            out.writeLong(l);
+        } else if (value instanceof Double d) {
+            out.writeByte(DOUBLE);
+            out.writeDouble(d);
+        } else if (value instanceof List<?> list) {
+            out.writeByte(LIST);
+            out.writeInt(list.size());
+            for (Object item : list) {
+                writeValue(out, item);
+            }
+        } else if (value instanceof Map<?, ?> map) {
+            out.writeByte(MAP);
+            out.writeInt(map.size());
+            for (Map.Entry<?, ?> entry : map.entrySet()) {
+                if (!(entry.getKey() instanceof String key)) {
+                    throw new IllegalArgumentException("Unsupported registry key: " + entry.getKey());
+                }
+                out.writeUTF(key);
+                writeValue(out, entry.getValue());
+            }
+        } else {
+            throw new IllegalArgumentException("Unsupported registry value type: " + value.getClass().getName());
+        }
+    }
+
+    /**
+     * Decode a value written by {@link #writeValue(DataOutputStream, Object)}.
+     */
+    static Object readValue(DataInputStream in) throws IOException {
+        byte tag = in.readByte();
+        switch (tag) {
+            case NULL:
+                return null;
+            case STRING:
+                return in.readUTF();
+            case BOOLEAN:
+                return in.readBoolean();
+            case INTEGER:
+                return in.readInt();
+            case LONG:
+                return in.readLong();
+            case DOUBLE:
+                return in.readDouble();
+            case LIST: {
+                int size = in.readInt();
+                List<Object> list = new ArrayList<>(size);
+                for (int i = 0; i < size; i++) {
+                    list.add(readValue(in));
+                }
+                return list;
+            }
+            case MAP: {
+                int size = in.readInt();
+                Map<String, Object> map = new LinkedHashMap<>();
+                for (int i = 0; i < size; i++) {
+                    String key = in.readUTF();
+                    map.put(key, readValue(in));
+                }
+                return map;
+            }
+            default:
+                throw new IOException("Corrupt registry snapshot (unknown tag " + tag + ")");
+        }
+    }
+}
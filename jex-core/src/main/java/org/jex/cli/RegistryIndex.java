@@ -0,0 +1,387 @@
+package org.jex.cli;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Memory-mapped open-addressing hash index from plugin name to a compiled copy of its
+ * registry entry, used by the sharded plugin.d/ layout.
+ *
+ * File layout (big endian):
+ * <pre>
+ *   header   magic, version, slotCount, liveCount, usedSlots, dataEnd (long), garbage (int)
+ *   slots    slotCount x [hash int][record offset long][record length int]
+ *   records  [name UTF][shard size long][shard mtime long][entry value]
+ * </pre>
+ * A slot with offset 0 is empty, a slot with length -1 is a tombstone. Updates append a
+ * record and rewrite one slot; the file is rebuilt when the table fills up or too much of
+ * the data area is dead.
+ */
+public class RegistryIndex {
+
+    static final String FILE_NAME = "index.bin";
+
+    private static final int MAGIC = 0x4A455849; // "JEXI"
+    private static final int FORMAT_VERSION = 1;
+    private static final int HEADER_SIZE = 32;
+    private static final int SLOT_SIZE = 16;
+    private static final int MIN_SLOTS = 64;
+    private static final int MIN_GARBAGE_TO_COMPACT = 64 * 1024;
+
+    private static final int OFF_MAGIC = 0;
+    private static final int OFF_VERSION = 4;
+    private static final int OFF_SLOTS = 8;
+    private static final int OFF_LIVE = 12;
+    private static final int OFF_USED = 16;
+    private static final int OFF_DATA_END = 20;
+    private static final int OFF_GARBAGE = 28;
+
+    /**
+     * Compiled registry entry together with the stamp of the shard it was compiled from.
+     */
+    public record Entry(RegistryCache.Stamp stamp, Map<String, Object> config) {
+    }
+
+    private final Path file;
+
+    public RegistryIndex(Path file) {
+        this.file = file;
+    }
+
+    public Path getFile() {
+        return file;
+    }
+
+    /**
+     * Look up one plugin. Touches only the header, the probed slots and the matching record.
+     *
+     * @return The entry, or null if absent or the index is missing or corrupt
+     */
+    public Entry get(String name) {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if (!isValid(buffer)) {
+                return null;
+            }
+            int slot = findSlot(buffer, name);
+            if (slot < 0) {
+                return null;
+            }
+            int pos = slotPosition(slot);
+            Record record = readRecord(buffer, buffer.getLong(pos + 4), buffer.getInt(pos + 12));
+            return record.entry();
+        } catch (IOException | RuntimeException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Read all live entries.
+     *
+     * @return Map of plugin name to entry, or null if the index is missing or corrupt
+     */
+    public Map<String, Entry> readAll() {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if (!isValid(buffer)) {
+                return null;
+            }
+            return readLive(buffer);
+        } catch (IOException | RuntimeException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Add or replace one entry: appends a record and rewrites its slot.
+     *
+     * @throws IOException if the index is missing or corrupt (callers rebuild it)
+     */
+    public void put(String name, RegistryCache.Stamp stamp, Map<String, ?> config) throws IOException {
+        byte[] record = encodeRecord(name, stamp, config);
+
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, channel.size());
+            requireValid(buffer);
+
+            int slots = buffer.getInt(OFF_SLOTS);
+            int live = buffer.getInt(OFF_LIVE);
+            int used = buffer.getInt(OFF_USED);
+            long dataEnd = buffer.getLong(OFF_DATA_END);
+            int garbage = buffer.getInt(OFF_GARBAGE);
+
+            int slot = findSlot(buffer, name);
+            boolean replacing = slot >= 0;
+            if (replacing) {
+                garbage += buffer.getInt(slotPosition(slot) + 12);
+            } else {
+                slot = findFreeSlot(buffer, name);
+                boolean reusesTombstone = buffer.getLong(slotPosition(slot) + 4) != 0;
+                if (!reusesTombstone && (used + 1) * 2 > slots) {
+                    // Table is half full: grow
+                    Map<String, Entry> entries = readLive(buffer);
+                    entries.put(name, new Entry(stamp, toObjectMap(config)));
+                    rebuild(entries);
+                    return;
+                }
+                if (!reusesTombstone) {
+                    used++;
+                }
+                live++;
+            }
+
+            if (garbage > MIN_GARBAGE_TO_COMPACT && garbage > (dataEnd - dataStart(slots)) / 2) {
+                Map<String, Entry> entries = readLive(buffer);
+                entries.put(name, new Entry(stamp, toObjectMap(config)));
+                rebuild(entries);
+                return;
+            }
+
+            // Append the record first so a crash can only leave an unreferenced record behind
+            channel.write(ByteBuffer.wrap(record), dataEnd);
+
+            int pos = slotPosition(slot);
+            buffer.putInt(pos, hash(name));
+            buffer.putLong(pos + 4, dataEnd);
+            buffer.putInt(pos + 12, record.length);
+
+            buffer.putInt(OFF_LIVE, live);
+            buffer.putInt(OFF_USED, used);
+            buffer.putLong(OFF_DATA_END, dataEnd + record.length);
+            buffer.putInt(OFF_GARBAGE, garbage);
+            buffer.force();
+        } catch (NoSuchFileException e) {
+            throw new IOException("Registry index not found: " + file, e);
+        }
+    }
+
+    /**
+     * Remove one entry by turning its slot into a tombstone.
+     *
+     * @throws IOException if the index is missing or corrupt (callers rebuild it)
+     */
+    public void remove(String name) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, channel.size());
+            requireValid(buffer);
+
+            int slot = findSlot(buffer, name);
+            if (slot < 0) {
+                return;
+            }
+
+            int pos = slotPosition(slot);
+            int length = buffer.getInt(pos + 12);
+            buffer.putInt(pos + 12, -1);
+            buffer.putInt(OFF_LIVE, buffer.getInt(OFF_LIVE) - 1);
+            buffer.putInt(OFF_GARBAGE, buffer.getInt(OFF_GARBAGE) + length);
+            buffer.force();
+        } catch (NoSuchFileException e) {
+            throw new IOException("Registry index not found: " + file, e);
+        }
+    }
+
+    /**
+     * Write a fresh index containing exactly the given entries (temp file + atomic rename).
+     */
+    public void rebuild(Map<String, Entry> entries) throws IOException {
+        int slots = MIN_SLOTS;
+        while (entries.size() * 2 >= slots) {
+            slots <<= 1;
+        }
+
+        ByteArrayOutputStream data = new ByteArrayOutputStream();
+        ByteBuffer table = ByteBuffer.allocate(HEADER_SIZE + slots * SLOT_SIZE);
+        long dataStart = dataStart(slots);
+
+        for (Map.Entry<String, Entry> entry : entries.entrySet()) {
+            String name = entry.getKey();
+            byte[] record = encodeRecord(name, entry.getValue().stamp(), entry.getValue().config());
+
+            int mask = slots - 1;
+            int hash = hash(name);
+            for (int i = 0; ; i++) {
+                int pos = slotPosition((hash + i) & mask);
+                if (table.getLong(pos + 4) == 0) {
+                    table.putInt(pos, hash);
+                    table.putLong(pos + 4, dataStart + data.size());
+                    table.putInt(pos + 12, record.length);
+                    break;
+                }
+            }
+            data.write(record);
+        }
+
+        table.putInt(OFF_MAGIC, MAGIC);
+        table.putInt(OFF_VERSION, FORMAT_VERSION);
+        table.putInt(OFF_SLOTS, slots);
+        table.putInt(OFF_LIVE, entries.size());
+        table.putInt(OFF_USED, entries.size());
+        table.putLong(OFF_DATA_END, dataStart + data.size());
+        table.putInt(OFF_GARBAGE, 0);
+
+        Path temp = Files.createTempFile(file.getParent(), FILE_NAME, ".tmp");
+        try {
+            try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.WRITE)) {
+                table.rewind();
+                while (table.hasRemaining()) {
+                    channel.write(table);
+                }
+                ByteBuffer records = ByteBuffer.wrap(data.toByteArray());
+                while (records.hasRemaining()) {
+                    channel.write(records);
+                }
+                channel.force(true);
+            }
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    // PRIVATE HELPERS
+
+    private record Record(String name, Entry entry) {
+    }
+
+    private static boolean isValid(ByteBuffer buffer) {
+        if (buffer.capacity() < HEADER_SIZE
+                || buffer.getInt(OFF_MAGIC) != MAGIC
+                || buffer.getInt(OFF_VERSION) != FORMAT_VERSION) {
+            return false;
+        }
+        int slots = buffer.getInt(OFF_SLOTS);
+        return slots >= MIN_SLOTS
+                && Integer.bitCount(slots) == 1
+                && buffer.getLong(OFF_DATA_END) <= buffer.capacity()
+                && dataStart(slots) <= buffer.capacity();
+    }
+
+    private static void requireValid(ByteBuffer buffer) throws IOException {
+        if (!isValid(buffer)) {
+            throw new IOException("Corrupt registry index");
+        }
+    }
+
+    private static long dataStart(int slots) {
+        return HEADER_SIZE + (long) slots * SLOT_SIZE;
+    }
+
+    private static int slotPosition(int slot) {
+        return HEADER_SIZE + slot * SLOT_SIZE;
+    }
+
+    /**
+     * Spread String.hashCode (stable across JVMs) so linear probing behaves.
+     */
+    private static int hash(String name) {
+        int h = name.hashCode();
+        return h ^ (h >>> 16);
+    }
+
+    /**
+     * Find the live slot holding a name, or -1.
+     */
+    private static int findSlot(ByteBuffer buffer, String name) throws IOException {
+        int slots = buffer.getInt(OFF_SLOTS);
+        int mask = slots - 1;
+        int hash = hash(name);
+
+        for (int i = 0; i < slots; i++) {
+            int pos = slotPosition((hash + i) & mask);
+            long offset = buffer.getLong(pos + 4);
+            if (offset == 0) {
+                return -1;
+            }
+            int length = buffer.getInt(pos + 12);
+            if (length >= 0 && buffer.getInt(pos) == hash
+                    && readRecord(buffer, offset, length).name().equals(name)) {
+                return (hash + i) & mask;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Find the first tombstone or empty slot on a name's probe sequence.
+     */
+    private static int findFreeSlot(ByteBuffer buffer, String name) throws IOException {
+        int slots = buffer.getInt(OFF_SLOTS);
+        int mask = slots - 1;
+        int hash = hash(name);
+
+        for (int i = 0; i < slots; i++) {
+            int slot = (hash + i) & mask;
+            int pos = slotPosition(slot);
+            if (buffer.getLong(pos + 4) == 0 || buffer.getInt(pos + 12) < 0) {
+                return slot;
+            }
+        }
+        throw new IOException("Registry index is full");
+    }
+
+    private static Map<String, Entry> readLive(ByteBuffer buffer) throws IOException {
+        Map<String, Entry> entries = new LinkedHashMap<>();
+        int slots = buffer.getInt(OFF_SLOTS);
+        for (int slot = 0; slot < slots; slot++) {
+            int pos = slotPosition(slot);
+            long offset = buffer.getLong(pos + 4);
+            int length = buffer.getInt(pos + 12);
+            if (offset != 0 && length >= 0) {
+                Record record = readRecord(buffer, offset, length);
+                entries.put(record.name(), record.entry());
+            }
+        }
+        return entries;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Record readRecord(ByteBuffer buffer, long offset, int length) throws IOException {
+        if (offset < HEADER_SIZE || length < 0 || offset + length > buffer.capacity()) {
+            throw new IOException("Corrupt registry index record");
+        }
+        byte[] bytes = new byte[length];
+        buffer.get((int) offset, bytes);
+
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes));
+        String name = in.readUTF();
+        RegistryCache.Stamp stamp = new RegistryCache.Stamp(in.readLong(), in.readLong());
+        Object config = RegistryCache.readValue(in);
+        if (!(config instanceof Map)) {
+            throw new IOException("Corrupt registry index record for " + name);
+        }
+        return new Record(name, new Entry(stamp, (Map<String, Object>) config));
+    }
+
+    private static byte[] encodeRecord(String name, RegistryCache.Stamp stamp, Map<String, ?> config) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeUTF(name);
+        out.writeLong(stamp.size());
+        out.writeLong(stamp.lastModified());
+        try {
+            RegistryCache.writeValue(out, config);
+        } catch (IllegalArgumentException e) {
+            throw new IOException(e.getMessage(), e);
+        }
+        out.flush();
+        return bytes.toByteArray();
+    }
+
+    private static Map<String, Object> toObjectMap(Map<String, ?> config) {
+        return new LinkedHashMap<>(config);
+    }
+}
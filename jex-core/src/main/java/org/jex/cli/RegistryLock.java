@@ -0,0 +1,70 @@
+package org.jex.cli;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Exclusive lock on the plugin registry, held for the whole read-check-write of an
+ * install, update or uninstall.
+ *
+ * Uses an OS file lock on registry.lock in the config directory, so concurrent
+ * jex processes wait for each other. The OS releases the lock when a process dies;
+ * the file itself is left in place and never needs cleaning up. Threads of one JVM
+ * (a daemon) are serialized in-process first, since file locks are per process.
+ */
+final class RegistryLock implements AutoCloseable {
+
+    static final String FILE_NAME = "registry.lock";
+
+    private static final ReentrantLock IN_PROCESS = new ReentrantLock();
+
+    private final FileChannel channel;
+    private final FileLock lock;
+
+    private RegistryLock(FileChannel channel, FileLock lock) {
+        this.channel = channel;
+        this.lock = lock;
+    }
+
+    /**
+     * Acquire the registry lock, waiting for other processes to release it.
+     *
+     * @param configDir Directory holding plugin.yaml / plugin.d
+     */
+    static RegistryLock acquire(Path configDir) throws IOException {
+        IN_PROCESS.lock();
+        FileChannel channel = null;
+        try {
+            Files.createDirectories(configDir);
+            channel = FileChannel.open(configDir.resolve(FILE_NAME),
+                    StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+            FileLock lock = channel.tryLock();
+            if (lock == null) {
+                System.out.println("Waiting for another jex process to finish updating the plugin registry...");
+                lock = channel.lock();
+            }
+            return new RegistryLock(channel, lock);
+        } catch (IOException | RuntimeException e) {
+            if (channel != null) {
+                channel.close();
+            }
+            IN_PROCESS.unlock();
+            throw e;
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            lock.release();
+            channel.close();
+        } finally {
+            IN_PROCESS.unlock();
+        }
+    }
+}
@@ -0,0 +1,208 @@
+package org.jex.cli;
+
+import org.yaml.snakeyaml.DumperOptions;
+import org.yaml.snakeyaml.Yaml;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Writer;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Optional sharded plugin registry: one descriptor per plugin under plugin.d/.
+ *
+ * <pre>
+ * plugin.d/
+ * ├── my-tool.yaml     # jar, class, version, description (same keys as a plugin.yaml entry)
+ * ├── other-tool.yaml
+ * └── index.bin        # memory-mapped name -> compiled entry index (see RegistryIndex)
+ * </pre>
+ *
+ * The layout is enabled by creating the plugin.d directory. A lookup reads one index slot
+ * and stats one shard; SnakeYAML is only needed when a shard was edited by hand.
+ */
+public class ShardedRegistry {
+
+    static final String SHARD_SUFFIX = ".yaml";
+
+    private final Path directory;
+    private final RegistryIndex index;
+
+    public ShardedRegistry(Path directory) {
+        this.directory = directory;
+        this.index = new RegistryIndex(directory.resolve(RegistryIndex.FILE_NAME));
+    }
+
+    /**
+     * Open the sharded registry in the config directory, if the layout is enabled.
+     *
+     * @return The registry, or null if plugin.d does not exist
+     */
+    public static ShardedRegistry open() {
+        Path directory = Paths.get(PathConfig.getPluginShardDirectory());
+        return Files.isDirectory(directory) ? new ShardedRegistry(directory) : null;
+    }
+
+    public Path getDirectory() {
+        return directory;
+    }
+
+    /**
+     * Get one plugin entry.
+     *
+     * @return The entry, or null if there is no shard for the plugin
+     */
+    public Map<String, Object> get(String name) {
+        Path shard = shardPath(name);
+        if (shard == null) {
+            return null;
+        }
+
+        RegistryCache.Stamp stamp = RegistryCache.stamp(shard);
+        if (stamp == null) {
+            return null;
+        }
+
+        RegistryIndex.Entry entry = index.get(name);
+        if (entry != null && entry.stamp().equals(stamp)) {
+            return entry.config();
+        }
+        return parseShard(shard);
+    }
+
+    /**
+     * Load every plugin entry, sorted by name.
+     */
+    public Map<String, Map<String, Object>> loadAll() {
+        Map<String, RegistryIndex.Entry> indexed = index.readAll();
+        if (indexed == null) {
+            indexed = Collections.emptyMap();
+        }
+
+        Map<String, Map<String, Object>> registry = new LinkedHashMap<>();
+        for (String name : listNames()) {
+            Path shard = directory.resolve(name + SHARD_SUFFIX);
+            RegistryIndex.Entry entry = indexed.get(name);
+            Map<String, Object> config = entry != null && entry.stamp().equals(RegistryCache.stamp(shard))
+                    ? entry.config()
+                    : parseShard(shard);
+            if (config != null) {
+                registry.put(name, config);
+            }
+        }
+        return registry;
+    }
+
+    /**
+     * Write one shard and update its index slot.
+     */
+    public void put(String name, Map<String, ?> config) throws IOException {
+        Path shard = shardPath(name);
+        if (shard == null) {
+            throw new IllegalArgumentException("Invalid plugin name for sharded registry: " + name);
+        }
+
+        DumperOptions options = new DumperOptions();
+        options.setDefaultFlowStyle(DumperOptions.FlowStyle.BLOCK);
+        Yaml yaml = new Yaml(options);
+
+        Path temp = Files.createTempFile(directory, name, ".tmp");
+        try {
+            try (Writer writer = Files.newBufferedWriter(temp)) {
+                yaml.dump(config, writer);
+            }
+            Files.move(temp, shard, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+
+        try {
+            index.put(name, RegistryCache.stamp(shard), config);
+        } catch (IOException e) {
+            rebuildIndex();
+        }
+    }
+
+    /**
+     * Delete one shard and tombstone its index slot.
+     *
+     * @return true if the plugin had a shard
+     */
+    public boolean remove(String name) throws IOException {
+        Path shard = shardPath(name);
+        if (shard == null || !Files.deleteIfExists(shard)) {
+            return false;
+        }
+
+        try {
+            index.remove(name);
+        } catch (IOException e) {
+            rebuildIndex();
+        }
+        return true;
+    }
+
+    /**
+     * Rebuild the index from every shard on disk.
+     */
+    public void rebuildIndex() throws IOException {
+        Map<String, RegistryIndex.Entry> entries = new LinkedHashMap<>();
+        for (String name : listNames()) {
+            Path shard = directory.resolve(name + SHARD_SUFFIX);
+            RegistryCache.Stamp stamp = RegistryCache.stamp(shard);
+            Map<String, Object> config = parseShard(shard);
+            if (stamp != null && config != null) {
+                entries.put(name, new RegistryIndex.Entry(stamp, config));
+            }
+        }
+        index.rebuild(entries);
+    }
+
+    // PRIVATE HELPERS
+
+    /**
+     * Resolve the shard file for a plugin name, or null if the name can't be a file name.
+     */
+    private Path shardPath(String name) {
+        if (name == null || name.isEmpty() || name.startsWith(".")
+                || name.contains("/") || name.contains("\\") || name.contains(":")) {
+            return null;
+        }
+        return directory.resolve(name + SHARD_SUFFIX);
+    }
+
+    private List<String> listNames() {
+        List<String> names = new ArrayList<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, "*" + SHARD_SUFFIX)) {
+            for (Path shard : stream) {
+                String fileName = shard.getFileName().toString();
+                names.add(fileName.substring(0, fileName.length() - SHARD_SUFFIX.length()));
+            }
+        } catch (IOException e) {
+            System.err.println("Error listing plugin shards: " + e.getMessage());
+        }
+        Collections.sort(names);
+        return names;
+    }
+
+    @SuppressWarnings("unchecked")
+    private Map<String, Object> parseShard(Path shard) {
+        Yaml yaml = new Yaml();
+        try (InputStream input = Files.newInputStream(shard)) {
+            Object config = yaml.load(input);
+            return config instanceof Map ? (Map<String, Object>) config : null;
+        } catch (Exception e) {
+            System.err.println("Error loading plugin shard " + shard + ": " + e.getMessage());
+            return null;
+        }
+    }
+}
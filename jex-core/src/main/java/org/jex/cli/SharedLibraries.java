@@ -0,0 +1,123 @@
+package org.jex.cli;
+
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+/**
+ * Shared library layer: libraries a plugin declares (Jex-Plugin-Shared) instead of shading them.
+ *
+ * Each library version is stored once as &lt;config&gt;/shared/&lt;groupId&gt;/&lt;artifactId&gt;-&lt;version&gt;.jar.
+ * A library sees Jex's classes and the libraries declared before it, so dependencies are
+ * listed first, as on a class path. It gets one class loader per JVM for each list of
+ * libraries declared before it: plugins declaring the same libraries in the same order share
+ * one definition of its classes, and a plugin declaring a different order never resolves
+ * through another plugin's dependencies.
+ */
+public final class SharedLibraries {
+
+    /**
+     * Registry entry key holding a plugin's shared library coordinates (comma-separated).
+     */
+    public static final String REGISTRY_KEY = "shared";
+
+    private static final Pattern COORDINATE_PART = Pattern.compile("[A-Za-z0-9_.-]+");
+
+    // One loader per library version and the libraries declared before it, per JVM (guarded by itself)
+    private static final Map<String, PluginClassLoader> LOADERS = new HashMap<>();
+
+    // Prevent instantiation
+    private SharedLibraries() {
+        throw new AssertionError("SharedLibraries is a utility class and should not be instantiated");
+    }
+
+    /**
+     * Parse a comma-separated coordinate list, as in the manifest attribute or the registry.
+     *
+     * @return The coordinates in declaration order (empty if value is null or blank)
+     * @throws IllegalArgumentException If a coordinate is not groupId:artifactId:version
+     */
+    public static List<String> parse(String value) {
+        if (value == null || value.isBlank()) {
+            return Collections.emptyList();
+        }
+        List<String> coordinates = new ArrayList<>();
+        for (String part : value.split(",")) {
+            String coordinate = part.trim();
+            if (!coordinate.isEmpty()) {
+                validate(coordinate);
+                coordinates.add(coordinate);
+            }
+        }
+        return Collections.unmodifiableList(coordinates);
+    }
+
+    /**
+     * Path of a library in the shared directory.
+     */
+    public static Path jarPath(String coordinate) {
+        String[] parts = validate(coordinate);
+        return Paths.get(PathConfig.getSharedLibraryDirectory(), parts[0], parts[1] + "-" + parts[2] + ".jar");
+    }
+
+    /**
+     * Path of a library in the local Maven repository (~/.m2/repository), where
+     * plugin installs copy it from.
+     */
+    public static Path localRepositoryJar(String coordinate) {
+        String[] parts = validate(coordinate);
+        return Paths.get(System.getProperty("user.home"), ".m2", "repository",
+                parts[0].replace('.', File.separatorChar), parts[1], parts[2], parts[1] + "-" + parts[2] + ".jar");
+    }
+
+    /**
+     * Get the class loaders of a plugin's shared libraries, creating the ones not loaded
+     * in this JVM yet.
+     *
+     * @param coordinates The plugin's libraries, in declaration order
+     * @param parent Jex's class loader
+     * @throws FileNotFoundException If a library is not in the shared directory
+     */
+    static List<PluginClassLoader> loaders(List<String> coordinates, ClassLoader parent) throws IOException {
+        List<PluginClassLoader> loaders = new ArrayList<>(coordinates.size());
+        synchronized (LOADERS) {
+            for (int i = 0; i < coordinates.size(); i++) {
+                String coordinate = coordinates.get(i);
+                String key = String.join(",", coordinates.subList(0, i + 1));
+                PluginClassLoader loader = LOADERS.get(key);
+                if (loader == null) {
+                    Path jar = jarPath(coordinate);
+                    if (!Files.exists(jar)) {
+                        throw new FileNotFoundException("Shared library not installed: " + coordinate + " (" + jar + ")");
+                    }
+                    loader = new PluginClassLoader(List.of(jar), parent, List.copyOf(loaders));
+                    LOADERS.put(key, loader);
+                }
+                loaders.add(loader);
+            }
+        }
+        return loaders;
+    }
+
+    private static String[] validate(String coordinate) {
+        String[] parts = coordinate.split(":");
+        if (parts.length != 3) {
+            throw new IllegalArgumentException("Invalid shared library (expected groupId:artifactId:version): " + coordinate);
+        }
+        for (String part : parts) {
+            if (!COORDINATE_PART.matcher(part).matches() || part.startsWith(".")) {
+                throw new IllegalArgumentException("Invalid shared library (expected groupId:artifactId:version): " + coordinate);
+            }
+        }
+        return parts;
+    }
+}
@@ -0,0 +1,285 @@
+package org.jex.cli;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Per-phase timing of the dispatch path, enabled with -Djex.trace=... or the JEX_TRACE
+ * environment variable. Modes (comma-separated): "startup" prints a table to stderr when
+ * the command finishes, "json" prints the same as one JSON object, "jfr" emits a
+ * jdk.jfr event per phase (org.jex.cli.Phase) for flight recordings.
+ *
+ * When tracing is off, begin() returns null and end() returns immediately; the JFR
+ * classes are not loaded unless "jfr" is requested.
+ */
+public final class StartupTrace {
+
+    /**
+     * Traced phases, in dispatch order.
+     */
+    public enum Phase {
+        BOOT("boot"),
+        DISPATCH("dispatch"),
+        INTERNAL_DISCOVERY("internal-discovery"),
+        REGISTRY("registry"),
+        CLASSLOADER("classloader"),
+        CLASS_LOAD("class-load"),
+        OPTIONS("options"),
+        PLUGIN_RUN("plugin-run");
+
+        private final String label;
+
+        Phase(String label) {
+            this.label = label;
+        }
+
+        public String label() {
+            return label;
+        }
+    }
+
+    /**
+     * One timed phase; obtained from begin() and passed to end().
+     */
+    public static final class Span {
+        private final Phase phase;
+        private final String detail;
+        private final long startNanos;
+        private final Object event;
+        private long nanos;
+
+        private Span(Phase phase, String detail, long startNanos, Object event) {
+            this.phase = phase;
+            this.detail = detail;
+            this.startNanos = startNanos;
+            this.event = event;
+        }
+    }
+
+    // Resident modes trace every command; stop collecting rather than grow without bound
+    private static final int MAX_SPANS = 1024;
+
+    private static final boolean TEXT;
+    private static final boolean JSON;
+    private static final boolean JFR;
+    public static final boolean ENABLED;
+
+    private static final List<Span> SPANS = new ArrayList<>();
+    private static long originNanos;
+    private static long bootNanos = -1;
+
+    static {
+        String mode = System.getProperty("jex.trace");
+        if (mode == null) {
+            mode = System.getenv("JEX_TRACE");
+        }
+
+        boolean text = false;
+        boolean json = false;
+        boolean jfr = false;
+        if (mode != null) {
+            for (String part : mode.split(",")) {
+                switch (part.trim().toLowerCase(Locale.ROOT)) {
+                    case "startup", "true", "1" -> text = true;
+                    case "json" -> json = true;
+                    case "jfr" -> jfr = true;
+                    default -> {
+                    }
+                }
+            }
+        }
+        TEXT = text;
+        JSON = json;
+        JFR = jfr && JfrEvents.available();
+        ENABLED = TEXT || JSON || JFR;
+
+        if (ENABLED) {
+            originNanos = System.nanoTime();
+            recordBoot();
+        }
+    }
+
+    // Prevent instantiation
+    private StartupTrace() {
+        throw new AssertionError("StartupTrace is a utility class and should not be instantiated");
+    }
+
+    /**
+     * Start timing a phase.
+     *
+     * @param detail Plugin name, resource path, etc. (may be null)
+     * @return The span to pass to end(), or null when tracing is off
+     */
+    public static Span begin(Phase phase, String detail) {
+        if (!ENABLED) {
+            return null;
+        }
+        Object event = JFR ? JfrEvents.begin() : null;
+        return new Span(phase, detail, System.nanoTime(), event);
+    }
+
+    /**
+     * Finish a phase started with begin(); a null span is ignored.
+     */
+    public static void end(Span span) {
+        if (span == null) {
+            return;
+        }
+        span.nanos = System.nanoTime() - span.startNanos;
+        if (span.event != null) {
+            JfrEvents.commit(span.event, span.phase.label(), span.detail, span.nanos);
+        }
+        if (TEXT || JSON) {
+            synchronized (SPANS) {
+                if (SPANS.size() < MAX_SPANS) {
+                    SPANS.add(span);
+                }
+            }
+        }
+    }
+
+    /**
+     * Print the phases collected so far to stderr (startup/json modes) and clear them.
+     */
+    public static void report() {
+        if (!TEXT && !JSON) {
+            return;
+        }
+
+        List<Span> spans;
+        synchronized (SPANS) {
+            spans = new ArrayList<>(SPANS);
+            SPANS.clear();
+        }
+        spans.sort(Comparator.comparingLong(s -> s.startNanos));
+
+        if (JSON) {
+            System.err.println(toJson(spans));
+        }
+        if (TEXT) {
+            System.err.print(toText(spans));
+        }
+    }
+
+    // Time from JVM process start to the first traced call: JVM boot plus Jex class loading.
+    // Process start times come from the OS and are coarse (10ms ticks on Linux).
+    private static void recordBoot() {
+        try {
+            Instant started = ProcessHandle.current().info().startInstant().orElse(null);
+            if (started == null) {
+                return;
+            }
+            bootNanos = Math.max(0, Duration.between(started, Instant.now()).toNanos());
+            if (JFR) {
+                JfrEvents.commitInstant(Phase.BOOT.label(), null, bootNanos);
+            }
+        } catch (RuntimeException e) {
+            bootNanos = -1;
+        }
+    }
+
+    static String toText(List<Span> spans) {
+        StringBuilder sb = new StringBuilder("jex trace (ns)\n");
+        if (bootNanos >= 0) {
+            sb.append(String.format("  %-20s %,15d%n", Phase.BOOT.label(), bootNanos));
+        }
+        for (Span span : spans) {
+            sb.append(String.format("  %-20s %,15d  +%,d", span.phase.label(), span.nanos, span.startNanos - originNanos));
+            if (span.detail != null) {
+                sb.append("  ").append(span.detail);
+            }
+            sb.append(System.lineSeparator());
+        }
+        return sb.toString();
+    }
+
+    static String toJson(List<Span> spans) {
+        StringBuilder sb = new StringBuilder("{\"pid\":").append(ProcessHandle.current().pid());
+        sb.append(",\"bootNanos\":").append(bootNanos);
+        sb.append(",\"phases\":[");
+        for (int i = 0; i < spans.size(); i++) {
+            Span span = spans.get(i);
+            if (i > 0) {
+                sb.append(',');
+            }
+            sb.append("{\"phase\":\"").append(span.phase.label()).append('"');
+            sb.append(",\"offsetNanos\":").append(span.startNanos - originNanos);
+            sb.append(",\"nanos\":").append(span.nanos);
+            if (span.detail != null) {
+                sb.append(",\"detail\":");
+                appendJsonString(sb, span.detail);
+            }
+            sb.append('}');
+        }
+        return sb.append("]}").toString();
+    }
+
+    private static void appendJsonString(StringBuilder sb, String value) {
+        sb.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"' -> sb.append("\\\"");
+                case '\\' -> sb.append("\\\\");
+                case '\n' -> sb.append("\\n");
+                case '\r' -> sb.append("\\r");
+                case '\t' -> sb.append("\\t");
+                default -> {
+                    if (c < 0x20) {
+                        sb.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        sb.append(c);
+                    }
+                }
+            }
+        }
+        sb.append('"');
+    }
+
+    /**
+     * Bridge to JexPhaseEvent, kept in its own class so jdk.jfr is only touched in "jfr" mode.
+     */
+    private static final class JfrEvents {
+
+        static boolean available() {
+            try {
+                Class.forName("jdk.jfr.Event", false, StartupTrace.class.getClassLoader());
+                return true;
+            } catch (ClassNotFoundException | LinkageError e) {
+                System.err.println("Warning: jex.trace=jfr requested but jdk.jfr is not available");
+                return false;
+            }
+        }
+
+        static Object begin() {
+            JexPhaseEvent event = new JexPhaseEvent();
+            event.begin();
+            return event;
+        }
+
+        static void commit(Object begun, String phase, String detail, long nanos) {
+            JexPhaseEvent event = (JexPhaseEvent) begun;
+            event.end();
+            if (event.shouldCommit()) {
+                event.phase = phase;
+                event.detail = detail;
+                event.phaseNanos = nanos;
+                event.commit();
+            }
+        }
+
+        static void commitInstant(String phase, String detail, long nanos) {
+            JexPhaseEvent event = new JexPhaseEvent();
+            if (event.shouldCommit()) {
+                event.phase = phase;
+                event.detail = detail;
+                event.phaseNanos = nanos;
+                event.commit();
+            }
+        }
+    }
+}
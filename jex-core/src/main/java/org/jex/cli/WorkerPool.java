@@ -0,0 +1,719 @@
+package org.jex.cli;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.FileDescriptor;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Pool of worker JVMs for a plugin whose registry entry declares "isolation: process":
+ *
+ * <pre>
+ * my-tool:
+ *   jar: my-tool.jar
+ *   class: com.example.MyTool
+ *   isolation: process
+ *   worker-runs: 50          # optional: runs per worker before it is replaced (default 100)
+ * </pre>
+ *
+ * JVMs that run many commands (the daemon, --shell, --each) enable pooling, and PluginLoader
+ * then returns a WorkerPool in place of such a plugin: the plugin never shares a JVM, its
+ * System properties or its static state with other plugins. A worker is a `jex --worker
+ * &lt;plugin&gt;` JVM, started with the plugin's launch profile (see JvmProfile), that loads the
+ * plugin once and runs one invocation at a time. One idle worker is kept warm ahead of demand,
+ * on top of up to one worker per processor. A worker is replaced after worker-runs
+ * invocations, or as soon as it is unhealthy: it died, broke the protocol, let an error escape
+ * the plugin, or still had a nearly full heap after the run. A single command launched by the
+ * wrapper already has a JVM of its own and runs the plugin in-process.
+ *
+ * Protocol over the worker's stdin and stdout (DataOutput encoding, strings as length-prefixed
+ * UTF-8):
+ * <pre>
+ *   worker: READY                               once the plugin is loaded
+ *   jex:    RUN argc arg...
+ *   worker: OUT bytes | ERR bytes | READ max    while the plugin runs
+ *   jex:    INPUT bytes (length -1 at the end)  in reply to READ
+ *   worker: EXIT code healthy
+ * </pre>
+ *
+ * Limits: there is no run timeout, so a plugin that hangs holds its worker (and its caller)
+ * until it returns, as it would in-process. Stdio is relayed only while a run is in progress:
+ * output a plugin's background threads write between runs is dropped, and reads between runs
+ * see the end of input. Either marks the worker unhealthy, so it is replaced after its next run
+ * and later invocations don't receive a previous one's output.
+ */
+final class WorkerPool implements JexPluginV2 {
+
+    static final String REGISTRY_KEY = "isolation";
+    static final String RUNS_KEY = "worker-runs";
+    static final String PROCESS = "process";
+
+    /** Hidden command run by a worker JVM. */
+    static final String WORKER_COMMAND = "--worker";
+
+    private static final int DEFAULT_RUNS = 100;
+
+    // A worker whose heap is still this full after a run and a GC is replaced
+    private static final double HEAP_LIMIT = 0.9;
+
+    // Message types
+    private static final byte READY = 'W';
+    private static final byte RUN = 'R';
+    private static final byte OUT = 'O';
+    private static final byte ERR = 'E';
+    private static final byte READ = 'I';
+    private static final byte INPUT = 'D';
+    private static final byte EXIT = 'X';
+
+    private static volatile boolean enabled;
+
+    private final String name;
+    private final Map<String, Object> config;
+    private final List<String> command;
+    private final int maxRuns;
+    private final Launcher launcher;
+    // One per processor, plus the spare
+    private final int maxWorkers = Runtime.getRuntime().availableProcessors() + 1;
+
+    // Guarded by this
+    private final Deque<Worker> idle = new ArrayDeque<>();
+    private int started;
+    private int starting;
+    private boolean closed;
+
+    WorkerPool(String name, Map<String, Object> config) {
+        this(name, config, command -> new ProcessBuilder(command).redirectError(ProcessBuilder.Redirect.INHERIT).start());
+    }
+
+    WorkerPool(String name, Map<String, Object> config, Launcher launcher) {
+        this.name = name;
+        this.config = config;
+        this.command = command(name, config);
+        this.maxRuns = maxRuns(name, config.get(RUNS_KEY));
+        this.launcher = launcher;
+    }
+
+    /**
+     * Starts the process of a worker JVM.
+     */
+    interface Launcher {
+        Process start(List<String> command) throws IOException;
+    }
+
+    /**
+     * Run isolated plugins in worker JVMs from now on. Called by the modes that run many
+     * commands in one JVM.
+     */
+    static void enable() {
+        enabled = true;
+    }
+
+    static boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Whether a registry entry asks for process isolation.
+     */
+    static boolean isIsolated(Map<String, Object> config) {
+        return PROCESS.equals(String.valueOf(config.get(REGISTRY_KEY)));
+    }
+
+    /**
+     * Load every isolated plugin in the registry and start its first worker, so that even the
+     * first run is warm.
+     *
+     * @return Names of the plugins whose workers are starting
+     */
+    static List<String> prestart() {
+        List<String> names = new ArrayList<>();
+        PluginLoader loader = new PluginLoader();
+        Map<String, Map<String, Object>> registry = loader.loadRegistry();
+        if (registry == null) {
+            return names;
+        }
+        for (Map.Entry<String, Map<String, Object>> entry : registry.entrySet()) {
+            if (entry.getValue() == null || !isIsolated(entry.getValue())) {
+                continue;
+            }
+            JexPlugin plugin = loader.loadPlugin(entry.getKey(), entry.getValue());
+            if (plugin != null && PluginRunner.prepare(plugin)) {
+                names.add(entry.getKey());
+            }
+        }
+        return names;
+    }
+
+    /**
+     * Whether this pool was created for the registry entry as it is now.
+     */
+    boolean hasConfig(Map<String, Object> config) {
+        return this.config.equals(config);
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public void init() {
+        startSpare();
+    }
+
+    @Override
+    public int run(String[] args) {
+        Worker worker;
+        try {
+            worker = take();
+        } catch (IOException e) {
+            System.err.println("Error: Could not start a worker for plugin " + name + ": " + e.getMessage());
+            return 1;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return 1;
+        }
+        startSpare();
+
+        int exitCode;
+        try {
+            exitCode = worker.run(args);
+        } catch (EOFException e) {
+            worker.healthy = false;
+            System.err.println("Error: Worker for plugin " + name + " exited during the run");
+            exitCode = 1;
+        } catch (IOException e) {
+            worker.healthy = false;
+            System.err.println("Error: Worker for plugin " + name + " failed: " + e.getMessage());
+            exitCode = 1;
+        } finally {
+            release(worker);
+        }
+        startSpare();
+        return exitCode;
+    }
+
+    @Override
+    public void close() {
+        List<Worker> workers;
+        synchronized (this) {
+            closed = true;
+            workers = new ArrayList<>(idle);
+            started -= idle.size();
+            idle.clear();
+            notifyAll();
+        }
+        workers.forEach(Worker::stop);
+    }
+
+    /**
+     * An idle worker, or a new one while fewer than maxWorkers exist. Waits for a worker that
+     * is already starting rather than starting another.
+     */
+    private Worker take() throws IOException, InterruptedException {
+        synchronized (this) {
+            while (true) {
+                if (closed) {
+                    throw new IOException("the plugin was closed");
+                }
+                Worker worker = idle.poll();
+                if (worker != null) {
+                    if (worker.isAlive()) {
+                        return worker;
+                    }
+                    started--;
+                    continue;
+                }
+                if (starting == 0 && started < maxWorkers) {
+                    started++;
+                    break;
+                }
+                wait();
+            }
+        }
+
+        try {
+            return Worker.start(launcher, command);
+        } catch (IOException e) {
+            synchronized (this) {
+                started--;
+                notifyAll();
+            }
+            throw e;
+        }
+    }
+
+    private void release(Worker worker) {
+        boolean keep = worker.healthy && worker.runs < maxRuns && worker.isAlive();
+        synchronized (this) {
+            if (keep && !closed) {
+                idle.push(worker);
+                notifyAll();
+                return;
+            }
+            started--;
+            notifyAll();
+        }
+        worker.stop();
+    }
+
+    /**
+     * Start a worker in the background unless one is idle or already starting.
+     */
+    private void startSpare() {
+        synchronized (this) {
+            if (closed || !idle.isEmpty() || starting > 0 || started >= maxWorkers) {
+                return;
+            }
+            started++;
+            starting++;
+        }
+
+        Thread.ofVirtual().name("jex-worker-start").start(() -> {
+            Worker worker = null;
+            try {
+                worker = Worker.start(launcher, command);
+            } catch (IOException e) {
+                System.err.println("Warning: Could not start a worker for plugin " + name + ": " + e.getMessage());
+            }
+            synchronized (this) {
+                starting--;
+                if (worker != null && !closed) {
+                    idle.push(worker);
+                    worker = null;
+                } else {
+                    started--;
+                }
+                notifyAll();
+            }
+            if (worker != null) {
+                worker.stop();
+            }
+        });
+    }
+
+    /**
+     * The worker's command line: this JVM's java and Jex, plus the class data sharing archive
+     * and the plugin's launch profile as the wrapper would pass them. JVM logging goes to stderr,
+     * as stdout carries the protocol.
+     */
+    private static List<String> command(String name, Map<String, Object> config) {
+        List<String> command = new ArrayList<>();
+        command.add(Paths.get(System.getProperty("java.home"), "bin", PathConfig.isWindows() ? "java.exe" : "java").toString());
+        command.add("-Xlog:disable");
+        command.add("-Xlog:all=warning:stderr");
+        command.addAll(AppCds.launchOptions());
+        Object profile = config.get(JvmProfile.REGISTRY_KEY);
+        if (profile != null) {
+            try {
+                command.addAll(JvmProfile.flags(profile));
+            } catch (IllegalArgumentException e) {
+                System.err.println("Warning: Ignoring the jvm profile of plugin " + name + ": " + e.getMessage());
+            }
+        }
+        if (WorkerPool.class.getModule().isNamed()) {
+            command.add("--add-modules");
+            command.add("ALL-SYSTEM");
+            command.add("-m");
+            command.add(AppCds.MAIN_MODULE);
+        } else {
+            command.add("-cp");
+            command.add(System.getProperty("java.class.path"));
+            command.add(Jex.class.getName());
+        }
+        command.add(WORKER_COMMAND);
+        command.add(name);
+        return command;
+    }
+
+    private static int maxRuns(String name, Object value) {
+        if (value == null) {
+            return DEFAULT_RUNS;
+        }
+        try {
+            int runs = Integer.parseInt(value.toString().trim());
+            if (runs > 0) {
+                return runs;
+            }
+        } catch (NumberFormatException e) {
+            // Reported below
+        }
+        System.err.println("Warning: Ignoring " + RUNS_KEY + " of plugin " + name + ": " + value
+                + " (expected a positive number)");
+        return DEFAULT_RUNS;
+    }
+
+    /**
+     * Serve invocations in a worker JVM until Jex closes its stdin.
+     *
+     * @param args The arguments following --worker: the plugin name
+     * @return Exit code
+     */
+    static int serve(String[] args) {
+        if (args.length != 1) {
+            System.err.println("Error: Usage: jex " + WORKER_COMMAND + " <plugin>");
+            return 1;
+        }
+        String name = args[0];
+        return serve(() -> load(name), new FileInputStream(FileDescriptor.in), new FileOutputStream(FileDescriptor.out));
+    }
+
+    /**
+     * Serve invocations over a pair of streams until the input ends. The plugin is loaded after
+     * stdio is redirected to the protocol, so that load errors reach Jex. The redirection is for
+     * the whole JVM, or only for the calling thread if it runs in an InvocationContext.
+     *
+     * @param loader Loads the plugin, or returns null after reporting why it can't
+     * @param input Requests from Jex
+     * @param output Replies to Jex
+     * @return Exit code
+     */
+    static int serve(Supplier<JexPlugin> loader, InputStream input, OutputStream output) {
+        Server server = new Server(input, output);
+        if (InvocationContext.current() != null) {
+            return new InvocationContext(server.in, server.out, server.err, null).call(() -> server.serve(loader));
+        }
+        System.setOut(server.out);
+        System.setErr(server.err);
+        System.setIn(server.in);
+        return server.serve(loader);
+    }
+
+    private static JexPlugin load(String name) {
+        PluginLoader loader = new PluginLoader();
+        Map<String, Object> config = loader.findPluginConfig(name);
+        JexPlugin plugin = config != null ? loader.loadPlugin(name, config) : null;
+        if (plugin == null) {
+            System.err.println("Error: Failed to load plugin: " + name);
+        }
+        return plugin;
+    }
+
+    private static boolean heapHealthy() {
+        Runtime runtime = Runtime.getRuntime();
+        if (runtime.totalMemory() - runtime.freeMemory() < HEAP_LIMIT * runtime.maxMemory()) {
+            return true;
+        }
+        System.gc();
+        return runtime.totalMemory() - runtime.freeMemory() < HEAP_LIMIT * runtime.maxMemory();
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        return new String(readBytes(in), StandardCharsets.UTF_8);
+    }
+
+    private static byte[] readBytes(DataInputStream in) throws IOException {
+        byte[] bytes = new byte[in.readInt()];
+        in.readFully(bytes);
+        return bytes;
+    }
+
+    /**
+     * Jex's end of one worker JVM.
+     */
+    private static final class Worker {
+        private final Process process;
+        private final DataInputStream in;
+        private final DataOutputStream out;
+        private int runs;
+        private boolean healthy = true;
+
+        private Worker(Process process) {
+            this.process = process;
+            this.in = new DataInputStream(new BufferedInputStream(process.getInputStream()));
+            this.out = new DataOutputStream(new BufferedOutputStream(process.getOutputStream()));
+        }
+
+        /**
+         * Start a worker and wait until it has loaded the plugin.
+         */
+        static Worker start(Launcher launcher, List<String> command) throws IOException {
+            Process process = launcher.start(command);
+            Worker worker = new Worker(process);
+
+            // Output while loading is only shown if the worker fails to load the plugin
+            ByteArrayOutputStream output = new ByteArrayOutputStream();
+            try {
+                byte type;
+                while ((type = worker.in.readByte()) != READY) {
+                    if (type != OUT && type != ERR) {
+                        throw new IOException("Unexpected message: " + type);
+                    }
+                    output.write(readBytes(worker.in));
+                }
+                return worker;
+            } catch (IOException e) {
+                worker.stop();
+                String message = output.toString(StandardCharsets.UTF_8).trim();
+                throw new IOException(message.isEmpty() ? "worker exited while loading the plugin" : message);
+            }
+        }
+
+        /**
+         * Run one invocation, relaying its stdio to the calling thread's System streams.
+         *
+         * @return The plugin's exit code
+         */
+        int run(String[] args) throws IOException {
+            runs++;
+            out.writeByte(RUN);
+            out.writeInt(args.length);
+            for (String arg : args) {
+                writeString(out, arg);
+            }
+            out.flush();
+
+            while (true) {
+                byte type = in.readByte();
+                switch (type) {
+                    case OUT -> {
+                        byte[] bytes = readBytes(in);
+                        System.out.write(bytes, 0, bytes.length);
+                    }
+                    case ERR -> {
+                        byte[] bytes = readBytes(in);
+                        System.err.write(bytes, 0, bytes.length);
+                    }
+                    case READ -> {
+                        byte[] buffer = new byte[Math.min(Math.max(in.readInt(), 1), 65536)];
+                        System.out.flush();
+                        int count = System.in.read(buffer);
+                        out.writeByte(INPUT);
+                        out.writeInt(count);
+                        if (count > 0) {
+                            out.write(buffer, 0, count);
+                        }
+                        out.flush();
+                    }
+                    case EXIT -> {
+                        int exitCode = in.readInt();
+                        healthy = in.readBoolean();
+                        System.out.flush();
+                        System.err.flush();
+                        return exitCode;
+                    }
+                    default -> throw new IOException("Unexpected message: " + type);
+                }
+            }
+        }
+
+        boolean isAlive() {
+            return process.isAlive();
+        }
+
+        /**
+         * Close the worker's stdin, which ends its loop, and terminate it.
+         */
+        void stop() {
+            try {
+                out.close();
+            } catch (IOException e) {
+                // Already gone
+            }
+            process.destroy();
+        }
+    }
+
+    /**
+     * The worker's end of the protocol.
+     */
+    private static final class Server {
+        private final DataOutputStream channel;
+        private final DataInputStream requests;
+        private final PrintStream out;
+        private final PrintStream err;
+        private final InputStream in;
+
+        // Guarded by channel: whether stdio is relayed (while loading and during a run), which
+        // run it is, and whether the plugin used stdio between runs
+        private boolean relaying = true;
+        private int run;
+        private boolean stray;
+
+        Server(InputStream input, OutputStream output) {
+            channel = new DataOutputStream(new BufferedOutputStream(output));
+            requests = new DataInputStream(new BufferedInputStream(input));
+            Charset charset = System.out.charset();
+            out = new PrintStream(new BufferedOutputStream(new FrameOutputStream(OUT)), true, charset);
+            err = new PrintStream(new BufferedOutputStream(new FrameOutputStream(ERR)), true, charset);
+            in = new RequestInputStream();
+        }
+
+        int serve(Supplier<JexPlugin> loader) {
+            JexPlugin plugin = loader.get();
+            if (plugin == null) {
+                err.flush();
+                return 1;
+            }
+
+            try {
+                out.flush();
+                err.flush();
+                synchronized (channel) {
+                    relaying = false;
+                    channel.writeByte(READY);
+                    channel.flush();
+                }
+                while (true) {
+                    String[] args;
+                    // A background thread that is waiting for its INPUT reply gets it first
+                    synchronized (requests) {
+                        byte type;
+                        try {
+                            type = requests.readByte();
+                        } catch (EOFException e) {
+                            return 0;
+                        }
+                        if (type != RUN) {
+                            throw new IOException("Unexpected message: " + type);
+                        }
+                        args = new String[requests.readInt()];
+                        for (int i = 0; i < args.length; i++) {
+                            args[i] = readString(requests);
+                        }
+                    }
+
+                    // Output a background thread left buffered since the last run is dropped
+                    out.flush();
+                    err.flush();
+                    synchronized (channel) {
+                        relaying = true;
+                        run++;
+                    }
+                    int exitCode;
+                    boolean healthy = true;
+                    try {
+                        exitCode = PluginRunner.run(plugin, args);
+                    } catch (Throwable t) {
+                        t.printStackTrace(err);
+                        exitCode = 1;
+                        healthy = false;
+                    }
+                    out.flush();
+                    err.flush();
+
+                    healthy &= heapHealthy();
+                    synchronized (channel) {
+                        relaying = false;
+                        healthy &= !stray;
+                        channel.writeByte(EXIT);
+                        channel.writeInt(exitCode);
+                        channel.writeBoolean(healthy);
+                        channel.flush();
+                    }
+                }
+            } catch (IOException e) {
+                // Jex went away or broke the protocol: nobody is left to report to
+                return 1;
+            }
+        }
+
+        /**
+         * The plugin's System.out/System.err: each write becomes an OUT or ERR message.
+         */
+        private final class FrameOutputStream extends OutputStream {
+            private final byte type;
+
+            FrameOutputStream(byte type) {
+                this.type = type;
+            }
+
+            @Override
+            public void write(int b) throws IOException {
+                write(new byte[] {(byte) b}, 0, 1);
+            }
+
+            @Override
+            public void write(byte[] b, int off, int len) throws IOException {
+                if (len == 0) {
+                    return;
+                }
+                synchronized (channel) {
+                    if (!relaying) {
+                        stray = true;
+                        return;
+                    }
+                    channel.writeByte(type);
+                    channel.writeInt(len);
+                    channel.write(b, off, len);
+                    channel.flush();
+                }
+            }
+        }
+
+        /**
+         * The plugin's System.in: each read asks Jex for the caller's input, so a plugin that
+         * never reads stdin never consumes it.
+         */
+        private final class RequestInputStream extends InputStream {
+
+            @Override
+            public int read() throws IOException {
+                byte[] b = new byte[1];
+                return read(b, 0, 1) < 0 ? -1 : b[0] & 0xff;
+            }
+
+            @Override
+            public int read(byte[] b, int off, int len) throws IOException {
+                if (len == 0) {
+                    return 0;
+                }
+                out.flush();
+                err.flush();
+                int current;
+                synchronized (channel) {
+                    if (!relaying) {
+                        stray = true;
+                        return -1;
+                    }
+                    current = run;
+                }
+                synchronized (requests) {
+                    // The run may have ended while another thread was reading
+                    synchronized (channel) {
+                        if (!relaying || run != current) {
+                            stray = true;
+                            return -1;
+                        }
+                        channel.writeByte(READ);
+                        channel.writeInt(len);
+                        channel.flush();
+                    }
+                    if (requests.readByte() != INPUT) {
+                        throw new IOException("Unexpected message while reading input");
+                    }
+                    int count = requests.readInt();
+                    if (count < 0) {
+                        return -1;
+                    }
+                    requests.readFully(b, off, count);
+                    return count;
+                }
+            }
+        }
+    }
+}
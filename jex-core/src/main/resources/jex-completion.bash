@@ -0,0 +1,60 @@
+# Bash completion for jex, installed by 'jex --install'. Enable it in ~/.bashrc:
+#   source ~/.local/lib/jex/jex-completion.bash
+#
+# Completes from the index Jex writes on every plugin change (cache/completion.txt), so a
+# tab press is a file read, never a JVM start.
+
+if [[ "$OSTYPE" == "darwin"* ]]; then
+    _JEX_COMPLETION_INDEX="$HOME/Library/Application Support/Jex/cache/completion.txt"
+else
+    _JEX_COMPLETION_INDEX="$HOME/.config/Jex/cache/completion.txt"
+fi
+
+# Index lines: "- <jex flags...>", then "<command> <options...>" per plugin
+_jex() {
+    local cur="${COMP_WORDS[COMP_CWORD]}" command="${COMP_WORDS[1]}" name rest words=""
+    COMPREPLY=()
+    [ -f "$_JEX_COMPLETION_INDEX" ] || return 0
+
+    if [ "$COMP_CWORD" -eq 1 ]; then
+        # Plugin names and Jex's own flags
+        while read -r name rest; do
+            if [ "$name" = "-" ]; then
+                words="$words $rest"
+            else
+                words="$words $name"
+            fi
+        done < "$_JEX_COMPLETION_INDEX"
+    else
+        case "$command" in
+            --update-plugin|--uninstall-plugin|--train-plugin|--rollback-plugin)
+                # These take a plugin name
+                if [ "$COMP_CWORD" -eq 2 ]; then
+                    while read -r name rest; do
+                        [ "$name" = "-" ] || words="$words $name"
+                    done < "$_JEX_COMPLETION_INDEX"
+                fi
+                ;;
+            -*)
+                ;;
+            *)
+                # A plugin's options, once an option is started
+                if [[ "$cur" == -* ]]; then
+                    while read -r name rest; do
+                        if [ "$name" = "$command" ]; then
+                            words="$rest"
+                            break
+                        fi
+                    done < "$_JEX_COMPLETION_INDEX"
+                fi
+                ;;
+        esac
+    fi
+
+    # Nothing to offer: fall back to file names (-o default)
+    if [ -n "$words" ]; then
+        COMPREPLY=($(compgen -W "$words" -- "$cur"))
+    fi
+}
+
+complete -o default -F _jex jex
@@ -0,0 +1,62 @@
+@echo off
+REM Jex wrapper script for Windows
+
+REM Set the installation directory
+set JEX_JAR=%LOCALAPPDATA%\Programs\Jex\jex.jar
+
+REM Check if JAR exists
+if not exist "%JEX_JAR%" (
+    echo Error: Jex JAR not found at %JEX_JAR%
+    echo Please run 'java -jar jex.jar --install' to install Jex.
+    exit /b 1
+)
+
+REM Prefer the trimmed runtime image installed from 'mvn -Pjlink package' (Jex is linked into it)
+set JEX_RUNTIME=%LOCALAPPDATA%\Programs\Jex\runtime
+
+REM Use the class data sharing archive built by 'jex --optimize' unless it has been marked stale
+set JEX_CDS=%LOCALAPPDATA%\Programs\Jex\jex.jsa
+set CDS_OPTS=
+if exist "%JEX_CDS%" if not exist "%JEX_CDS%.stale" set CDS_OPTS="-XX:SharedArchiveFile=%JEX_CDS%" -Xlog:cds=off -Xlog:cds+dynamic=off
+
+REM Help pages pre-rendered by Jex (see HelpCache) are only served by jex.sh: cmd has no
+REM reliable way to check that a page is newer than the files it was rendered from.
+
+REM Separate Java options from Jex arguments (JEX_COMMAND is the first Jex argument)
+set JAVA_OPTS=
+set JEX_ARGS=
+set JEX_COMMAND=
+
+:parse_args
+if "%~1"=="" goto run_jex
+set arg=%~1
+if "%arg:~0,2%"=="-D" (
+    set JAVA_OPTS=%JAVA_OPTS% %arg%
+) else if "%arg:~0,2%"=="-X" (
+    set JAVA_OPTS=%JAVA_OPTS% %arg%
+) else if "%arg:~0,11%"=="-javaagent:" (
+    set JAVA_OPTS=%JAVA_OPTS% %arg%
+) else (
+    set JEX_ARGS=%JEX_ARGS% %arg%
+    if not defined JEX_COMMAND set JEX_COMMAND=%arg%
+)
+shift
+goto parse_args
+
+:run_jex
+REM JVM flags of the plugin's launch profile (see JvmProfile). Unlike jex.sh this does not
+REM re-resolve them after plugin.yaml is edited by hand; run 'jex --refresh-cache' then.
+set PLUGIN_OPTS=
+if defined JEX_COMMAND if exist "%APPDATA%\Jex\cache\launch.txt" (
+    for /f "usebackq tokens=1,*" %%a in ("%APPDATA%\Jex\cache\launch.txt") do (
+        if "%%a"=="%JEX_COMMAND%" set PLUGIN_OPTS=%%b
+    )
+)
+
+REM Run Jex with Java options and Jex arguments separated (options given on the command line win over the profile's)
+REM (ALL-SYSTEM makes every module in the image available to plugins on the class path)
+if exist "%JEX_RUNTIME%\bin\java.exe" (
+    "%JEX_RUNTIME%\bin\java.exe" %CDS_OPTS% %PLUGIN_OPTS% %JAVA_OPTS% --add-modules ALL-SYSTEM -m org.jex.cli/org.jex.cli.Jex %JEX_ARGS%
+) else (
+    java %CDS_OPTS% %PLUGIN_OPTS% %JAVA_OPTS% -jar "%JEX_JAR%" %JEX_ARGS%
+)
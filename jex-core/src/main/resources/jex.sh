@@ -0,0 +1,176 @@
+#!/bin/bash
+# Jex wrapper script for Unix/Linux/macOS
+
+# Determine the installation and configuration directories
+if [[ "$OSTYPE" == "darwin"* ]]; then
+    # macOS
+    JEX_JAR="$HOME/Library/Application Support/Jex/jex.jar"
+    JEX_CONFIG="$HOME/Library/Application Support/Jex"
+else
+    # Linux and other Unix variants
+    JEX_JAR="$HOME/.local/lib/jex/jex.jar"
+    JEX_CONFIG="$HOME/.config/Jex"
+fi
+
+# Check if JAR exists
+if [ ! -f "$JEX_JAR" ]; then
+    echo "Error: Jex JAR not found at $JEX_JAR"
+    echo "Please run 'java -jar jex.jar --install' to install Jex."
+    exit 1
+fi
+
+# Prefer the trimmed runtime image installed from 'mvn -Pjlink package' (Jex is linked into it)
+# (ALL-SYSTEM makes every module in the image available to plugins on the class path)
+JEX_RUNTIME="$(dirname "$JEX_JAR")/runtime"
+if [ -x "$JEX_RUNTIME/bin/java" ]; then
+    JEX_JAVA=("$JEX_RUNTIME/bin/java")
+    JEX_MAIN=(--add-modules ALL-SYSTEM -m org.jex.cli/org.jex.cli.Jex)
+else
+    JEX_JAVA=(java)
+    JEX_MAIN=(-jar "$JEX_JAR")
+fi
+
+# Use the class data sharing archive built by 'jex --optimize' unless it has been marked stale
+JEX_CDS="$(dirname "$JEX_JAR")/jex.jsa"
+CDS_OPTS=()
+if [ -f "$JEX_CDS" ] && [ ! -f "$JEX_CDS.stale" ]; then
+    CDS_OPTS=("-XX:SharedArchiveFile=$JEX_CDS" "-Xlog:cds=off" "-Xlog:cds+dynamic=off")
+fi
+
+# Separate Java options from Jex arguments
+JAVA_OPTS=""
+JEX_ARGS=()
+
+for arg in "$@"; do
+    if [[ "$arg" == -D* ]] || [[ "$arg" == -X* ]] || [[ "$arg" == -javaagent:* ]]; then
+        JAVA_OPTS="$JAVA_OPTS $arg"
+    else
+        JEX_ARGS+=("$arg")
+    fi
+done
+
+# Whether a help page pre-rendered by Jex (see HelpCache) is newer than each of its sources that exist
+page_fresh() {
+    local page="$1" source
+    shift
+    [ -f "$page" ] || return 1
+    for source in "$@"; do
+        if [ -e "$source" ] && ! [ "$page" -nt "$source" ]; then
+            return 1
+        fi
+    done
+}
+
+# Print help and the plugin list from the pre-rendered pages while they are fresh (no JVM needed)
+JEX_CACHE="$JEX_CONFIG/cache"
+REGISTRY_SOURCES=("$JEX_JAR" "$JEX_CONFIG/plugin.yaml" "$JEX_CONFIG/plugin.d" "$JEX_CONFIG"/plugin.d/*.yaml)
+if [ -z "$JAVA_OPTS" ] && [ -z "$JEX_NO_CACHE" ] && [ -z "$JEX_TRACE" ]; then
+    case "${#JEX_ARGS[@]}:${JEX_ARGS[0]}" in
+        0:|1:-h|1:--help)
+            page_fresh "$JEX_CACHE/help.txt" "$JEX_JAR" && exec cat "$JEX_CACHE/help.txt"
+            ;;
+        1:-l|1:--list)
+            page_fresh "$JEX_CACHE/list.txt" "${REGISTRY_SOURCES[@]}" && exec cat "$JEX_CACHE/list.txt"
+            ;;
+        2:*)
+            # A plugin page starts with the path of the JAR it was rendered from
+            PAGE="$JEX_CACHE/help/${JEX_ARGS[0]}.txt"
+            if [[ "${JEX_ARGS[1]}" == "-h" || "${JEX_ARGS[1]}" == "--help" ]] \
+                    && [[ "${JEX_ARGS[0]}" =~ ^[A-Za-z0-9_][A-Za-z0-9._-]*$ ]] \
+                    && [ -f "$PAGE" ] && IFS= read -r PAGE_SOURCE < "$PAGE" \
+                    && page_fresh "$PAGE" "${REGISTRY_SOURCES[@]}" "$PAGE_SOURCE"; then
+                exec tail -n +2 "$PAGE"
+            fi
+            ;;
+    esac
+fi
+
+# JVM flags of the plugin's launch profile (see JvmProfile), resolved again after registry edits
+JEX_LAUNCH="$JEX_CACHE/launch.txt"
+PLUGIN_OPTS=()
+if [ ${#JEX_ARGS[@]} -gt 0 ] && [[ "${JEX_ARGS[0]}" != -* ]]; then
+    if ! page_fresh "$JEX_LAUNCH" "${REGISTRY_SOURCES[@]}"; then
+        "${JEX_JAVA[@]}" "${CDS_OPTS[@]}" "${JEX_MAIN[@]}" --refresh-cache >/dev/null
+    fi
+    if [ -f "$JEX_LAUNCH" ]; then
+        while read -r -a LAUNCH_LINE; do
+            if [ "${LAUNCH_LINE[0]}" == "${JEX_ARGS[0]}" ]; then
+                PLUGIN_OPTS=("${LAUNCH_LINE[@]:1}")
+                break
+            fi
+        done < "$JEX_LAUNCH"
+    fi
+fi
+
+# Connect to the resident daemon's Unix domain socket (socat, or a netcat with -U)
+daemon_connect() {
+    if command -v socat >/dev/null 2>&1; then
+        socat -t 86400 - "UNIX-CONNECT:$JEX_SOCK" 2>/dev/null
+    else
+        nc -U "$JEX_SOCK" 2>/dev/null
+    fi
+}
+
+# Forward the command to a daemon started with 'jex --daemon'.
+# Sets DAEMON_EXIT if the daemon ran the command; leaves it empty if a normal launch is needed.
+run_via_daemon() {
+    local tmp cwd reply out_pid err_pid in_pid name
+    DAEMON_EXIT=""
+
+    tmp=$(mktemp -d "${TMPDIR:-/tmp}/jex.XXXXXX") || return
+    if ! mkfifo "$tmp/in" "$tmp/out" "$tmp/err"; then
+        rm -rf "$tmp"
+        return
+    fi
+    cwd=$(pwd -P)
+
+    # stdout/stderr/stdin travel through FIFOs; the socket carries the request and exit code
+    cat "$tmp/out" &
+    out_pid=$!
+    cat "$tmp/err" >&2 &
+    err_pid=$!
+    cat <&0 > "$tmp/in" 2>/dev/null &
+    in_pid=$!
+
+    reply=$(
+        {
+            printf '%s\0' "JEX-DAEMON-1" "run" "$cwd" "$tmp/in" "$tmp/out" "$tmp/err" "${#JEX_ARGS[@]}"
+            if [ ${#JEX_ARGS[@]} -gt 0 ]; then
+                printf '%s\0' "${JEX_ARGS[@]}"
+            fi
+            while IFS= read -r name; do
+                printf '%s=%s\0' "$name" "${!name}"
+            done < <(compgen -e)
+            printf '\0'
+        } | daemon_connect
+    )
+
+    case "$reply" in
+        *"exit "*)
+            wait "$out_pid" "$err_pid"
+            DAEMON_EXIT=${reply##*exit }
+            ;;
+        ack*)
+            echo "Error: Jex daemon exited while running the command" >&2
+            DAEMON_EXIT=1
+            ;;
+    esac
+
+    # Readers/writers the daemon never opened are still blocked on their FIFOs
+    kill "$out_pid" "$err_pid" "$in_pid" 2>/dev/null
+    wait "$out_pid" "$err_pid" "$in_pid" 2>/dev/null
+    rm -rf "$tmp"
+}
+
+# Use a running daemon when possible (commands with Java options or a launch profile, or traced ones, need a fresh JVM)
+JEX_SOCK="$JEX_CONFIG/jex.sock"
+if [ -S "$JEX_SOCK" ] && [ -z "$JAVA_OPTS" ] && [ ${#PLUGIN_OPTS[@]} -eq 0 ] \
+        && [ -z "$JEX_NO_DAEMON" ] && [ -z "$JEX_TRACE" ]; then
+    run_via_daemon
+    if [ -n "$DAEMON_EXIT" ]; then
+        exit "$DAEMON_EXIT"
+    fi
+fi
+
+# Run Jex with Java options and Jex arguments separated (options given on the command line win over the profile's)
+exec "${JEX_JAVA[@]}" "${CDS_OPTS[@]}" "${PLUGIN_OPTS[@]}" $JAVA_OPTS "${JEX_MAIN[@]}" "${JEX_ARGS[@]}"
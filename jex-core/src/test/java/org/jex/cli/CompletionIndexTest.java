@@ -0,0 +1,41 @@
+package org.jex.cli;
+
+import junit.framework.TestCase;
+import org.apache.commons.cli.Option;
+import org.apache.commons.cli.Options;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Tests for the shell completion index format.
+ */
+public class CompletionIndexTest extends TestCase {
+
+    public void testRoundTrip() {
+        Map<String, List<String>> commands = new LinkedHashMap<>();
+        commands.put("my-tool", Arrays.asList("-h", "--help", "-i", "--input"));
+        commands.put("other-tool", Collections.emptyList());
+
+        String index = CompletionIndex.format(Arrays.asList("--list", "-l"), commands);
+        assertEquals("- --list -l\nmy-tool -h --help -i --input\nother-tool\n", index);
+        assertEquals(commands, CompletionIndex.parse(Arrays.asList(index.split("\n"))));
+    }
+
+    public void testParseSkipsBuiltinsAndBlankLines() {
+        Map<String, List<String>> commands = CompletionIndex.parse(Arrays.asList("- --help", "", "tool  -v "));
+        assertEquals(Collections.singletonMap("tool", Arrays.asList("-v")), commands);
+    }
+
+    public void testOptionWords() {
+        Options options = new Options();
+        options.addOption(Option.builder("h").longOpt("help").build());
+        options.addOption(Option.builder().longOpt("verbose").build());
+        options.addOption(Option.builder("x").build());
+
+        assertEquals(Arrays.asList("-h", "--help", "--verbose", "-x"), CompletionIndex.optionWords(options));
+    }
+}
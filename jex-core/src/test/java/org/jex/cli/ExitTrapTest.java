@@ -0,0 +1,81 @@
+package org.jex.cli;
+
+import junit.framework.TestCase;
+
+import java.io.InputStream;
+
+/**
+ * Tests for System.exit trapping in plugin classes.
+ */
+public class ExitTrapTest extends TestCase {
+
+    /**
+     * Stand-in for a legacy plugin that exits.
+     */
+    public static class Exiter implements Runnable {
+        public void run() {
+            System.exit(7);
+        }
+    }
+
+    public void testRewrittenClassThrowsPluginExit() throws Exception {
+        byte[] original = classFile(Exiter.class);
+        byte[] rewritten = ExitTrap.rewrite(original);
+        assertTrue(rewritten.length > original.length);
+
+        Runnable exiter = (Runnable) new DefiningLoader(Exiter.class.getName(), rewritten)
+                .loadClass(Exiter.class.getName()).getDeclaredConstructor().newInstance();
+        try {
+            exiter.run();
+            fail("Expected PluginExit");
+        } catch (PluginExit e) {
+            assertEquals(7, e.getExitCode());
+        }
+    }
+
+    public void testClassWithoutExitIsUnchanged() throws Exception {
+        byte[] original = classFile(ExitTrapTest.class);
+        assertSame(original, ExitTrap.rewrite(original));
+    }
+
+    public void testRunnerMapsExitToCode() {
+        JexPlugin legacy = new JexPlugin() {
+            public String getName() {
+                return "legacy";
+            }
+
+            public void execute(String[] args) {
+                ExitTrap.exit(3);
+            }
+        };
+        assertEquals(3, PluginRunner.run(legacy, new String[0]));
+    }
+
+    private static byte[] classFile(Class<?> type) throws Exception {
+        try (InputStream in = type.getResourceAsStream("/" + type.getName().replace('.', '/') + ".class")) {
+            return in.readAllBytes();
+        }
+    }
+
+    /**
+     * Defines one class from the given bytes, delegating everything else to the parent.
+     */
+    private static final class DefiningLoader extends ClassLoader {
+        private final String name;
+        private final byte[] classFile;
+
+        DefiningLoader(String name, byte[] classFile) {
+            super(ExitTrapTest.class.getClassLoader());
+            this.name = name;
+            this.classFile = classFile;
+        }
+
+        @Override
+        protected Class<?> loadClass(String className, boolean resolve) throws ClassNotFoundException {
+            if (className.equals(name)) {
+                return defineClass(className, classFile, 0, classFile.length);
+            }
+            return super.loadClass(className, resolve);
+        }
+    }
+}
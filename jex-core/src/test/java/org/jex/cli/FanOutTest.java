@@ -0,0 +1,76 @@
+package org.jex.cli;
+
+import junit.framework.TestCase;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.io.PrintStream;
+import java.io.StringReader;
+import java.util.Arrays;
+import java.util.Properties;
+
+/**
+ * Tests for jex --each fan-out.
+ */
+public class FanOutTest extends TestCase {
+
+    private static final JexPlugin ECHO = new JexPlugin() {
+        public String getName() {
+            return "echo";
+        }
+
+        public void execute(String[] args) {
+            if (args[0].equals("bad")) {
+                throw new IllegalStateException("bad input");
+            }
+            try {
+                // Finish out of input order
+                Thread.sleep(args[0].length() == 1 ? 20 : 0);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            System.out.println(String.join(" ", args));
+        }
+    };
+
+    // FanOut.execute installs InvocationContext, which replaces the streams and properties
+    private PrintStream savedOut;
+    private PrintStream savedErr;
+    private InputStream savedIn;
+    private Properties savedProperties;
+
+    protected void setUp() {
+        savedOut = System.out;
+        savedErr = System.err;
+        savedIn = System.in;
+        savedProperties = System.getProperties();
+    }
+
+    protected void tearDown() {
+        System.setOut(savedOut);
+        System.setErr(savedErr);
+        System.setIn(savedIn);
+        System.setProperties(savedProperties);
+    }
+
+    public void testArgumentsFor() {
+        assertEquals(Arrays.asList("--host", "a.example", "x"),
+                Arrays.asList(FanOut.argumentsFor(new String[]{"--host", "{}", "x"}, "a.example")));
+        assertEquals(Arrays.asList("-v", "a.example"),
+                Arrays.asList(FanOut.argumentsFor(new String[]{"-v"}, "a.example")));
+    }
+
+    public void testOrderedOutputAndAggregateExitCode() {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ByteArrayOutputStream err = new ByteArrayOutputStream();
+        System.setOut(new PrintStream(out, true));
+        System.setErr(new PrintStream(err, true));
+        FanOut fanOut = new FanOut(ECHO, new String[]{"{}", "done"}, 4, true);
+        int exitCode = fanOut.execute(new BufferedReader(new StringReader("a\nbb\n# skipped\n\nbad\ncc\n")));
+
+        assertEquals(1, exitCode);
+        assertEquals("a done\nbb done\ncc done\n", out.toString().replace(System.lineSeparator(), "\n"));
+        assertTrue(err.toString().contains("[failed] bad"));
+    }
+}
@@ -0,0 +1,182 @@
+package org.jex.cli;
+
+import junit.framework.TestCase;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.attribute.FileTime;
+import java.util.Comparator;
+import java.util.List;
+import java.util.jar.Attributes;
+import java.util.jar.JarEntry;
+import java.util.jar.JarOutputStream;
+import java.util.jar.Manifest;
+import java.util.stream.Stream;
+
+/**
+ * Tests for the pre-rendered help pages under a temporary home.
+ */
+public class HelpCacheTest extends TestCase {
+
+    // Whole-second source times, so a page time is exactly one second past the newest source
+    private static final long REGISTRY_TIME = 1_600_000_000_000L;
+    private static final long JAR_TIME = 1_700_000_000_000L;
+
+    private String userHome;
+    private Path home;
+    private Path cache;
+
+    protected void setUp() throws Exception {
+        userHome = System.getProperty("user.home");
+        home = Files.createTempDirectory("jex-home");
+        System.setProperty("user.home", home.toString());
+        Files.createDirectories(Paths.get(PathConfig.getPluginsDirectory()));
+        cache = Paths.get(PathConfig.getCacheDirectory());
+    }
+
+    protected void tearDown() throws Exception {
+        System.setProperty("user.home", userHome);
+        try (Stream<Path> walk = Files.walk(home)) {
+            walk.sorted(Comparator.reverseOrder()).forEach(p -> p.toFile().delete());
+        }
+    }
+
+    private Path writeJar(String file, String option) throws IOException {
+        Manifest manifest = new Manifest();
+        manifest.getMainAttributes().put(Attributes.Name.MANIFEST_VERSION, "1.0");
+        String arguments = "options:\n"
+                + "  - short: h\n    long: help\n    description: Show help\n"
+                + "  - long: " + option + "\n    description: The " + option + " option\n";
+        Path jar = Paths.get(PathConfig.getPluginsDirectory(), file);
+        try (JarOutputStream out = new JarOutputStream(Files.newOutputStream(jar), manifest)) {
+            out.putNextEntry(new JarEntry("arguments.yaml"));
+            out.write(arguments.getBytes(StandardCharsets.UTF_8));
+            out.closeEntry();
+        }
+        Files.setLastModifiedTime(jar, FileTime.fromMillis(JAR_TIME));
+        return jar.toAbsolutePath();
+    }
+
+    private static void writeRegistry(String yaml, long time) throws IOException {
+        Path registry = Paths.get(PathConfig.getPluginYamlPath());
+        Files.writeString(registry, yaml);
+        Files.setLastModifiedTime(registry, FileTime.fromMillis(time));
+    }
+
+    private Path page(String name) {
+        return cache.resolve(HelpCache.PLUGIN_PAGES).resolve(name + HelpCache.PAGE_SUFFIX);
+    }
+
+    private static long time(Path file) throws IOException {
+        return Files.getLastModifiedTime(file).toMillis();
+    }
+
+    public void testWritesPages() throws Exception {
+        Path jar = writeJar("tool.jar", "input");
+        writeRegistry("tool:\n  jar: tool.jar\n  class: com.example.Tool\n  description: A tool\n"
+                + "  jvm:\n    heap: 64m\n", REGISTRY_TIME);
+
+        HelpCache.refresh(null);
+
+        assertTrue(Files.readString(cache.resolve(HelpCache.HELP_PAGE)).contains("--list"));
+        assertTrue(Files.readString(cache.resolve(HelpCache.LIST_PAGE)).contains("  tool - A tool"));
+        assertEquals("tool -Xmx64m\n", Files.readString(cache.resolve(JvmProfile.FILE_NAME)));
+
+        // The first line names the JAR the page was rendered from; the rest is the help output
+        List<String> lines = Files.readAllLines(page("tool"));
+        assertEquals(jar.toString(), lines.get(0));
+        assertTrue(lines.get(1).startsWith("usage: jex tool"));
+        assertTrue(String.join("\n", lines).contains("--input"));
+
+        // One second past the newest source: the registry for the list, the JAR for the page
+        assertEquals(REGISTRY_TIME + 1000, time(cache.resolve(HelpCache.LIST_PAGE)));
+        assertEquals(REGISTRY_TIME + 1000, time(cache.resolve(JvmProfile.FILE_NAME)));
+        assertEquals(JAR_TIME + 1000, time(page("tool")));
+    }
+
+    public void testRerendersOnlyChangedPlugins() throws Exception {
+        writeJar("tool.jar", "input");
+        writeRegistry("tool:\n  jar: tool.jar\n  class: com.example.Tool\n", REGISTRY_TIME);
+        HelpCache.refresh(null);
+
+        // Unchanged: the page is kept as it is
+        writeJar("tool.jar", "output");
+        HelpCache.refresh(List.of());
+        assertTrue(Files.readString(page("tool")).contains("--input"));
+
+        // The JAR was just written
+        HelpCache.refresh(List.of("tool"));
+        assertFalse(Files.readString(page("tool")).contains("--input"));
+        assertTrue(Files.readString(page("tool")).contains("--output"));
+
+        // Only the registry changed: same page, newer time
+        long later = JAR_TIME + 5000;
+        writeRegistry("tool:\n  jar: tool.jar\n  class: com.example.Tool\n  description: Changed\n", later);
+        HelpCache.refresh(List.of());
+        assertTrue(Files.readString(page("tool")).contains("--output"));
+        assertEquals(later + 1000, time(page("tool")));
+        assertTrue(Files.readString(cache.resolve(HelpCache.LIST_PAGE)).contains("  tool - Changed"));
+    }
+
+    public void testRerendersWhenRegistryPointsToAnotherJar() throws Exception {
+        writeJar("tool.jar", "input");
+        writeRegistry("tool:\n  jar: tool.jar\n  class: com.example.Tool\n", REGISTRY_TIME);
+        HelpCache.refresh(null);
+
+        // A hand edit of the registry names no changed plugin
+        Path other = writeJar("tool-2.jar", "output");
+        writeRegistry("tool:\n  jar: tool-2.jar\n  class: com.example.Tool\n", REGISTRY_TIME + 2000);
+        HelpCache.refresh(List.of());
+
+        List<String> lines = Files.readAllLines(page("tool"));
+        assertEquals(other.toString(), lines.get(0));
+        assertTrue(String.join("\n", lines).contains("--output"));
+    }
+
+    public void testDropsPagesOfRemovedPlugins() throws Exception {
+        writeJar("tool.jar", "input");
+        writeRegistry("tool:\n  jar: tool.jar\n  class: com.example.Tool\n  jvm:\n    tier: 1\n", REGISTRY_TIME);
+        HelpCache.refresh(null);
+        assertTrue(Files.exists(page("tool")));
+
+        writeRegistry("other:\n  jar: missing.jar\n  class: com.example.Other\n", REGISTRY_TIME + 2000);
+        HelpCache.refresh(List.of());
+        assertFalse(Files.exists(page("tool")));
+        assertFalse(Files.exists(page("other")));
+        assertEquals("", Files.readString(cache.resolve(JvmProfile.FILE_NAME)));
+        assertFalse(Files.readString(cache.resolve(HelpCache.LIST_PAGE)).contains("tool"));
+    }
+
+    public void testCorruptJarGetsNoPage() throws Exception {
+        writeJar("tool.jar", "input");
+        Files.writeString(Paths.get(PathConfig.getPluginsDirectory(), "bad.jar"), "not a zip");
+        writeRegistry("bad:\n  jar: bad.jar\n  class: com.example.Bad\n"
+                + "tool:\n  jar: tool.jar\n  class: com.example.Tool\n", REGISTRY_TIME);
+
+        HelpCache.refresh(null);
+
+        assertFalse(Files.exists(page("bad")));
+        assertTrue(Files.readString(page("tool")).contains("--input"));
+        assertTrue(Files.readString(cache.resolve(HelpCache.LIST_PAGE)).contains("  bad"));
+        assertTrue(Files.exists(cache.resolve(CompletionIndex.FILE_NAME)));
+        assertTrue(Files.exists(cache.resolve(JvmProfile.FILE_NAME)));
+    }
+
+    public void testLaunchProfilesWrittenWhenPagesFail() throws Exception {
+        writeJar("tool.jar", "input");
+        writeRegistry("tool:\n  jar: tool.jar\n  class: com.example.Tool\n  jvm:\n    heap: 64m\n", REGISTRY_TIME);
+        // Plugin pages can't be written where a file blocks their directory
+        Files.createDirectories(cache);
+        Files.writeString(cache.resolve(HelpCache.PLUGIN_PAGES), "not a directory");
+
+        HelpCache.refresh(null);
+
+        // Still stamped, so the wrapper considers it fresh and doesn't refresh on every run
+        Path launch = cache.resolve(JvmProfile.FILE_NAME);
+        assertEquals("tool -Xmx64m\n", Files.readString(launch));
+        assertEquals(REGISTRY_TIME + 1000, time(launch));
+    }
+}
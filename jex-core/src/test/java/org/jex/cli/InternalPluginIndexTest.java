@@ -0,0 +1,37 @@
+package org.jex.cli;
+
+import junit.framework.TestCase;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Tests for the build-time internal plugin index.
+ */
+public class InternalPluginIndexTest extends TestCase {
+
+    public void testReadSkipsCommentsAndBlankLines() throws Exception {
+        String content = "# header\n\nnew-plugin=org.jex.plugins.newplugin.NewPlugin\n  other = com.example.Other \n";
+        Map<String, String> index = new TreeMap<>();
+
+        InternalPluginIndex.read(new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8)), index);
+
+        assertEquals(2, index.size());
+        assertEquals("org.jex.plugins.newplugin.NewPlugin", index.get("new-plugin"));
+        assertEquals("com.example.Other", index.get("other"));
+    }
+
+    public void testFirstEntryWins() throws Exception {
+        Map<String, String> index = new TreeMap<>();
+        InternalPluginIndex.read(new ByteArrayInputStream("a=first\n".getBytes(StandardCharsets.UTF_8)), index);
+        InternalPluginIndex.read(new ByteArrayInputStream("a=second\n".getBytes(StandardCharsets.UTF_8)), index);
+
+        assertEquals("first", index.get("a"));
+    }
+
+    public void testUnknownInternalPluginIsNull() throws Exception {
+        assertNull(Jex.findInternalPlugin("does-not-exist"));
+    }
+}
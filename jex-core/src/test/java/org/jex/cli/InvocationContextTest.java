@@ -0,0 +1,77 @@
+package org.jex.cli;
+
+import junit.framework.TestCase;
+
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.io.PrintStream;
+import java.util.Properties;
+
+/**
+ * Tests for per-invocation stdio and system property routing.
+ */
+public class InvocationContextTest extends TestCase {
+
+    private PrintStream savedOut;
+    private PrintStream savedErr;
+    private InputStream savedIn;
+    private Properties savedProperties;
+
+    protected void setUp() {
+        savedOut = System.out;
+        savedErr = System.err;
+        savedIn = System.in;
+        // install() replaces the system properties with a context-aware copy
+        savedProperties = System.getProperties();
+        InvocationContext.install();
+    }
+
+    protected void tearDown() {
+        System.setOut(savedOut);
+        System.setErr(savedErr);
+        System.setIn(savedIn);
+        System.setProperties(savedProperties);
+    }
+
+    public void testConcurrentContextsKeepTheirOwnOutput() throws Exception {
+        ByteArrayOutputStream first = new ByteArrayOutputStream();
+        ByteArrayOutputStream second = new ByteArrayOutputStream();
+        Thread a = Thread.ofVirtual().start(() -> context(first, "/a").run(() -> print("a")));
+        Thread b = Thread.ofVirtual().start(() -> context(second, "/b").run(() -> print("b")));
+        a.join();
+        b.join();
+
+        assertEquals("a/a".repeat(100), first.toString());
+        assertEquals("b/b".repeat(100), second.toString());
+    }
+
+    public void testChildThreadsAndPropertiesStayInContext() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        context(out, "/work").run(() -> {
+            System.setProperty("jex.test.value", "inside");
+            Thread child = new Thread(() -> System.out.print(System.getProperty("jex.test.value")));
+            child.start();
+            try {
+                child.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+
+        assertEquals("inside", out.toString());
+        assertNull(System.getProperty("jex.test.value"));
+        assertFalse("/work".equals(System.getProperty("user.dir")));
+    }
+
+    private static InvocationContext context(ByteArrayOutputStream out, String workingDirectory) {
+        return new InvocationContext(InputStream.nullInputStream(), new PrintStream(out, true),
+                new PrintStream(new ByteArrayOutputStream(), true), workingDirectory);
+    }
+
+    private static void print(String text) {
+        for (int i = 0; i < 100; i++) {
+            System.out.print(text + System.getProperty("user.dir"));
+            Thread.yield();
+        }
+    }
+}
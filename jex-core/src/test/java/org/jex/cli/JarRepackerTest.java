@@ -0,0 +1,83 @@
+package org.jex.cli;
+
+import junit.framework.TestCase;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Enumeration;
+import java.util.List;
+import java.util.jar.Attributes;
+import java.util.jar.JarEntry;
+import java.util.jar.JarFile;
+import java.util.jar.JarOutputStream;
+import java.util.jar.Manifest;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+/**
+ * Tests for repacking plugin JARs into the load-optimized layout.
+ */
+public class JarRepackerTest extends TestCase {
+
+    private Path source;
+    private Path dest;
+
+    protected void setUp() throws Exception {
+        source = Files.createTempFile("jex-repack-in", ".jar");
+        dest = Files.createTempFile("jex-repack-out", ".jar");
+
+        Manifest manifest = new Manifest();
+        manifest.getMainAttributes().put(Attributes.Name.MANIFEST_VERSION, "1.0");
+        manifest.getMainAttributes().putValue(PluginDescriptor.CLASS_ATTRIBUTE, "a.Main");
+        Attributes signed = new Attributes();
+        signed.putValue("SHA-256-Digest", "AAAA");
+        manifest.getEntries().put("a/Main.class", signed);
+
+        try (JarOutputStream out = new JarOutputStream(Files.newOutputStream(source), manifest)) {
+            for (String name : new String[]{"a/data.txt", "a/Main.class", "a/Helper.class", "b/Util.class",
+                    "META-INF/SIGNER.SF", "META-INF/SIGNER.RSA", "META-INF/maven/pom.properties"}) {
+                out.putNextEntry(new JarEntry(name));
+                out.write(name.repeat(20).getBytes(StandardCharsets.UTF_8));
+                out.closeEntry();
+            }
+        }
+    }
+
+    protected void tearDown() throws Exception {
+        Files.deleteIfExists(source);
+        Files.deleteIfExists(dest);
+    }
+
+    public void testLayout() throws Exception {
+        JarRepacker.Stats stats = JarRepacker.repack(source, dest, Arrays.asList("b.Util", "a.Missing", "a.Main"));
+        assertEquals(3, stats.classes());
+        assertEquals(2, stats.profiled());
+        assertEquals(2, stats.dropped());
+
+        List<String> names = new ArrayList<>();
+        try (ZipFile zip = new ZipFile(dest.toFile())) {
+            Enumeration<? extends ZipEntry> entries = zip.entries();
+            while (entries.hasMoreElements()) {
+                ZipEntry entry = entries.nextElement();
+                names.add(entry.getName());
+                int expected = entry.getName().endsWith(".class") ? ZipEntry.STORED : ZipEntry.DEFLATED;
+                assertEquals(entry.getName(), expected, entry.getMethod());
+            }
+            assertEquals("a/data.txt".repeat(20), new String(zip.getInputStream(zip.getEntry("a/data.txt")).readAllBytes(),
+                    StandardCharsets.UTF_8));
+        }
+        assertEquals(Arrays.asList(JarFile.MANIFEST_NAME, "b/Util.class", "a/Main.class", "a/Helper.class",
+                "a/data.txt", "META-INF/maven/pom.properties"), names);
+
+        try (JarFile jar = new JarFile(dest.toFile())) {
+            Manifest manifest = jar.getManifest();
+            assertEquals("a.Main", manifest.getMainAttributes().getValue(PluginDescriptor.CLASS_ATTRIBUTE));
+            assertTrue(manifest.getEntries().isEmpty());
+        }
+        assertEquals("a/Main.class".repeat(20),
+                new String(MappedJar.open(dest).readClass("a/Main.class"), StandardCharsets.UTF_8));
+    }
+}
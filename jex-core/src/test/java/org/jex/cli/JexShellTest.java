@@ -0,0 +1,149 @@
+package org.jex.cli;
+
+import junit.framework.TestCase;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.attribute.FileTime;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.jar.JarOutputStream;
+import java.util.stream.Stream;
+
+/**
+ * Tests for jex --shell sessions and their command line splitting.
+ */
+public class JexShellTest extends TestCase {
+
+    private static final AtomicInteger instances = new AtomicInteger();
+    private static final AtomicInteger inits = new AtomicInteger();
+
+    /**
+     * Registered plugin: prints its argument and exits with it. "blank-registry" overwrites
+     * plugin.yaml without changing its size or time, so only a reused registry still finds it.
+     */
+    public static class Counter implements JexPluginV2 {
+        public Counter() {
+            instances.incrementAndGet();
+        }
+
+        public String getName() {
+            return "count";
+        }
+
+        public void init() {
+            inits.incrementAndGet();
+        }
+
+        public int run(String[] args) {
+            if (args[0].equals("blank-registry")) {
+                try {
+                    Path registry = Paths.get(PathConfig.getPluginYamlPath());
+                    FileTime time = Files.getLastModifiedTime(registry);
+                    Files.writeString(registry, " ".repeat((int) Files.size(registry)));
+                    Files.setLastModifiedTime(registry, time);
+                } catch (IOException e) {
+                    throw new IllegalStateException(e);
+                }
+                return 0;
+            }
+            System.out.println("ran " + args[0]);
+            return Integer.parseInt(args[0]);
+        }
+    }
+
+    private String userHome;
+    private Path home;
+    private InputStream savedIn;
+    private PrintStream savedOut;
+    private PrintStream savedErr;
+    private ByteArrayOutputStream out;
+    private ByteArrayOutputStream err;
+
+    protected void setUp() throws Exception {
+        userHome = System.getProperty("user.home");
+        home = Files.createTempDirectory("jex-home");
+        System.setProperty("user.home", home.toString());
+        Path plugins = Files.createDirectories(Paths.get(PathConfig.getPluginsDirectory()));
+        // The class itself comes from the test class path; the registry only needs the JAR to exist
+        new JarOutputStream(Files.newOutputStream(plugins.resolve("count.jar"))).close();
+        Files.writeString(Paths.get(PathConfig.getPluginYamlPath()),
+                "count:\n  jar: count.jar\n  class: " + Counter.class.getName() + "\n");
+        instances.set(0);
+        inits.set(0);
+
+        savedIn = System.in;
+        savedOut = System.out;
+        savedErr = System.err;
+        out = new ByteArrayOutputStream();
+        err = new ByteArrayOutputStream();
+        System.setOut(new PrintStream(out, true));
+        System.setErr(new PrintStream(err, true));
+    }
+
+    protected void tearDown() throws Exception {
+        System.setIn(savedIn);
+        System.setOut(savedOut);
+        System.setErr(savedErr);
+        System.setProperty("user.home", userHome);
+        try (Stream<Path> walk = Files.walk(home)) {
+            walk.sorted(Comparator.reverseOrder()).forEach(p -> p.toFile().delete());
+        }
+    }
+
+    private int session(String script, String... args) {
+        System.setIn(new ByteArrayInputStream(script.getBytes(StandardCharsets.UTF_8)));
+        return JexShell.run(args);
+    }
+
+    private static List<String> lines(ByteArrayOutputStream stream) {
+        return stream.toString(StandardCharsets.UTF_8).lines().toList();
+    }
+
+    public void testReportsEachFailingLineOnce() {
+        assertEquals(4, session("count 0\ncount 3\n\ncount 0\ncount 4\n"));
+        assertEquals(Arrays.asList("ran 0", "ran 3", "ran 0", "ran 4"), lines(out));
+        assertEquals(Arrays.asList("[exit 3] count 3", "[exit 4] count 4"), lines(err));
+    }
+
+    public void testStopOnErrorEndsSessionAtFirstFailure() {
+        assertEquals(3, session("count 0\ncount 3\ncount 0\ncount 4\n", "--stop-on-error"));
+        assertEquals(Arrays.asList("ran 0", "ran 3"), lines(out));
+        assertEquals(Arrays.asList("[exit 3] count 3"), lines(err));
+    }
+
+    public void testPluginAndRegistryReusedAcrossLines() {
+        assertEquals(0, session("count blank-registry\ncount 0\ncount 0\n"));
+        assertEquals(Arrays.asList("ran 0", "ran 0"), lines(out));
+        assertEquals(1, instances.get());
+        assertEquals(1, inits.get());
+    }
+
+    public void testTokenizeQuotesAndEscapes() {
+        assertEquals(Arrays.asList("hello", "a b", "it's", "x\"y", "c d"),
+                JexShell.tokenize("hello 'a b' it\\'s \"x\\\"y\" c\\ d"));
+    }
+
+    public void testTokenizeComments() {
+        assertTrue(JexShell.tokenize("   # just a comment").isEmpty());
+        assertEquals(Arrays.asList("hello", "a#b"), JexShell.tokenize("hello a#b # trailing"));
+    }
+
+    public void testTokenizeRejectsUnterminatedQuote() {
+        try {
+            JexShell.tokenize("hello 'a b");
+            fail("Expected IllegalArgumentException");
+        } catch (IllegalArgumentException e) {
+            // expected
+        }
+    }
+}
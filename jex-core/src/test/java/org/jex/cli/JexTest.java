@@ -35,4 +35,13 @@ public class JexTest
     {
         assertTrue( true );
     }
+
+    /**
+     * Plugin install and update reject arguments they don't know instead of ignoring them
+     */
+    public void testPluginCommandsRejectUnknownArguments()
+    {
+        assertEquals( 1, Jex.run( new String[] { "--install-plugin", "tool", "--jar", "tool.jar", "--force" } ) );
+        assertEquals( 1, Jex.run( new String[] { "--update-plugin", "tool", "--jar", "tool.jar", "--repack", "x" } ) );
+    }
 }
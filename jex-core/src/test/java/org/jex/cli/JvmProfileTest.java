@@ -0,0 +1,69 @@
+package org.jex.cli;
+
+import junit.framework.TestCase;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Tests for resolving plugin launch profiles to JVM flags.
+ */
+public class JvmProfileTest extends TestCase {
+
+    public void testFlags() {
+        Map<String, Object> profile = new LinkedHashMap<>();
+        profile.put("heap", "64m");
+        profile.put("gc", "Serial");
+        profile.put("tier", 1);
+        profile.put("flags", "-Xss512k  -XX:+UseCompressedOops");
+
+        assertEquals(Arrays.asList("-Xmx64m", "-XX:+UseSerialGC", "-XX:TieredStopAtLevel=1",
+                "-Xss512k", "-XX:+UseCompressedOops"), JvmProfile.flags(profile));
+    }
+
+    public void testHeapSizes() {
+        assertEquals(Arrays.asList("-Xmx2m"), JvmProfile.flags(Map.of("heap", "2m")));
+        assertEquals(Arrays.asList("-Xmx4096K"), JvmProfile.flags(Map.of("heap", "4096K")));
+        assertEquals(Arrays.asList("-Xmx1g"), JvmProfile.flags(Map.of("heap", "1g")));
+        assertEquals(Arrays.asList("-Xmx16t"), JvmProfile.flags(Map.of("heap", "16t")));
+    }
+
+    public void testFlagsList() {
+        Map<String, Object> profile = new LinkedHashMap<>();
+        profile.put("flags", Arrays.asList("-Xshare:auto", "-XX:+AlwaysPreTouch"));
+
+        assertEquals(Arrays.asList("-Xshare:auto", "-XX:+AlwaysPreTouch"), JvmProfile.flags(profile));
+    }
+
+    public void testInvalidValues() {
+        assertInvalid("heap", "64 mb");
+        // Without a unit -Xmx takes bytes
+        assertInvalid("heap", "512");
+        assertInvalid("heap", 512);
+        assertInvalid("heap", "1024k");
+        assertInvalid("gc", "cms");
+        assertInvalid("tier", 5);
+        assertInvalid("flags", "Xmx1g");
+        assertInvalid("flags", Arrays.asList("-Dname=a b"));
+        assertInvalid("stack", "1m");
+    }
+
+    public void testNotAMap() {
+        try {
+            JvmProfile.flags("-Xmx64m");
+            fail("Expected IllegalArgumentException");
+        } catch (IllegalArgumentException expected) {
+            // ok
+        }
+    }
+
+    private static void assertInvalid(String key, Object value) {
+        try {
+            JvmProfile.flags(Map.of(key, value));
+            fail("Expected IllegalArgumentException for " + key + ": " + value);
+        } catch (IllegalArgumentException expected) {
+            // ok
+        }
+    }
+}
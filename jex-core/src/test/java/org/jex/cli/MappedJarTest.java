@@ -0,0 +1,175 @@
+package org.jex.cli;
+
+import junit.framework.TestCase;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.jar.Attributes;
+import java.util.jar.JarEntry;
+import java.util.jar.JarOutputStream;
+import java.util.jar.Manifest;
+import java.util.zip.CRC32;
+import java.util.zip.ZipEntry;
+
+/**
+ * Tests for the memory-mapped JAR reader and the plugin class loader on top of it.
+ */
+public class MappedJarTest extends TestCase {
+
+    /**
+     * Loaded from a JAR by PluginClassLoader, never from the test class path.
+     */
+    public static class Exiter implements Runnable {
+        public void run() {
+            System.exit(5);
+        }
+    }
+
+    private Path jar;
+
+    protected void setUp() throws Exception {
+        jar = Files.createTempFile("jex-mapped", ".jar");
+    }
+
+    protected void tearDown() throws Exception {
+        Files.deleteIfExists(jar);
+    }
+
+    private void writeJar(Manifest manifest, byte[] prefix, Object... entries) throws Exception {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (JarOutputStream out = manifest != null ? new JarOutputStream(bytes, manifest) : new JarOutputStream(bytes)) {
+            for (int i = 0; i < entries.length; i += 2) {
+                String name = (String) entries[i];
+                byte[] data = (byte[]) entries[i + 1];
+                JarEntry entry = new JarEntry(name);
+                // Every other entry is stored, the rest deflated
+                if (i % 4 == 0) {
+                    CRC32 crc = new CRC32();
+                    crc.update(data);
+                    entry.setMethod(ZipEntry.STORED);
+                    entry.setSize(data.length);
+                    entry.setCrc(crc.getValue());
+                }
+                out.putNextEntry(entry);
+                out.write(data);
+                out.closeEntry();
+            }
+        }
+        try (OutputStream out = Files.newOutputStream(jar)) {
+            out.write(prefix);
+            out.write(bytes.toByteArray());
+        }
+    }
+
+    private static byte[] bytes(String text) {
+        return text.repeat(50).getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static Manifest manifest(boolean multiRelease) {
+        Manifest manifest = new Manifest();
+        manifest.getMainAttributes().put(Attributes.Name.MANIFEST_VERSION, "1.0");
+        if (multiRelease) {
+            manifest.getMainAttributes().put(Attributes.Name.MULTI_RELEASE, "true");
+        }
+        return manifest;
+    }
+
+    public void testReadsStoredAndDeflatedEntries() throws Exception {
+        // Bytes in front of the archive, as in a self-executing JAR
+        writeJar(null, "#!/bin/sh\nexit 1\n".getBytes(StandardCharsets.UTF_8),
+                "a/One.class", bytes("one"), "a/b/Two.class", bytes("two"), "Three.class", bytes("three"));
+
+        MappedJar mapped = MappedJar.open(jar);
+        assertTrue(Arrays.equals(bytes("one"), mapped.readClass("a/One.class")));
+        assertTrue(Arrays.equals(bytes("two"), mapped.readClass("a/b/Two.class")));
+        assertTrue(Arrays.equals(bytes("three"), mapped.readClass("Three.class")));
+        assertNull(mapped.readClass("a/Missing.class"));
+        assertEquals(3, mapped.getPackages().size());
+        assertTrue(mapped.getPackages().contains("a.b"));
+    }
+
+    public void testMultiReleaseEntries() throws Exception {
+        Object[] entries = {
+                "a/Tool.class", bytes("base"),
+                "META-INF/versions/9/a/Tool.class", bytes("nine"),
+                "META-INF/versions/99999/a/Tool.class", bytes("future")};
+
+        writeJar(manifest(true), new byte[0], entries);
+        assertTrue(Arrays.equals(bytes("nine"), MappedJar.open(jar).readClass("a/Tool.class")));
+
+        writeJar(manifest(false), new byte[0], entries);
+        assertTrue(Arrays.equals(bytes("base"), MappedJar.open(jar).readClass("a/Tool.class")));
+    }
+
+    public void testNotAJar() throws Exception {
+        Files.write(jar, bytes("junk"));
+        try {
+            MappedJar.open(jar);
+            fail("Expected IOException");
+        } catch (IOException e) {
+            // expected
+        }
+    }
+
+    public void testClassLoaderDefinesTrappedClassesFromSecondJar() throws Exception {
+        Path other = Files.createTempFile("jex-mapped-other", ".jar");
+        try {
+            writeJar(null, new byte[0], "x/Unused.class", bytes("unused"));
+            String entry = Exiter.class.getName().replace('.', '/') + ".class";
+            try (InputStream in = Exiter.class.getResourceAsStream("/" + entry);
+                 JarOutputStream out = new JarOutputStream(Files.newOutputStream(other))) {
+                out.putNextEntry(new JarEntry(entry));
+                out.write(in.readAllBytes());
+                out.closeEntry();
+            }
+
+            try (PluginClassLoader loader = new PluginClassLoader(List.of(jar, other), new HidingLoader(), List.of())) {
+                Class<?> type = loader.loadClass(Exiter.class.getName());
+                assertSame(loader, type.getClassLoader());
+                assertEquals(other.toUri().toURL(), type.getProtectionDomain().getCodeSource().getLocation());
+                try {
+                    ((Runnable) type.getDeclaredConstructor().newInstance()).run();
+                    fail("Expected PluginExit");
+                } catch (PluginExit e) {
+                    assertEquals(5, e.getExitCode());
+                }
+                assertNull(loader.getDefinedClasses());
+            }
+
+            // Only a loader created for a training run records, and only its own definitions
+            try (PluginClassLoader training = new PluginClassLoader(List.of(jar, other), new HidingLoader(), List.of(), true);
+                 PluginClassLoader later = new PluginClassLoader(List.of(jar, other), new HidingLoader(), List.of())) {
+                training.loadClass(Exiter.class.getName());
+                later.loadClass(Exiter.class.getName());
+                assertEquals(List.of(Exiter.class.getName()), training.getDefinedClasses());
+                assertNull(later.getDefinedClasses());
+            }
+        } finally {
+            Files.deleteIfExists(other);
+        }
+    }
+
+    /**
+     * The test class path without Exiter, so the plugin loader has to define it.
+     */
+    private static final class HidingLoader extends ClassLoader {
+        HidingLoader() {
+            super(MappedJarTest.class.getClassLoader());
+        }
+
+        @Override
+        protected Class<?> loadClass(String name, boolean resolve) throws ClassNotFoundException {
+            if (name.equals(Exiter.class.getName())) {
+                throw new ClassNotFoundException(name);
+            }
+            return super.loadClass(name, resolve);
+        }
+    }
+}
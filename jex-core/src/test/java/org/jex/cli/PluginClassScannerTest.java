@@ -0,0 +1,102 @@
+package org.jex.cli;
+
+import junit.framework.TestCase;
+
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.jar.JarEntry;
+import java.util.jar.JarOutputStream;
+
+/**
+ * Tests for finding JexPlugin implementations from class file headers.
+ */
+public class PluginClassScannerTest extends TestCase {
+
+    public abstract static class BasePlugin implements JexPlugin {
+        public String getName() {
+            return "base";
+        }
+    }
+
+    public static class SubPlugin extends BasePlugin {
+        public void execute(String[] args) {
+        }
+    }
+
+    public interface ToolPlugin extends JexPluginV2 {
+    }
+
+    public static class ToolImpl implements ToolPlugin {
+        public String getName() {
+            return "tool";
+        }
+
+        public int run(String[] args) {
+            return 0;
+        }
+    }
+
+    public static class Unrelated implements Runnable {
+        public void run() {
+        }
+    }
+
+    private Path jar;
+
+    protected void setUp() throws Exception {
+        jar = Files.createTempFile("jex-scan", ".jar");
+    }
+
+    protected void tearDown() throws Exception {
+        Files.deleteIfExists(jar);
+    }
+
+    private void writeJar(Class<?>... classes) throws Exception {
+        try (JarOutputStream out = new JarOutputStream(Files.newOutputStream(jar))) {
+            for (Class<?> type : classes) {
+                out.putNextEntry(new JarEntry(type.getName().replace('.', '/') + ".class"));
+                out.write(classFile(type));
+                out.closeEntry();
+            }
+        }
+    }
+
+    private static byte[] classFile(Class<?> type) throws Exception {
+        try (InputStream in = type.getResourceAsStream("/" + type.getName().replace('.', '/') + ".class")) {
+            return in.readAllBytes();
+        }
+    }
+
+    public void testParseHeader() throws Exception {
+        PluginClassScanner.ClassHeader header = PluginClassScanner.parseHeader(classFile(SubPlugin.class));
+        assertEquals("org/jex/cli/PluginClassScannerTest$SubPlugin", header.name());
+        assertEquals("org/jex/cli/PluginClassScannerTest$BasePlugin", header.superName());
+        assertTrue(header.interfaces().isEmpty());
+
+        header = PluginClassScanner.parseHeader(classFile(ToolPlugin.class));
+        assertEquals(Arrays.asList("org/jex/cli/JexPluginV2"), header.interfaces());
+        assertNull(PluginClassScanner.parseHeader(new byte[]{1, 2, 3}));
+    }
+
+    public void testFindsImplementationsInJarOrder() throws Exception {
+        writeJar(Unrelated.class, BasePlugin.class, SubPlugin.class, ToolPlugin.class, ToolImpl.class);
+
+        List<String> plugins = PluginClassScanner.findPluginClasses(jar);
+        assertEquals(Arrays.asList(SubPlugin.class.getName(), ToolImpl.class.getName()), plugins);
+    }
+
+    public void testResolvesSupertypeOutsideJar() throws Exception {
+        // BasePlugin is not in the JAR, only on the class path
+        writeJar(Unrelated.class, SubPlugin.class);
+        assertEquals(Arrays.asList(SubPlugin.class.getName()), PluginClassScanner.findPluginClasses(jar));
+    }
+
+    public void testNoPlugin() throws Exception {
+        writeJar(Unrelated.class, BasePlugin.class);
+        assertTrue(PluginClassScanner.findPluginClasses(jar).isEmpty());
+        assertNull(JexUtil.findPluginClassInJar(jar));
+    }
+}
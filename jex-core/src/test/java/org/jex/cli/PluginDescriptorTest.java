@@ -0,0 +1,93 @@
+package org.jex.cli;
+
+import junit.framework.TestCase;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.jar.Attributes;
+import java.util.jar.JarEntry;
+import java.util.jar.JarOutputStream;
+import java.util.jar.Manifest;
+
+/**
+ * Tests for reading plugin descriptors from JAR manifests and service files.
+ */
+public class PluginDescriptorTest extends TestCase {
+
+    private static final String PLUGIN_ENTRY = "com/example/Tool.class";
+
+    private Path jar;
+
+    protected void setUp() throws Exception {
+        jar = Files.createTempFile("jex-descriptor", ".jar");
+    }
+
+    protected void tearDown() throws Exception {
+        Files.deleteIfExists(jar);
+    }
+
+    private void writeJar(Manifest manifest, String services) throws IOException {
+        if (manifest == null) {
+            manifest = new Manifest();
+        }
+        manifest.getMainAttributes().put(Attributes.Name.MANIFEST_VERSION, "1.0");
+        try (JarOutputStream out = new JarOutputStream(Files.newOutputStream(jar), manifest)) {
+            out.putNextEntry(new JarEntry(PLUGIN_ENTRY));
+            out.write(new byte[]{(byte) 0xCA, (byte) 0xFE, (byte) 0xBA, (byte) 0xBE});
+            out.closeEntry();
+            if (services != null) {
+                out.putNextEntry(new JarEntry(PluginDescriptor.SERVICES_ENTRY));
+                out.write(services.getBytes(StandardCharsets.UTF_8));
+                out.closeEntry();
+            }
+        }
+    }
+
+    private static Manifest manifest(String... keyValues) {
+        Manifest manifest = new Manifest();
+        for (int i = 0; i < keyValues.length; i += 2) {
+            manifest.getMainAttributes().putValue(keyValues[i], keyValues[i + 1]);
+        }
+        return manifest;
+    }
+
+    public void testManifestAttributes() throws Exception {
+        writeJar(manifest(PluginDescriptor.NAME_ATTRIBUTE, "tool",
+                PluginDescriptor.CLASS_ATTRIBUTE, "com.example.Tool",
+                PluginDescriptor.VERSION_ATTRIBUTE, "2.1.0",
+                PluginDescriptor.DESCRIPTION_ATTRIBUTE, "Does things"), null);
+
+        PluginDescriptor descriptor = PluginDescriptor.read(jar);
+        assertEquals("tool", descriptor.name());
+        assertEquals("com.example.Tool", descriptor.className());
+        assertEquals("2.1.0", descriptor.version());
+        assertEquals("Does things", descriptor.description());
+    }
+
+    public void testServiceFileAndImplementationVersion() throws Exception {
+        writeJar(manifest("Implementation-Version", "3.0"), "# provider\n\n  com.example.Tool  # main\ncom.example.Other\n");
+
+        PluginDescriptor descriptor = PluginDescriptor.read(jar);
+        assertEquals("com.example.Tool", descriptor.className());
+        assertEquals("3.0", descriptor.version());
+        assertNull(descriptor.name());
+        assertNull(descriptor.description());
+    }
+
+    public void testNoDescriptor() throws Exception {
+        writeJar(null, null);
+        assertNull(PluginDescriptor.read(jar).className());
+    }
+
+    public void testDeclaredClassMissing() throws Exception {
+        writeJar(manifest(PluginDescriptor.CLASS_ATTRIBUTE, "com.example.Missing"), null);
+        try {
+            PluginDescriptor.read(jar);
+            fail("Expected IOException");
+        } catch (IOException e) {
+            assertTrue(e.getMessage(), e.getMessage().contains("com.example.Missing"));
+        }
+    }
+}
@@ -0,0 +1,129 @@
+package org.jex.cli;
+
+import junit.framework.TestCase;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.attribute.FileTime;
+import java.util.Comparator;
+import java.util.Map;
+import java.util.jar.Attributes;
+import java.util.jar.JarEntry;
+import java.util.jar.JarOutputStream;
+import java.util.jar.Manifest;
+import java.util.stream.Stream;
+
+/**
+ * Tests for syncing a directory of plugin JARs into a registry under a temporary home.
+ */
+public class PluginManagerTest extends TestCase {
+
+    private String userHome;
+    private Path home;
+    private Path source;
+
+    protected void setUp() throws Exception {
+        userHome = System.getProperty("user.home");
+        home = Files.createTempDirectory("jex-home");
+        System.setProperty("user.home", home.toString());
+        Files.createDirectories(Paths.get(PathConfig.getPluginsDirectory()));
+        source = Files.createTempDirectory("jex-sync");
+    }
+
+    protected void tearDown() throws Exception {
+        System.setProperty("user.home", userHome);
+        for (Path dir : new Path[] {home, source}) {
+            try (Stream<Path> walk = Files.walk(dir)) {
+                walk.sorted(Comparator.reverseOrder()).forEach(p -> p.toFile().delete());
+            }
+        }
+    }
+
+    private void writeJar(String file, String name, String version) throws IOException {
+        Manifest manifest = new Manifest();
+        Attributes attributes = manifest.getMainAttributes();
+        attributes.put(Attributes.Name.MANIFEST_VERSION, "1.0");
+        attributes.putValue(PluginDescriptor.NAME_ATTRIBUTE, name);
+        attributes.putValue(PluginDescriptor.CLASS_ATTRIBUTE, "com.example.Tool");
+        attributes.putValue(PluginDescriptor.VERSION_ATTRIBUTE, version);
+        try (JarOutputStream out = new JarOutputStream(Files.newOutputStream(source.resolve(file)), manifest)) {
+            out.putNextEntry(new JarEntry("com/example/Tool.class"));
+            out.write(new byte[] {(byte) 0xCA, (byte) 0xFE, (byte) 0xBA, (byte) 0xBE, (byte) version.length()});
+            out.closeEntry();
+        }
+    }
+
+    private static Map<String, Map<String, Object>> registry() {
+        Map<String, Map<String, Object>> registry = new PluginLoader().loadRegistry();
+        assertNotNull(registry);
+        return registry;
+    }
+
+    public void testInstallAndUpdate() throws Exception {
+        writeJar("tool.jar", "tool", "1.0.0");
+        assertTrue(new PluginManager().syncPlugins(source, false, false));
+        assertEquals("1.0.0", registry().get("tool").get("version"));
+        assertTrue(Files.exists(Paths.get(PathConfig.getPluginsDirectory(), "tool.jar")));
+
+        writeJar("tool.jar", "tool", "1.1.0");
+        assertTrue(new PluginManager().syncPlugins(source, false, false));
+        assertEquals("1.1.0", registry().get("tool").get("version"));
+    }
+
+    public void testDuplicateNameFails() throws Exception {
+        writeJar("a.jar", "tool", "1.0.0");
+        writeJar("b.jar", "tool", "2.0.0");
+
+        assertFalse(new PluginManager().syncPlugins(source, false, false));
+        // JARs are synced in name order: the first one wins
+        assertEquals("a.jar", registry().get("tool").get("jar"));
+    }
+
+    public void testPrune() throws Exception {
+        writeJar("tool.jar", "tool", "1.0.0");
+        writeJar("other.jar", "other", "1.0.0");
+        assertTrue(new PluginManager().syncPlugins(source, false, false));
+
+        Files.delete(source.resolve("other.jar"));
+        assertTrue(new PluginManager().syncPlugins(source, true, false));
+        assertFalse(registry().containsKey("other"));
+        assertFalse(Files.exists(Paths.get(PathConfig.getPluginsDirectory(), "other.jar")));
+        assertTrue(registry().containsKey("tool"));
+    }
+
+    public void testFailedJarSkipsPrune() throws Exception {
+        writeJar("tool.jar", "tool", "1.0.0");
+        assertTrue(new PluginManager().syncPlugins(source, false, false));
+
+        // A corrupt upgrade of the installed plugin must not uninstall it
+        Files.writeString(source.resolve("tool.jar"), "not a jar");
+        assertFalse(new PluginManager().syncPlugins(source, true, false));
+        assertEquals("1.0.0", registry().get("tool").get("version"));
+        assertTrue(Files.exists(Paths.get(PathConfig.getPluginsDirectory(), "tool.jar")));
+    }
+
+    public void testFailedCopyDoesNotEndSync() throws Exception {
+        writeJar("bad.jar", "bad", "1.0.0");
+        writeJar("tool.jar", "tool", "1.0.0");
+        // A non-empty directory where bad.jar would be installed makes its copy fail
+        Path blocker = Paths.get(PathConfig.getPluginsDirectory(), "bad.jar");
+        Files.createDirectories(blocker.resolve("inside"));
+
+        assertFalse(new PluginManager().syncPlugins(source, false, false));
+        assertEquals("1.0.0", registry().get("tool").get("version"));
+        assertFalse(registry().containsKey("bad"));
+    }
+
+    public void testIdenticalJarTakesSourceTime() throws Exception {
+        writeJar("tool.jar", "tool", "1.0.0");
+        assertTrue(new PluginManager().syncPlugins(source, false, false));
+
+        Path installed = Paths.get(PathConfig.getPluginsDirectory(), "tool.jar");
+        FileTime time = FileTime.fromMillis(Files.getLastModifiedTime(installed).toMillis() - 60_000);
+        Files.setLastModifiedTime(source.resolve("tool.jar"), time);
+        assertTrue(new PluginManager().syncPlugins(source, false, false));
+        assertEquals(time, Files.getLastModifiedTime(installed));
+    }
+}
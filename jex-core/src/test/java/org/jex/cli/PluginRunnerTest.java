@@ -0,0 +1,81 @@
+package org.jex.cli;
+
+import junit.framework.TestCase;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Tests for the JexPluginV2 lifecycle: closing a replaced plugin waits for its runs.
+ */
+public class PluginRunnerTest extends TestCase {
+
+    /**
+     * Plugin whose runs block until released.
+     */
+    private static class Blocking implements JexPluginV2 {
+        final CountDownLatch started = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        final AtomicInteger inits = new AtomicInteger();
+        final AtomicInteger closes = new AtomicInteger();
+
+        public String getName() {
+            return "blocking";
+        }
+
+        public void init() {
+            inits.incrementAndGet();
+        }
+
+        public int run(String[] args) {
+            started.countDown();
+            try {
+                release.await(10, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return 0;
+        }
+
+        public void close() {
+            closes.incrementAndGet();
+        }
+    }
+
+    public void testCloseWaitsForInFlightRun() throws Exception {
+        Blocking plugin = new Blocking();
+        Thread runner = new Thread(() -> PluginRunner.run(plugin, new String[0]));
+        runner.start();
+        assertTrue(plugin.started.await(10, TimeUnit.SECONDS));
+
+        PluginRunner.close(plugin);
+        assertEquals(0, plugin.closes.get());
+
+        plugin.release.countDown();
+        runner.join(10_000);
+        assertEquals(1, plugin.closes.get());
+    }
+
+    public void testIdlePluginClosesImmediately() {
+        Blocking plugin = new Blocking();
+        plugin.release.countDown();
+        assertEquals(0, PluginRunner.run(plugin, new String[0]));
+
+        PluginRunner.close(plugin);
+        assertEquals(1, plugin.closes.get());
+        PluginRunner.close(plugin);
+        assertEquals(1, plugin.closes.get());
+    }
+
+    public void testRunAfterReplacementClosesAgain() {
+        // A caller that fetched the plugin just before it was replaced still gets a clean run
+        Blocking plugin = new Blocking();
+        plugin.release.countDown();
+        PluginRunner.close(plugin);
+
+        assertEquals(0, PluginRunner.run(plugin, new String[0]));
+        assertEquals(1, plugin.inits.get());
+        assertEquals(1, plugin.closes.get());
+    }
+}
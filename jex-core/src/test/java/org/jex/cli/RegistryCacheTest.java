@@ -0,0 +1,71 @@
+package org.jex.cli;
+
+import junit.framework.TestCase;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Tests for the binary plugin.yaml snapshot.
+ */
+public class RegistryCacheTest extends TestCase {
+
+    private Path dir;
+    private Path yamlFile;
+
+    protected void setUp() throws Exception {
+        dir = Files.createTempDirectory("jex-registry-cache");
+        yamlFile = dir.resolve("plugin.yaml");
+        Files.writeString(yamlFile, "my-tool:\n  jar: my-tool.jar\n  class: com.example.MyTool\n");
+    }
+
+    protected void tearDown() throws Exception {
+        Files.deleteIfExists(RegistryCache.snapshotPath(yamlFile));
+        Files.deleteIfExists(yamlFile);
+        Files.deleteIfExists(dir);
+    }
+
+    public void testRoundTripPreservesValues() {
+        Map<String, Object> entry = new LinkedHashMap<>();
+        entry.put("jar", "my-tool.jar");
+        entry.put("class", "com.example.MyTool");
+        entry.put("enabled", Boolean.TRUE);
+        entry.put("count", 3);
+        entry.put("tags", Arrays.asList("a", "b"));
+        Map<String, Map<String, Object>> registry = new LinkedHashMap<>();
+        registry.put("my-tool", entry);
+        registry.put("empty", null);
+
+        RegistryCache.Stamp stamp = RegistryCache.stamp(yamlFile);
+        RegistryCache.write(yamlFile, stamp, registry);
+        Map<String, Map<String, Object>> read = RegistryCache.read(yamlFile, stamp);
+
+        assertNotNull(read);
+        assertEquals(1, read.size());
+        assertEquals(entry, read.get("my-tool"));
+    }
+
+    public void testStaleSnapshotIsIgnored() throws Exception {
+        Map<String, Map<String, Object>> registry = new LinkedHashMap<>();
+        registry.put("my-tool", new LinkedHashMap<>());
+        RegistryCache.write(yamlFile, RegistryCache.stamp(yamlFile), registry);
+
+        Files.writeString(yamlFile, "other:\n  jar: other.jar\n  class: com.example.Other\n");
+
+        assertNull(RegistryCache.read(yamlFile, RegistryCache.stamp(yamlFile)));
+    }
+
+    public void testLoaderWritesAndUsesSnapshot() {
+        PluginLoader loader = new PluginLoader();
+
+        Map<String, Map<String, Object>> parsed = loader.loadPluginRegistry(yamlFile.toString());
+        assertTrue(Files.exists(RegistryCache.snapshotPath(yamlFile)));
+
+        Map<String, Map<String, Object>> cached = loader.loadPluginRegistry(yamlFile.toString());
+        assertEquals(parsed, cached);
+        assertEquals("com.example.MyTool", cached.get("my-tool").get("class"));
+    }
+}
@@ -0,0 +1,111 @@
+package org.jex.cli;
+
+import junit.framework.TestCase;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
+import java.io.InputStreamReader;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Tests for the plugin registry lock.
+ */
+public class RegistryLockTest extends TestCase {
+
+    // Run by a child JVM (source-file mode) to hold the file lock the way another jex process would
+    private static final String HOLDER_SOURCE = String.join("\n",
+            "import java.nio.channels.FileChannel;",
+            "import java.nio.channels.FileLock;",
+            "import java.nio.file.Path;",
+            "import java.nio.file.StandardOpenOption;",
+            "public class LockHolder {",
+            "    public static void main(String[] args) throws Exception {",
+            "        try (FileChannel channel = FileChannel.open(Path.of(args[0]), StandardOpenOption.CREATE, StandardOpenOption.WRITE);",
+            "             FileLock lock = channel.lock()) {",
+            "            System.out.println(\"locked\");",
+            "            System.out.flush();",
+            "            System.in.read();",
+            "        }",
+            "    }",
+            "}",
+            "");
+
+    private Path configDir;
+
+    protected void setUp() throws Exception {
+        configDir = Files.createTempDirectory("jex-lock");
+    }
+
+    protected void tearDown() throws Exception {
+        Files.deleteIfExists(configDir.resolve(RegistryLock.FILE_NAME));
+        Files.deleteIfExists(configDir.resolve("LockHolder.java"));
+        Files.deleteIfExists(configDir);
+    }
+
+    public void testSecondHolderWaitsForRelease() throws Exception {
+        CountDownLatch acquired = new CountDownLatch(1);
+        Thread other = new Thread(() -> {
+            try (RegistryLock lock = RegistryLock.acquire(configDir)) {
+                acquired.countDown();
+            } catch (Exception e) {
+                throw new RuntimeException(e);
+            }
+        });
+
+        try (RegistryLock lock = RegistryLock.acquire(configDir)) {
+            assertTrue(Files.exists(configDir.resolve(RegistryLock.FILE_NAME)));
+            other.start();
+            assertFalse(acquired.await(200, TimeUnit.MILLISECONDS));
+        }
+
+        assertTrue(acquired.await(5, TimeUnit.SECONDS));
+        other.join();
+
+        // Released again: can be re-acquired
+        RegistryLock.acquire(configDir).close();
+    }
+
+    public void testWaitsForLockHeldByAnotherProcess() throws Exception {
+        Path source = configDir.resolve("LockHolder.java");
+        Files.writeString(source, HOLDER_SOURCE);
+        String java = Paths.get(System.getProperty("java.home"), "bin", "java").toString();
+        Process holder = new ProcessBuilder(java, source.toString(), configDir.resolve(RegistryLock.FILE_NAME).toString())
+                .redirectError(ProcessBuilder.Redirect.INHERIT)
+                .start();
+
+        PrintStream savedOut = System.out;
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try {
+            BufferedReader reader = new BufferedReader(new InputStreamReader(holder.getInputStream(), StandardCharsets.UTF_8));
+            assertEquals("locked", reader.readLine());
+
+            System.setOut(new PrintStream(out, true, StandardCharsets.UTF_8));
+            CountDownLatch acquired = new CountDownLatch(1);
+            Thread waiter = new Thread(() -> {
+                try (RegistryLock lock = RegistryLock.acquire(configDir)) {
+                    acquired.countDown();
+                } catch (Exception e) {
+                    throw new RuntimeException(e);
+                }
+            });
+            waiter.start();
+            assertFalse(acquired.await(500, TimeUnit.MILLISECONDS));
+            assertTrue(out.toString(StandardCharsets.UTF_8).startsWith("Waiting for another jex process"));
+
+            // The holder releases the lock when its stdin closes
+            holder.getOutputStream().close();
+            assertTrue(acquired.await(10, TimeUnit.SECONDS));
+            waiter.join();
+        } finally {
+            System.setOut(savedOut);
+            holder.destroy();
+            holder.waitFor();
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package org.jex.cli;
+
+import junit.framework.TestCase;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.stream.Stream;
+
+/**
+ * Tests for the sharded plugin.d registry and its memory-mapped index.
+ */
+public class ShardedRegistryTest extends TestCase {
+
+    private Path dir;
+    private ShardedRegistry registry;
+
+    protected void setUp() throws Exception {
+        dir = Files.createTempDirectory("jex-plugin.d");
+        registry = new ShardedRegistry(dir);
+    }
+
+    protected void tearDown() throws Exception {
+        try (Stream<Path> walk = Files.walk(dir)) {
+            walk.sorted(Comparator.reverseOrder()).forEach(p -> p.toFile().delete());
+        }
+    }
+
+    private static Map<String, String> entry(String name) {
+        Map<String, String> entry = new LinkedHashMap<>();
+        entry.put("jar", name + ".jar");
+        entry.put("class", "com.example." + name.replace("-", ""));
+        return entry;
+    }
+
+    public void testPutGetRemove() throws Exception {
+        registry.put("my-tool", entry("my-tool"));
+
+        assertEquals(entry("my-tool"), registry.get("my-tool"));
+        assertTrue(Files.exists(dir.resolve("my-tool.yaml")));
+        assertNotNull(new RegistryIndex(dir.resolve(RegistryIndex.FILE_NAME)).get("my-tool"));
+
+        assertTrue(registry.remove("my-tool"));
+        assertNull(registry.get("my-tool"));
+        assertNull(new RegistryIndex(dir.resolve(RegistryIndex.FILE_NAME)).get("my-tool"));
+        assertFalse(registry.remove("my-tool"));
+    }
+
+    public void testIndexGrowsAndKeepsAllEntries() throws Exception {
+        for (int i = 0; i < 200; i++) {
+            registry.put("plugin-" + i, entry("plugin-" + i));
+        }
+        registry.remove("plugin-7");
+
+        Map<String, Map<String, Object>> all = registry.loadAll();
+        assertEquals(199, all.size());
+        assertEquals(entry("plugin-150"), registry.get("plugin-150"));
+        assertEquals(199, new RegistryIndex(dir.resolve(RegistryIndex.FILE_NAME)).readAll().size());
+    }
+
+    public void testHandEditedShardWinsOverIndex() throws Exception {
+        registry.put("my-tool", entry("my-tool"));
+        Files.writeString(dir.resolve("my-tool.yaml"), "jar: edited.jar\nclass: com.example.Edited\nversion: 2.0.0\n");
+
+        assertEquals("edited.jar", registry.get("my-tool").get("jar"));
+    }
+
+    public void testMissingIndexIsRebuilt() throws Exception {
+        registry.put("a", entry("a"));
+        Files.delete(dir.resolve(RegistryIndex.FILE_NAME));
+        registry.put("b", entry("b"));
+
+        Map<String, RegistryIndex.Entry> indexed = new RegistryIndex(dir.resolve(RegistryIndex.FILE_NAME)).readAll();
+        assertEquals(2, indexed.size());
+    }
+}
@@ -0,0 +1,135 @@
+package org.jex.cli;
+
+import junit.framework.TestCase;
+
+import java.io.InputStream;
+import java.net.URL;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.jar.JarEntry;
+import java.util.jar.JarOutputStream;
+import java.util.stream.Stream;
+
+/**
+ * Tests for shared library coordinates and class loading through the shared layer.
+ */
+public class SharedLibrariesTest extends TestCase {
+
+    /**
+     * Stands in for a library class; only ever defined from the test JARs.
+     */
+    public static class Library {
+    }
+
+    public void testParse() {
+        assertEquals(Arrays.asList("com.example:util:1.0", "org.acme:core-lib:2.1.0-jre"),
+                SharedLibraries.parse(" com.example:util:1.0 ,org.acme:core-lib:2.1.0-jre, "));
+        assertTrue(SharedLibraries.parse(null).isEmpty());
+
+        for (String invalid : new String[]{"util:1.0", "com.example:util:1.0:jar", "../x:util:1.0", "a:b/c:1"}) {
+            try {
+                SharedLibraries.parse(invalid);
+                fail("Expected IllegalArgumentException for " + invalid);
+            } catch (IllegalArgumentException e) {
+                // expected
+            }
+        }
+    }
+
+    public void testPluginsShareOneDefinition() throws Exception {
+        Path libraryJar = writeJar();
+        // Both plugins also shade the library; the shared copy must win
+        Path firstPlugin = writeJar();
+        Path secondPlugin = writeJar();
+        ClassLoader parent = new HidingLoader();
+
+        try (PluginClassLoader library = new PluginClassLoader(List.of(libraryJar), parent, List.of());
+             PluginClassLoader first = new PluginClassLoader(List.of(firstPlugin), parent, List.of(library));
+             PluginClassLoader second = new PluginClassLoader(List.of(secondPlugin), parent, List.of(library))) {
+            Class<?> type = first.loadClass(Library.class.getName());
+            assertSame(library, type.getClassLoader());
+            assertSame(type, second.loadClass(Library.class.getName()));
+            assertTrue(first.getResource(entryName()).toString().contains(libraryJar.getFileName().toString()));
+        } finally {
+            Files.deleteIfExists(libraryJar);
+            Files.deleteIfExists(firstPlugin);
+            Files.deleteIfExists(secondPlugin);
+        }
+    }
+
+    public void testLoadersFollowEachPluginsDeclarationOrder() throws Exception {
+        String userHome = System.getProperty("user.home");
+        Path home = Files.createTempDirectory("jex-home");
+        System.setProperty("user.home", home.toString());
+        try {
+            for (String coordinate : new String[]{"com.example:a:1.0", "com.example:b:1.0"}) {
+                Path jar = SharedLibraries.jarPath(coordinate);
+                Files.createDirectories(jar.getParent());
+                Files.move(writeJar(), jar);
+            }
+            ClassLoader parent = new HidingLoader();
+
+            List<PluginClassLoader> first = SharedLibraries.loaders(
+                    SharedLibraries.parse("com.example:a:1.0, com.example:b:1.0"), parent);
+            List<PluginClassLoader> second = SharedLibraries.loaders(
+                    SharedLibraries.parse("com.example:b:1.0, com.example:a:1.0"), parent);
+
+            // Same declarations share loaders; b after a is not b on its own
+            assertEquals(first, SharedLibraries.loaders(
+                    SharedLibraries.parse("com.example:a:1.0, com.example:b:1.0"), parent));
+            assertSame(first.get(0), SharedLibraries.loaders(SharedLibraries.parse("com.example:a:1.0"), parent).get(0));
+            assertNotSame(first.get(1), second.get(0));
+            assertNotSame(first.get(0), second.get(1));
+
+            // Each plugin resolves through its own order: b's classes come from a only where a is declared first
+            Class<?> type = first.get(1).loadClass(Library.class.getName());
+            assertSame(first.get(0), type.getClassLoader());
+            assertSame(second.get(0), second.get(0).loadClass(Library.class.getName()).getClassLoader());
+        } finally {
+            System.setProperty("user.home", userHome);
+            try (Stream<Path> walk = Files.walk(home)) {
+                walk.sorted(Comparator.reverseOrder()).forEach(p -> p.toFile().delete());
+            }
+        }
+    }
+
+    private static String entryName() {
+        return Library.class.getName().replace('.', '/') + ".class";
+    }
+
+    private static Path writeJar() throws Exception {
+        Path jar = Files.createTempFile("jex-shared", ".jar");
+        try (InputStream in = Library.class.getResourceAsStream("/" + entryName());
+             JarOutputStream out = new JarOutputStream(Files.newOutputStream(jar))) {
+            out.putNextEntry(new JarEntry(entryName()));
+            out.write(in.readAllBytes());
+            out.closeEntry();
+        }
+        return jar;
+    }
+
+    /**
+     * The test class path without Library, so it has to come from a JAR.
+     */
+    private static final class HidingLoader extends ClassLoader {
+        HidingLoader() {
+            super(SharedLibrariesTest.class.getClassLoader());
+        }
+
+        @Override
+        protected Class<?> loadClass(String name, boolean resolve) throws ClassNotFoundException {
+            if (name.equals(Library.class.getName())) {
+                throw new ClassNotFoundException(name);
+            }
+            return super.loadClass(name, resolve);
+        }
+
+        @Override
+        public URL getResource(String name) {
+            return name.equals(entryName()) ? null : super.getResource(name);
+        }
+    }
+}
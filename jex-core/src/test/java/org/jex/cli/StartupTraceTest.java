@@ -0,0 +1,26 @@
+package org.jex.cli;
+
+import junit.framework.TestCase;
+
+import java.util.Collections;
+
+/**
+ * Tests for startup tracing (the test JVM runs with tracing off).
+ */
+public class StartupTraceTest extends TestCase {
+
+    public void testDisabledByDefault() {
+        assertFalse(StartupTrace.ENABLED);
+
+        StartupTrace.Span span = StartupTrace.begin(StartupTrace.Phase.REGISTRY, "hello");
+        assertNull(span);
+        StartupTrace.end(span);
+        StartupTrace.report();
+    }
+
+    public void testJsonWithoutPhases() {
+        String json = StartupTrace.toJson(Collections.emptyList());
+        assertTrue(json, json.startsWith("{\"pid\":" + ProcessHandle.current().pid() + ","));
+        assertTrue(json, json.endsWith(",\"phases\":[]}"));
+    }
+}
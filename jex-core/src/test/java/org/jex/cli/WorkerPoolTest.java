@@ -0,0 +1,421 @@
+package org.jex.cli;
+
+import junit.framework.TestCase;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Tests for choosing which plugins run in worker JVMs, and for the worker protocol and pool
+ * rules with workers served in-memory by this JVM.
+ */
+public class WorkerPoolTest extends TestCase {
+
+    // Coordinate the "block" command of TestPlugin with the test
+    private static CountDownLatch started;
+    private static CountDownLatch release;
+    private static CountDownLatch lingered;
+    private static final AtomicInteger lateRead = new AtomicInteger();
+
+    private PrintStream savedOut;
+    private PrintStream savedErr;
+    private InputStream savedIn;
+    private Properties savedProperties;
+    private final List<InMemoryProcess> launched = new CopyOnWriteArrayList<>();
+    private WorkerPool pool;
+
+    protected void setUp() {
+        savedOut = System.out;
+        savedErr = System.err;
+        savedIn = System.in;
+        savedProperties = System.getProperties();
+        // Each in-memory worker redirects stdio for its own thread only
+        InvocationContext.install();
+        started = new CountDownLatch(1);
+        release = new CountDownLatch(1);
+        lingered = new CountDownLatch(1);
+    }
+
+    protected void tearDown() {
+        if (pool != null) {
+            pool.close();
+        }
+        release.countDown();
+        launched.forEach(InMemoryProcess::destroy);
+        System.setOut(savedOut);
+        System.setErr(savedErr);
+        System.setIn(savedIn);
+        System.setProperties(savedProperties);
+    }
+
+    public void testIsIsolated() {
+        Map<String, Object> config = new HashMap<>();
+        config.put("jar", "my-tool.jar");
+        assertFalse(WorkerPool.isIsolated(config));
+
+        config.put(WorkerPool.REGISTRY_KEY, "process");
+        assertTrue(WorkerPool.isIsolated(config));
+
+        config.put(WorkerPool.REGISTRY_KEY, "thread");
+        assertFalse(WorkerPool.isIsolated(config));
+    }
+
+    public void testHasConfig() {
+        Map<String, Object> config = new HashMap<>();
+        config.put("jar", "my-tool.jar");
+        config.put(WorkerPool.REGISTRY_KEY, "process");
+        WorkerPool pool = new WorkerPool("my-tool", new HashMap<>(config));
+        assertTrue(pool.hasConfig(config));
+
+        config.put(WorkerPool.RUNS_KEY, 10);
+        assertFalse(pool.hasConfig(config));
+    }
+
+    public void testProtocolRoundTrip() {
+        pool = pool(Map.of());
+
+        Result echo = run("", "echo", "hello world");
+        assertEquals(3, echo.exitCode());
+        assertEquals("hello world", echo.out());
+        assertEquals("err:hello world", echo.err());
+
+        // READ and INPUT, until INPUT signals the end of the caller's stdin
+        Result upper = run("first line\nsecond line\n", "upper");
+        assertEquals(0, upper.exitCode());
+        assertEquals("FIRST LINE\nSECOND LINE\n", upper.out());
+    }
+
+    public void testRecyclesAfterWorkerRuns() {
+        pool = pool(Map.of(WorkerPool.RUNS_KEY, 2));
+        for (int i = 0; i < 7; i++) {
+            assertEquals(0, run("", "count").exitCode());
+        }
+
+        int total = 0;
+        for (InMemoryProcess process : launched) {
+            int runs = process.runs();
+            assertTrue("worker ran " + runs + " times", runs <= 2);
+            if (runs == 2) {
+                assertFalse(process.isAlive());
+            }
+            total += runs;
+        }
+        assertEquals(7, total);
+    }
+
+    public void testReplacesUnhealthyAndDeadWorkers() {
+        pool = pool(Map.of());
+
+        // An exception escaping the plugin leaves the worker unhealthy
+        Result failed = run("", "fail");
+        assertEquals(1, failed.exitCode());
+        assertTrue(failed.err(), failed.err().contains("broken"));
+        for (InMemoryProcess process : launched) {
+            if (process.runs() == 1) {
+                assertFalse(process.isAlive());
+            }
+        }
+
+        // Idle workers that died are discarded rather than handed out
+        List<InMemoryProcess> dead = new ArrayList<>(launched);
+        dead.forEach(InMemoryProcess::destroy);
+        Result echo = run("", "echo", "again");
+        assertEquals(3, echo.exitCode());
+        assertEquals("again", echo.out());
+        assertEquals(1, dead.stream().mapToInt(InMemoryProcess::runs).sum());
+    }
+
+    public void testCloseWhileRunsAreInFlight() throws Exception {
+        pool = pool(Map.of());
+        AtomicReference<Result> blocked = new AtomicReference<>();
+        Thread caller = Thread.ofPlatform().start(() -> blocked.set(run("", "block")));
+        assertTrue(started.await(10, TimeUnit.SECONDS));
+
+        pool.close();
+        Result refused = run("", "echo", "late");
+        assertEquals(1, refused.exitCode());
+        assertTrue(refused.err(), refused.err().contains("closed"));
+
+        // The run in flight completes, then its worker is stopped along with the rest
+        release.countDown();
+        caller.join(10000);
+        assertEquals(0, blocked.get().exitCode());
+        assertEquals("done", blocked.get().out());
+
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (launched.stream().anyMatch(InMemoryProcess::isAlive) && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertFalse(launched.stream().anyMatch(InMemoryProcess::isAlive));
+    }
+
+    public void testStdioBetweenRunsIsNotRelayed() throws Exception {
+        pool = pool(Map.of());
+        assertEquals(0, run("unread", "linger").exitCode());
+        InMemoryProcess lingering = launched.get(0);
+
+        // Leave the lingering worker as the only one to take
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (launched.size() < 2 && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        launched.stream().filter(process -> process != lingering).forEach(InMemoryProcess::destroy);
+
+        // The background thread writes and reads after the run ended
+        release.countDown();
+        assertTrue(lingered.await(10, TimeUnit.SECONDS));
+        assertEquals(-1, lateRead.get());
+
+        Result echo = run("", "echo", "next");
+        assertEquals("next", echo.out());
+        assertEquals(2, lingering.runs());
+        assertFalse(lingering.isAlive());
+    }
+
+    private WorkerPool pool(Map<String, Object> settings) {
+        Map<String, Object> config = new HashMap<>(settings);
+        config.put(WorkerPool.REGISTRY_KEY, WorkerPool.PROCESS);
+        return new WorkerPool("test", config, command -> {
+            InMemoryProcess process = new InMemoryProcess();
+            launched.add(process);
+            return process;
+        });
+    }
+
+    private Result run(String input, String... args) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ByteArrayOutputStream err = new ByteArrayOutputStream();
+        InvocationContext context = new InvocationContext(new ByteArrayInputStream(input.getBytes(StandardCharsets.UTF_8)),
+                new PrintStream(out, true), new PrintStream(err, true), null);
+        int exitCode = context.call(() -> pool.run(args));
+        return new Result(exitCode, out.toString(StandardCharsets.UTF_8), err.toString(StandardCharsets.UTF_8));
+    }
+
+    private record Result(int exitCode, String out, String err) {
+    }
+
+    /**
+     * The plugin served by each worker.
+     */
+    private static final class TestPlugin implements JexPluginV2 {
+        private final AtomicInteger runs = new AtomicInteger();
+
+        @Override
+        public String getName() {
+            return "test";
+        }
+
+        @Override
+        public int run(String[] args) {
+            runs.incrementAndGet();
+            switch (args[0]) {
+                case "echo":
+                    System.out.print(args[1]);
+                    System.err.print("err:" + args[1]);
+                    return 3;
+                case "upper":
+                    try {
+                        System.out.print(new String(System.in.readAllBytes(), StandardCharsets.UTF_8).toUpperCase());
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                    return 0;
+                case "fail":
+                    throw new IllegalStateException("broken");
+                case "block":
+                    started.countDown();
+                    try {
+                        release.await();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                    System.out.print("done");
+                    return 0;
+                case "linger":
+                    Thread.ofPlatform().start(() -> {
+                        try {
+                            release.await();
+                            System.out.print("late");
+                            lateRead.set(System.in.read());
+                        } catch (InterruptedException | IOException e) {
+                            lateRead.set(-2);
+                        }
+                        lingered.countDown();
+                    });
+                    return 0;
+                default:
+                    return 0;
+            }
+        }
+    }
+
+    /**
+     * A worker served by WorkerPool.serve on a thread of this JVM, connected through pipes.
+     */
+    private static final class InMemoryProcess extends Process {
+        private final Pipe requests = new Pipe();
+        private final Pipe replies = new Pipe();
+        private final Thread thread;
+        private volatile TestPlugin plugin;
+        private volatile int exitCode;
+
+        InMemoryProcess() {
+            PrintStream discard = new PrintStream(OutputStream.nullOutputStream());
+            InvocationContext context = new InvocationContext(InputStream.nullInputStream(), discard, discard, null);
+            thread = Thread.ofPlatform().daemon().start(() -> context.run(() -> {
+                exitCode = WorkerPool.serve(() -> plugin = new TestPlugin(), requests.input(), replies.output());
+                replies.close();
+            }));
+        }
+
+        int runs() {
+            TestPlugin loaded = plugin;
+            return loaded != null ? loaded.runs.get() : 0;
+        }
+
+        @Override
+        public OutputStream getOutputStream() {
+            return requests.output();
+        }
+
+        @Override
+        public InputStream getInputStream() {
+            return replies.input();
+        }
+
+        @Override
+        public InputStream getErrorStream() {
+            return InputStream.nullInputStream();
+        }
+
+        @Override
+        public int waitFor() throws InterruptedException {
+            thread.join();
+            return exitCode;
+        }
+
+        @Override
+        public int exitValue() {
+            if (thread.isAlive()) {
+                throw new IllegalThreadStateException("worker is running");
+            }
+            return exitCode;
+        }
+
+        @Override
+        public void destroy() {
+            requests.close();
+            replies.close();
+            try {
+                thread.join(5000);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    /**
+     * In-memory byte pipe: reads block until data is written or the pipe is closed.
+     */
+    private static final class Pipe {
+        private byte[] buffer = new byte[1024];
+        private int start;
+        private int end;
+        private boolean closed;
+
+        synchronized void write(byte[] b, int off, int len) throws IOException {
+            if (closed) {
+                throw new IOException("Pipe closed");
+            }
+            if (end + len > buffer.length) {
+                byte[] grown = new byte[Math.max(buffer.length, 2 * (end - start + len))];
+                System.arraycopy(buffer, start, grown, 0, end - start);
+                end -= start;
+                start = 0;
+                buffer = grown;
+            }
+            System.arraycopy(b, off, buffer, end, len);
+            end += len;
+            notifyAll();
+        }
+
+        synchronized int read(byte[] b, int off, int len) throws IOException {
+            while (start == end && !closed) {
+                try {
+                    wait();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new InterruptedIOException();
+                }
+            }
+            if (start == end) {
+                return -1;
+            }
+            int count = Math.min(len, end - start);
+            System.arraycopy(buffer, start, b, off, count);
+            start += count;
+            return count;
+        }
+
+        synchronized void close() {
+            closed = true;
+            notifyAll();
+        }
+
+        InputStream input() {
+            return new InputStream() {
+                @Override
+                public int read() throws IOException {
+                    byte[] b = new byte[1];
+                    return Pipe.this.read(b, 0, 1) < 0 ? -1 : b[0] & 0xff;
+                }
+
+                @Override
+                public int read(byte[] b, int off, int len) throws IOException {
+                    return len == 0 ? 0 : Pipe.this.read(b, off, len);
+                }
+
+                @Override
+                public void close() {
+                    Pipe.this.close();
+                }
+            };
+        }
+
+        OutputStream output() {
+            return new OutputStream() {
+                @Override
+                public void write(int b) throws IOException {
+                    write(new byte[] {(byte) b}, 0, 1);
+                }
+
+                @Override
+                public void write(byte[] b, int off, int len) throws IOException {
+                    Pipe.this.write(b, off, len);
+                }
+
+                @Override
+                public void close() {
+                    Pipe.this.close();
+                }
+            };
+        }
+    }
+}
@@ -0,0 +1,98 @@
+package org.jex.plugins.newplugin;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.InputStreamReader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Maven helpers for plugin development: checking for mvn and installing artifacts
+ * (such as the Jex runtime plugins compile against) into the local repository.
+ */
+public class MavenSupport {
+
+    /**
+     * Check whether the mvn command is available.
+     */
+    public static boolean isMavenAvailable() {
+        try {
+            ProcessBuilder pb = new ProcessBuilder("mvn", "--version");
+            pb.redirectErrorStream(true);
+            Process process = pb.start();
+            int exitCode = process.waitFor();
+            return exitCode == 0;
+        } catch (Exception e) {
+            return false;
+        }
+    }
+
+    /**
+     * Path of the local Maven repository (~/.m2/repository).
+     */
+    public static String getLocalRepoPath() {
+        return System.getProperty("user.home") + File.separator + ".m2" + File.separator + "repository";
+    }
+
+    /**
+     * Check whether an artifact's JAR is in the local repository.
+     */
+    public static boolean artifactExists(String groupId, String artifactId, String version) {
+        String path = getLocalRepoPath() +
+                File.separator + groupId.replace(".", File.separator) +
+                File.separator + artifactId +
+                File.separator + version + File.separator + artifactId + "-" + version + ".jar";
+        return new File(path).exists();
+    }
+
+    /**
+     * Install a JAR into the local repository with mvn install:install-file.
+     * A standalone POM is supplied: the one embedded in a module JAR names a parent POM
+     * that is not in the repository, which would make the artifact unresolvable.
+     *
+     * @return true if mvn succeeded
+     */
+    public static boolean installArtifact(String jarPath, String groupId, String artifactId, String version)
+            throws Exception {
+        Path pom = Files.createTempFile(artifactId + "-", ".pom");
+        try {
+            Files.writeString(pom, """
+                    <?xml version="1.0" encoding="UTF-8"?>
+                    <project xmlns="http://maven.apache.org/POM/4.0.0">
+                      <modelVersion>4.0.0</modelVersion>
+                      <groupId>%s</groupId>
+                      <artifactId>%s</artifactId>
+                      <version>%s</version>
+                      <packaging>jar</packaging>
+                    </project>
+                    """.formatted(groupId, artifactId, version));
+
+            ProcessBuilder pb = new ProcessBuilder(
+                    "mvn", "install:install-file",
+                    "-Dfile=" + jarPath,
+                    "-DpomFile=" + pom,
+                    "-q"  // Quiet mode
+            );
+
+            pb.redirectErrorStream(true);
+            Process process = pb.start();
+
+            // Consume output to prevent blocking
+            try (BufferedReader reader = new BufferedReader(
+                    new InputStreamReader(process.getInputStream()))) {
+                while (reader.readLine() != null) {
+                    // Output is only useful for debugging
+                }
+            }
+
+            return process.waitFor() == 0;
+        } finally {
+            Files.deleteIfExists(pom);
+        }
+    }
+
+    // Private constructor - utility class should not be instantiated
+    private MavenSupport() {
+        throw new AssertionError("MavenSupport is a utility class and should not be instantiated");
+    }
+}
@@ -1,6 +1,7 @@
 package org.jex.plugins.newplugin;
 
 import org.jex.cli.JexPlugin;
+import org.jex.cli.JexPluginV2;
 import org.jex.cli.PathConfig;
 import org.jex.cli.JexMavenUtil;
 import org.jex.cli.ArgumentParser;
@@ -15,7 +16,11 @@ import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 
-public class NewPlugin implements JexPlugin {
+public class NewPlugin implements JexPluginV2 {
+
+    // Maven coordinates generated plugins compile against
+    static final String JEX_GROUP_ID = "org.jex.cli";
+    static final String JEX_ARTIFACT_ID = "jex-core";
 
     @Override
     public String getName() {
@@ -23,7 +28,7 @@ public class NewPlugin implements JexPlugin {
     }
 
     @Override
-    public void execute(String[] args) {
+    public int run(String[] args) {
         // Load options from bundled arguments.yaml
         Options options = ArgumentParser.loadOptionsFromResource("/plugins/newplugin/arguments.yaml", this.getClass());
 
@@ -35,7 +40,7 @@ public class NewPlugin implements JexPlugin {
 
             if (cmd.hasOption("h")) {
                 printHelp(formatter, options);
-                return;
+                return 0;
             }
 
             // Get plugin name from remaining arguments
@@ -43,30 +48,30 @@ public class NewPlugin implements JexPlugin {
             if (remainingArgs.length == 0) {
                 System.err.println("Error: JexPlugin name is required");
                 printHelp(formatter, options);
-                System.exit(1);
+                return 1;
             }
 
             String pluginName = remainingArgs[0];
             String javaPackage = cmd.getOptionValue("package");
 
             // Check Maven availability
-            if (!isMavenAvailable()) {
+            if (!MavenSupport.isMavenAvailable()) {
                 System.err.println("\nError: Maven is required for plugin development");
                 System.err.println("Please install Maven: https://maven.apache.org/install.html");
                 System.err.println("\nVerify installation with: mvn --version");
-                System.exit(1);
+                return 1;
             }
 
             // Install Jex to Maven local repo (if not already there)
             installJexToMavenRepo();
 
             // Generate the plugin
-            generate(pluginName, javaPackage);
+            return generate(pluginName, javaPackage);
 
         } catch (ParseException e) {
             System.err.println("Error parsing arguments: " + e.getMessage());
             printHelp(formatter, options);
-            System.exit(1);
+            return 1;
         }
     }
 
@@ -80,10 +85,10 @@ public class NewPlugin implements JexPlugin {
         System.out.println("  jex new-plugin my-tool --package com.mycompany.tools");
     }
 
-    private void generate(String pluginName, String javaPackage) {
+    private int generate(String pluginName, String javaPackage) {
         if (pluginName == null || pluginName.trim().isEmpty()) {
             System.err.println("Error: JexPlugin name cannot be empty");
-            return;
+            return 1;
         }
 
         // Sanitize plugin name (lowercase, hyphens)
@@ -104,7 +109,7 @@ public class NewPlugin implements JexPlugin {
         System.out.println("==========================");
         System.out.println();
         System.out.println("This will create a Java Maven project with:");
-        System.out.println("  • JexPlugin class implementing the JexPlugin interface");
+        System.out.println("  • JexPlugin class implementing the JexPluginV2 interface");
         System.out.println("  • arguments.yaml for CLI argument definitions");
         System.out.println("  • pom.xml configured for Jex plugins");
         System.out.println("  • README.md with usage instructions");
@@ -115,7 +120,7 @@ public class NewPlugin implements JexPlugin {
         String targetDir = promptForDirectory();
         if (targetDir == null) {
             System.out.println("JexPlugin generation cancelled.");
-            return;
+            return 1;
         }
 
         Path projectPath = Paths.get(targetDir, sanitizedName + "-plugin");
@@ -124,7 +129,7 @@ public class NewPlugin implements JexPlugin {
         if (Files.exists(projectPath)) {
             System.err.println("Error: Directory already exists: " + projectPath);
             System.err.println("Please choose a different location or plugin name.");
-            return;
+            return 1;
         }
 
         try {
@@ -135,8 +140,9 @@ public class NewPlugin implements JexPlugin {
             createProjectStructure(projectPath, packageName);
 
             // Generate files
-            generatePomXml(projectPath, sanitizedName);
+            generatePomXml(projectPath, sanitizedName, packageName, className);
             generatePluginClass(projectPath, packageName, className, sanitizedName);
+            generateServiceFile(projectPath, packageName, className);
             generateArgumentsYaml(projectPath, sanitizedName);
             generateReadme(projectPath, sanitizedName, className, packageName);
             generateGitignore(projectPath);
@@ -156,10 +162,12 @@ public class NewPlugin implements JexPlugin {
             System.out.println((javaPackage == null ? "6" : "5") + ". Install plugin (see README.md)");
             System.out.println();
             System.out.println("See README.md for detailed instructions.");
+            return 0;
 
         } catch (IOException e) {
             System.err.println("Error generating plugin project: " + e.getMessage());
             e.printStackTrace();
+            return 1;
         }
     }
 
@@ -218,7 +226,7 @@ public class NewPlugin implements JexPlugin {
         System.out.println("✓ Created project structure");
     }
 
-    private void generatePomXml(Path projectPath, String pluginName) throws IOException {
+    private void generatePomXml(Path projectPath, String pluginName, String packageName, String className) throws IOException {
         String template = loadTemplate("/plugins/newplugin/templates/PomTemplate.xml");
         String artifactId = pluginName + "-plugin";
         String jexVersion = JexMavenUtil.getVersion();
@@ -226,6 +234,9 @@ public class NewPlugin implements JexPlugin {
         String content = template
                 .replace("${ARTIFACT_ID}", artifactId)
                 .replace("${PLUGIN_NAME_CAPITALIZED}", capitalize(pluginName))
+                .replace("${PLUGIN_NAME}", pluginName)
+                .replace("${PACKAGE_NAME}", packageName)
+                .replace("${CLASS_NAME}", className)
                 .replace("${JEX_VERSION}", jexVersion);
 
         writeFile(projectPath.resolve("pom.xml"), content);
@@ -247,6 +258,13 @@ public class NewPlugin implements JexPlugin {
         System.out.println("✓ Generated " + className + ".java");
     }
 
+    private void generateServiceFile(Path projectPath, String packageName, String className) throws IOException {
+        Path servicesDir = projectPath.resolve("src/main/resources/META-INF/services");
+        Files.createDirectories(servicesDir);
+        writeFile(servicesDir.resolve(JexPlugin.class.getName()), packageName + "." + className + "\n");
+        System.out.println("✓ Generated META-INF/services/" + JexPlugin.class.getName());
+    }
+
     private void generateArgumentsYaml(Path projectPath, String pluginName) throws IOException {
         String template = loadTemplate("/plugins/newplugin/templates/ArgumentsTemplate.yaml");
 
@@ -340,57 +358,21 @@ dependency-reduced-pom.xml
         return input.substring(0, 1).toUpperCase() + input.substring(1);
     }
 
-    private boolean isMavenAvailable() {
-        try {
-            ProcessBuilder pb = new ProcessBuilder("mvn", "--version");
-            pb.redirectErrorStream(true);
-            Process process = pb.start();
-            int exitCode = process.waitFor();
-            return exitCode == 0;
-        } catch (Exception e) {
-            return false;
-        }
-    }
-
     private void installJexToMavenRepo() {
         System.out.println("\nChecking Maven local repository...");
 
         // Check if already installed (avoid re-installing every time)
-        if (isJexInMavenRepo()) {
+        String jexVersion = JexMavenUtil.getVersion();
+        if (MavenSupport.artifactExists(JEX_GROUP_ID, JEX_ARTIFACT_ID, jexVersion)) {
             System.out.println("✓ Jex already in Maven local repository");
             return;
         }
 
         System.out.println("Installing Jex to Maven local repository...");
         String jexJar = PathConfig.getLibDirectory() + File.separator + "jex.jar";
-        String jexVersion = JexMavenUtil.getVersion();
 
         try {
-            ProcessBuilder pb = new ProcessBuilder(
-                    "mvn", "install:install-file",
-                    "-Dfile=" + jexJar,
-                    "-DgroupId=org.jex.cli",
-                    "-DartifactId=Jex",
-                    "-Dversion=" + jexVersion,
-                    "-Dpackaging=jar",
-                    "-q"  // Quiet mode
-            );
-
-            pb.redirectErrorStream(true);
-            Process process = pb.start();
-
-            // Consume output to prevent blocking
-            try (BufferedReader reader = new BufferedReader(
-                    new InputStreamReader(process.getInputStream()))) {
-                String line;
-                while ((line = reader.readLine()) != null) {
-                    // Optionally print output for debugging
-                    // System.out.println(line);
-                }
-            }
-
-            int exitCode = process.waitFor();
-            if (exitCode == 0) {
+            if (MavenSupport.installArtifact(jexJar, JEX_GROUP_ID, JEX_ARTIFACT_ID, jexVersion)) {
                 System.out.println("✓ Jex installed to Maven local repository");
             } else {
                 System.err.println("⚠ Warning: Failed to install Jex to Maven repository");
@@ -402,16 +384,6 @@ dependency-reduced-pom.xml
         }
     }
 
-    private boolean isJexInMavenRepo() {
-        String jexVersion = JexMavenUtil.getVersion();
-        String mavenRepo = System.getProperty("user.home") +
-                File.separator + ".m2" + File.separator + "repository" +
-                File.separator + "org" + File.separator + "jex" +
-                File.separator + "cli" + File.separator + "Jex" +
-                File.separator + jexVersion + File.separator + "Jex-" + jexVersion + ".jar";
-        return new File(mavenRepo).exists();
-    }
-
     private String loadTemplate(String templatePath) throws IOException {
         try (BufferedReader reader = new BufferedReader(
                 new InputStreamReader(getClass().getResourceAsStream(templatePath)))) {
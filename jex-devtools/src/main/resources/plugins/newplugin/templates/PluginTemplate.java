@@ -1,10 +1,10 @@
 package ${PACKAGE_NAME};
 
-import org.jex.cli.JexPlugin;
+import org.jex.cli.JexPluginV2;
 import org.jex.cli.ArgumentParser;
 import org.apache.commons.cli.*;
 
-public class ${CLASS_NAME} implements JexPlugin {
+public class ${CLASS_NAME} implements JexPluginV2 {
 
     @Override
     public String getName() {
@@ -12,7 +12,7 @@ public class ${CLASS_NAME} implements JexPlugin {
     }
 
     @Override
-    public void execute(String[] args) {
+    public int run(String[] args) {
         // Load options from bundled arguments.yaml
         Options options = ArgumentParser.loadOptionsFromResource("/arguments.yaml", this.getClass());
 
@@ -24,16 +24,17 @@ public class ${CLASS_NAME} implements JexPlugin {
 
             if (cmd.hasOption("h")) {
                 formatter.printHelp("jex ${PLUGIN_NAME}", options);
-                return;
+                return 0;
             }
 
             // TODO: Implement your plugin logic here
             System.out.println("${CLASS_NAME_CAPITALIZED} plugin executed successfully!");
+            return 0;
 
         } catch (ParseException e) {
             System.err.println("Error parsing arguments: " + e.getMessage());
             formatter.printHelp("jex ${PLUGIN_NAME}", options);
-            System.exit(1);
+            return 1;
         }
     }
 }
\ No newline at end of file
@@ -0,0 +1,17 @@
+package org.jex.cli;
+
+import junit.framework.TestCase;
+
+/**
+ * Tests that the dev tools JAR carries its own internal plugin index.
+ */
+public class DevtoolsIndexTest extends TestCase {
+
+    public void testBuildIndexResolvesNewPlugin() throws Exception {
+        JexPlugin plugin = Jex.findInternalPlugin("new-plugin");
+
+        assertNotNull(plugin);
+        assertEquals("new-plugin", plugin.getName());
+        assertNull(Jex.findInternalPlugin("does-not-exist"));
+    }
+}